@@ -0,0 +1,35 @@
+package com.junmo.platform.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果.
+ *
+ * @param <T> 元素类型
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+    /** 本页数据. */
+    private List<T> content;
+
+    /** 下一页游标（不透明字符串，原样传回即可），没有更多数据时为空. */
+    private String nextCursor;
+
+    /** 是否还有下一页. */
+    private boolean hasMore;
+
+    /** 命中总数（仅第一页返回）. */
+    private Long total;
+}
@@ -0,0 +1,45 @@
+package com.junmo.platform.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 死信消息视图对象.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterMessageVO {
+
+    /** 消息ID. */
+    private String messageId;
+
+    /** 死信队列. */
+    private String queue;
+
+    /** 首次进入死信的原队列. */
+    private String originalQueue;
+
+    /** 死信原因（rejected, expired, maxlen）. */
+    private String reason;
+
+    /** 进入死信的次数. */
+    private Long deathCount;
+
+    /** 已延迟重试次数. */
+    private Integer retryCount;
+
+    /** 最近一次进入死信的时间. */
+    private LocalDateTime deathTime;
+
+    /** 消息体（UTF-8文本）. */
+    private String body;
+}
@@ -0,0 +1,34 @@
+package com.junmo.platform.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 死信消息重放结果.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayResult {
+
+    /** 死信队列. */
+    private String queue;
+
+    /** 扫描的消息数. */
+    private int scanned;
+
+    /** 重放（或丢弃）成功的消息数. */
+    private int processed;
+
+    /** 未匹配过滤条件、保留在死信队列中的消息数. */
+    private int skipped;
+
+    /** 处理失败、保留在死信队列中的消息数. */
+    private int failed;
+}
@@ -0,0 +1,33 @@
+package com.junmo.platform.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 消息历史查询请求.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageHistoryRequest implements Serializable {
+
+    /** 私聊对方用户ID，为空表示公共会话. */
+    private Long peerId;
+
+    /** 最后收到的消息ID，不为空时返回其后的消息（重连同步）. */
+    private Long afterMessageId;
+
+    /** 当前最早的消息ID，返回其前的消息（向前翻页），与 afterMessageId 同时为空时返回最新消息. */
+    private Long beforeMessageId;
+
+    /** 最多返回的消息数. */
+    private Integer limit;
+}
@@ -18,7 +18,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class NotificationMessage implements Serializable {
+public class NotificationMessage implements Serializable, TimestampedMessage {
 
     private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,42 @@
+package com.junmo.platform.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在线状态推送帧.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceUpdate implements Serializable {
+
+    /** 帧类型 (DELTA: 增量变更, SNAPSHOT: 全量在线用户). */
+    private String type;
+
+    /** 产生增量帧的节点ID，序号按节点独立递增（快照帧为空）. */
+    private String origin;
+
+    /** 增量帧在所属节点内的序号，只增不减；客户端按 origin 分别检查，跳号时应请求快照. */
+    private long sequence;
+
+    /** 快照生成时各节点的当前序号（节点ID -> 序号），客户端应用快照后丢弃各节点序号不大于它的增量. */
+    private Map<String, Long> sequences;
+
+    /** 状态变更（快照时为全部在线用户的当前状态）. */
+    private List<UserStatusMessage> changes;
+
+    /** 创建时间. */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.junmo.platform.api.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 带创建时间的消息.
+ * 用于统计消息从创建到被消费的端到端延迟.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public interface TimestampedMessage {
+
+    /**
+     * 获取消息创建时间.
+     *
+     * @return 创建时间
+     */
+    LocalDateTime getCreatedAt();
+}
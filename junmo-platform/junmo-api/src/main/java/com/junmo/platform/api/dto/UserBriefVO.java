@@ -0,0 +1,52 @@
+package com.junmo.platform.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 用户列表视图对象.
+ * 只包含列表页展示的字段，由搜索结果的 _source 子集直接构造.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "用户列表视图对象")
+public class UserBriefVO implements Serializable {
+
+    /** 用户ID. */
+    @Schema(description = "用户ID")
+    private Long id;
+
+    /** 用户名. */
+    @Schema(description = "用户名")
+    private String username;
+
+    /** 真实姓名. */
+    @Schema(description = "真实姓名")
+    private String realName;
+
+    /** 邮箱. */
+    @Schema(description = "邮箱")
+    private String email;
+
+    /** 头像. */
+    @Schema(description = "头像")
+    private String avatar;
+
+    /** 状态. */
+    @Schema(description = "状态")
+    private Integer status;
+
+    /** 部门ID. */
+    @Schema(description = "部门ID")
+    private String deptId;
+}
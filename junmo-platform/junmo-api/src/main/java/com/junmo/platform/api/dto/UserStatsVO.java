@@ -0,0 +1,74 @@
+package com.junmo.platform.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 用户统计视图对象.
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "用户统计视图对象")
+public class UserStatsVO implements Serializable {
+
+    /** 数据来源：elasticsearch 或 database. */
+    @Schema(description = "数据来源")
+    private String source;
+
+    /** 总用户数（不含已删除）. */
+    @Schema(description = "总用户数")
+    private long totalCount;
+
+    /** 今日新增用户数. */
+    @Schema(description = "今日新增用户数")
+    private long todayCount;
+
+    /** 最近7天新增用户数. */
+    @Schema(description = "最近7天新增用户数")
+    private long weekCount;
+
+    /** 本月新增用户数. */
+    @Schema(description = "本月新增用户数")
+    private long monthCount;
+
+    /** 日活跃用户数（最近1天有更新的正常用户）. */
+    @Schema(description = "日活跃用户数")
+    private long dailyActiveCount;
+
+    /** 周活跃用户数（最近7天有更新的正常用户）. */
+    @Schema(description = "周活跃用户数")
+    private long weeklyActiveCount;
+
+    /** 月活跃用户数（最近30天有更新的正常用户）. */
+    @Schema(description = "月活跃用户数")
+    private long monthlyActiveCount;
+
+    /** 各状态用户数（状态 -> 用户数）. */
+    @Schema(description = "各状态用户数")
+    private Map<Integer, Long> statusCounts;
+
+    /** 各部门用户数（部门ID -> 用户数）. */
+    @Schema(description = "各部门用户数")
+    private Map<String, Long> deptCounts;
+
+    /** 最近30天每日新增用户数（日期 -> 用户数）. */
+    @Schema(description = "最近30天每日新增用户数")
+    private Map<LocalDate, Long> dailyCreatedCounts;
+
+    /** 统计时间. */
+    @Schema(description = "统计时间")
+    private LocalDateTime generatedAt;
+}
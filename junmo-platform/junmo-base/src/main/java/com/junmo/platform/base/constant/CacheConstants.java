@@ -58,6 +58,30 @@ public interface CacheConstants {
          */
         String LIST_KEY = KEY_PREFIX + DELIMITER + "list";
 
+        /**
+         * 已占用用户名布隆过滤器key
+         * 格式: junmo:user:bloom:username
+         */
+        String USERNAME_BLOOM_KEY = KEY_PREFIX + DELIMITER + "bloom" + DELIMITER + "username";
+
+        /**
+         * 已占用邮箱布隆过滤器key
+         * 格式: junmo:user:bloom:email
+         */
+        String EMAIL_BLOOM_KEY = KEY_PREFIX + DELIMITER + "bloom" + DELIMITER + "email";
+
+        /**
+         * 布隆过滤器已装载标记key
+         * 格式: junmo:user:bloom:ready
+         */
+        String BLOOM_READY_KEY = KEY_PREFIX + DELIMITER + "bloom" + DELIMITER + "ready";
+
+        /**
+         * 布隆过滤器装载中标记key（防止多个节点同时装载）
+         * 格式: junmo:user:bloom:seeding
+         */
+        String BLOOM_SEEDING_KEY = KEY_PREFIX + DELIMITER + "bloom" + DELIMITER + "seeding";
+
         /**
          * 用户缓存过期时间（秒）- 30分钟
          */
@@ -231,6 +255,12 @@ public interface CacheConstants {
          */
         String USER_LOCK_KEY = KEY_PREFIX + DELIMITER + "user";
 
+        /**
+         * 用户索引重建锁key
+         * 格式: junmo:lock:search:rebuild
+         */
+        String SEARCH_REBUILD_LOCK_KEY = KEY_PREFIX + DELIMITER + "search" + DELIMITER + "rebuild";
+
         /**
          * 锁过期时间（秒）- 30秒
          */
@@ -241,4 +271,130 @@ public interface CacheConstants {
          */
         long WAIT_TIME = 10000L;
     }
-}
\ No newline at end of file
+
+    /**
+     * 消息幂等消费相关缓存
+     */
+    interface IDEMPOTENT {
+
+        /**
+         * 幂等缓存key前缀
+         */
+        String KEY_PREFIX = NAMESPACE + DELIMITER + "idempotent";
+
+        /**
+         * 已处理消息标记key
+         * 格式: junmo:idempotent:done:{namespace}:{messageKey}
+         */
+        String DONE_KEY = KEY_PREFIX + DELIMITER + "done";
+
+        /**
+         * 去重窗口（秒）- 24小时
+         */
+        long EXPIRE_TIME = 86400L;
+    }
+
+    /**
+     * 在线状态相关缓存
+     */
+    interface PRESENCE {
+
+        /**
+         * 在线状态缓存key前缀
+         */
+        String KEY_PREFIX = NAMESPACE + DELIMITER + "presence";
+
+        /**
+         * 在线用户有序集合（成员为用户ID，分数为最近心跳时间）
+         * 格式: junmo:presence:online
+         */
+        String ONLINE_KEY = KEY_PREFIX + DELIMITER + "online";
+
+        /**
+         * 在线用户资料哈希（字段为用户ID）
+         * 格式: junmo:presence:profile
+         */
+        String PROFILE_KEY = KEY_PREFIX + DELIMITER + "profile";
+
+        /**
+         * 用户会话哈希（字段为会话ID，值为最近心跳时间）
+         * 格式: junmo:presence:sessions:{userId}
+         */
+        String SESSIONS_KEY = KEY_PREFIX + DELIMITER + "sessions";
+
+        /**
+         * 在线状态推送序号哈希（字段为节点ID，值为该节点最近一帧增量的序号）
+         * 格式: junmo:presence:sequence
+         */
+        String SEQUENCE_KEY = KEY_PREFIX + DELIMITER + "sequence";
+
+        /**
+         * 推送节点有序集合（成员为节点ID，分数为节点最近心跳时间），用于清理已宕机节点的序号
+         * 格式: junmo:presence:nodes
+         */
+        String NODES_KEY = KEY_PREFIX + DELIMITER + "nodes";
+    }
+
+    /**
+     * 搜索索引相关缓存
+     */
+    interface SEARCH {
+
+        /**
+         * 搜索缓存key前缀
+         */
+        String KEY_PREFIX = NAMESPACE + DELIMITER + "search";
+
+        /**
+         * 正在重建的用户索引名（存在时各节点记录重建期间写入的用户ID）
+         * 格式: junmo:search:rebuild:index
+         */
+        String REBUILD_INDEX_KEY = KEY_PREFIX + DELIMITER + "rebuild" + DELIMITER + "index";
+
+        /**
+         * 重建期间发生变更的用户ID集合
+         * 格式: junmo:search:rebuild:changed
+         */
+        String REBUILD_CHANGED_KEY = KEY_PREFIX + DELIMITER + "rebuild" + DELIMITER + "changed";
+
+        /**
+         * 用户索引版本号（hash：字段 * 为整体版本号，其余字段为按状态、部门划分的范围版本号），
+         * 索引写入后递增受影响范围的版本号，用于使搜索结果缓存失效
+         * 格式: junmo:search:generations
+         */
+        String GENERATION_KEY = KEY_PREFIX + DELIMITER + "generations";
+    }
+
+    /**
+     * 用户关系图相关缓存
+     */
+    interface GRAPH {
+
+        /**
+         * 关系图缓存key前缀
+         */
+        String KEY_PREFIX = NAMESPACE + DELIMITER + "graph";
+
+        /**
+         * 好友推荐有序集合（成员为推荐用户ID，分数为共同好友数）
+         * 格式: junmo:graph:recommend:{userId}
+         */
+        String RECOMMEND_KEY = KEY_PREFIX + DELIMITER + "recommend";
+
+        /**
+         * 好友关系变化后待刷新推荐的用户ID集合
+         * 格式: junmo:graph:dirty
+         */
+        String RECOMMEND_DIRTY_KEY = KEY_PREFIX + DELIMITER + "dirty";
+
+        /**
+         * 好友推荐过期时间（秒）- 24小时
+         */
+        long RECOMMEND_EXPIRE_TIME = 86400L;
+
+        /**
+         * 无推荐结果标记的过期时间（秒）- 10分钟
+         */
+        long RECOMMEND_EMPTY_EXPIRE_TIME = 600L;
+    }
+}
@@ -0,0 +1,62 @@
+package com.junmo.platform.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 幂等消费注解
+ * <p>
+ * 标注在消息监听方法上，方法执行成功后记录消息的去重key；
+ * 重复投递的消息直接跳过方法执行（存在 Kafka {@code Acknowledgment} 参数时自动确认）。
+ * </p>
+ *
+ * <p>去重key的来源：</p>
+ * <ul>
+ *   <li>指定 {@link #key()} 时，按 SpEL 表达式从方法参数计算</li>
+ *   <li>未指定时，参数中有 {@code ConsumerRecord} 则使用 主题-分区@偏移量，
+ *       有 AMQP {@code Message} 则使用消息ID</li>
+ * </ul>
+ *
+ * <p>使用示例：</p>
+ * <pre>
+ * {@code
+ * @KafkaListener(topics = "user-created-topic")
+ * @IdempotentConsumer(key = "#topic + '-' + #partition + '@' + #offset")
+ * public void handleUserCreated(@Payload UserCreatedMessage message, ...) {
+ *     // 业务逻辑
+ * }
+ * }
+ * </pre>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface IdempotentConsumer {
+
+    /**
+     * 去重key的 SpEL 表达式
+     * <p>
+     * 可以通过 #参数名 引用方法参数，为空时自动从消息元数据推导。
+     * </p>
+     *
+     * @return 去重key表达式
+     */
+    String key() default "";
+
+    /**
+     * 去重命名空间
+     * <p>
+     * 不同消费者处理同一条消息互不影响，为空时使用方法签名。
+     * </p>
+     *
+     * @return 去重命名空间
+     */
+    String namespace() default "";
+}
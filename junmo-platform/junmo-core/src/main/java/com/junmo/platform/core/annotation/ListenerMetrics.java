@@ -0,0 +1,49 @@
+package com.junmo.platform.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 消息监听指标注解
+ * <p>
+ * 标注在消息监听方法上，记录方法处理耗时；参数中的消息（或批量消息中的每一条）
+ * 实现了 {@code TimestampedMessage} 时，处理成功后同时记录端到端延迟。
+ * </p>
+ *
+ * <p>使用示例：</p>
+ * <pre>
+ * {@code
+ * @KafkaListener(topics = "user-created-topic")
+ * @ListenerMetrics(listener = "kafka.user-created", messageType = "UserCreatedMessage")
+ * public void handleUserCreated(@Payload UserCreatedMessage message, ...) {
+ *     // 业务逻辑
+ * }
+ * }
+ * </pre>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ListenerMetrics {
+
+    /**
+     * 监听器名称（指标 listener 标签）
+     *
+     * @return 监听器名称
+     */
+    String listener();
+
+    /**
+     * 消息类型（指标 type 标签）
+     *
+     * @return 消息类型
+     */
+    String messageType();
+}
@@ -0,0 +1,118 @@
+package com.junmo.platform.core.aspect;
+
+import com.junmo.platform.core.annotation.IdempotentConsumer;
+import com.junmo.platform.core.mq.IdempotentMessageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.amqp.core.Message;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 幂等消费切面
+ * <p>
+ * 拦截带有@IdempotentConsumer注解的监听方法：已处理过的消息跳过执行，执行成功后记录去重key。
+ * 执行抛出异常时不记录，消息重新投递后仍会被处理。
+ * </p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotentConsumerAspect {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final IdempotentMessageStore idempotentMessageStore;
+
+    /**
+     * 已解析的 SpEL 表达式缓存
+     */
+    private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>();
+
+    /**
+     * 环绕通知：拦截@IdempotentConsumer注解的方法
+     *
+     * @param joinPoint 连接点
+     * @param idempotentConsumer 幂等消费注解
+     * @return 方法执行结果，重复消息返回null
+     * @throws Throwable 方法执行异常
+     */
+    @Around("@annotation(idempotentConsumer)")
+    public Object around(ProceedingJoinPoint joinPoint, IdempotentConsumer idempotentConsumer) throws Throwable {
+        String namespace = idempotentConsumer.namespace();
+        if (!StringUtils.hasText(namespace)) {
+            namespace = joinPoint.getSignature().toShortString();
+        }
+
+        String messageKey = resolveKey(joinPoint, idempotentConsumer);
+        if (messageKey == null) {
+            log.warn("无法确定消息去重key，跳过幂等检查: method={}", namespace);
+            return joinPoint.proceed();
+        }
+
+        if (idempotentMessageStore.isProcessed(namespace, messageKey)) {
+            log.info("重复消息，跳过处理: namespace={}, key={}", namespace, messageKey);
+            acknowledgeIfPresent(joinPoint.getArgs());
+            return null;
+        }
+
+        Object result = joinPoint.proceed();
+        idempotentMessageStore.markProcessed(namespace, messageKey);
+        return result;
+    }
+
+    private String resolveKey(ProceedingJoinPoint joinPoint, IdempotentConsumer idempotentConsumer) {
+        Object[] args = joinPoint.getArgs();
+        if (StringUtils.hasText(idempotentConsumer.key())) {
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            Expression expression = expressionCache.computeIfAbsent(idempotentConsumer.key(), PARSER::parseExpression);
+            MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                    joinPoint.getTarget(), signature.getMethod(), args, PARAMETER_NAME_DISCOVERER);
+            Object value = expression.getValue(context);
+            return value != null ? value.toString() : null;
+        }
+
+        for (Object arg : args) {
+            if (arg instanceof ConsumerRecord<?, ?> record) {
+                return record.topic() + "-" + record.partition() + "@" + record.offset();
+            }
+            if (arg instanceof Message message && StringUtils.hasText(message.getMessageProperties().getMessageId())) {
+                return message.getMessageProperties().getMessageId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 手动确认模式下，跳过的重复消息也需要确认，否则偏移量无法提交
+     */
+    private void acknowledgeIfPresent(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Acknowledgment acknowledgment) {
+                acknowledgment.acknowledge();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.junmo.platform.core.aspect;
+
+import com.junmo.platform.api.dto.TimestampedMessage;
+import com.junmo.platform.core.annotation.ListenerMetrics;
+import com.junmo.platform.core.mq.MessageMetrics;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * 消息监听指标切面
+ * <p>
+ * 拦截带有@ListenerMetrics注解的方法，记录处理耗时和端到端延迟。
+ * </p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ListenerMetricsAspect {
+
+    private final MessageMetrics messageMetrics;
+
+    /**
+     * 环绕通知：拦截@ListenerMetrics注解的方法
+     *
+     * @param joinPoint 连接点
+     * @param listenerMetrics 监听指标注解
+     * @return 方法执行结果
+     * @throws Throwable 方法执行异常
+     */
+    @Around("@annotation(listenerMetrics)")
+    public Object around(ProceedingJoinPoint joinPoint, ListenerMetrics listenerMetrics) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = "success";
+            recordEndToEnd(listenerMetrics, joinPoint.getArgs());
+            return result;
+        } finally {
+            messageMetrics.recordProcessing(listenerMetrics.listener(), listenerMetrics.messageType(),
+                    outcome, System.nanoTime() - start);
+        }
+    }
+
+    private void recordEndToEnd(ListenerMetrics listenerMetrics, Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Collection<?> batch) {
+                batch.forEach(element -> recordEndToEnd(listenerMetrics, element));
+            } else {
+                recordEndToEnd(listenerMetrics, arg);
+            }
+        }
+    }
+
+    private void recordEndToEnd(ListenerMetrics listenerMetrics, Object arg) {
+        Object payload = arg instanceof ConsumerRecord<?, ?> record ? record.value() : arg;
+        if (payload instanceof TimestampedMessage message) {
+            messageMetrics.recordEndToEnd(listenerMetrics.listener(), listenerMetrics.messageType(), message);
+        }
+    }
+}
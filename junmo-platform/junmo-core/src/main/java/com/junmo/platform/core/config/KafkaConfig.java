@@ -1,7 +1,11 @@
 package com.junmo.platform.core.config;
 
+import com.junmo.platform.core.mq.codec.AvroMessageDeserializer;
+import com.junmo.platform.core.mq.codec.AvroMessageSerializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,15 +18,25 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Kafka配置
  *
+ * <p>消息值使用基于本地 schema 文件的 Avro 二进制编码（见 resources/avro），
+ * 替代 JSON 文本编码，减少消息体积和反射开销。</p>
+ *
+ * <p>消费端反序列化器由 {@link ErrorHandlingDeserializer} 包装：无法解码的记录不会让容器在该分区上反复失败，
+ * 而是以原始字节投递到死信主题 {@code <topic>.DLT}。</p>
+ *
  * @author junmo-platform
  * @version 2.0.0
  */
@@ -45,6 +59,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.listener.ack-mode:manual_immediate}")
     private ContainerProperties.AckMode ackMode;
 
+    @Value("${mq.kafka.parallel.concurrency:3}")
+    private int parallelConcurrency;
+
     // ==================== 生产者配置 ====================
 
     /**
@@ -55,7 +72,7 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JacksonJsonDeserializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AvroMessageSerializer.class);
         props.put(ProducerConfig.ACKS_CONFIG, "all");
         props.put(ProducerConfig.RETRIES_CONFIG, 3);
         props.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
@@ -85,6 +102,35 @@ public class KafkaConfig {
         return kafkaTemplate;
     }
 
+    /**
+     * 死信消息发布器
+     *
+     * <p>反序列化失败的记录只有原始字节，使用字节数组序列化器原样投递；其余记录使用默认的 Avro 序列化器。
+     * 死信主题分区由 Kafka 决定，不要求与原主题分区数一致。</p>
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer kafkaDeadLetterRecoverer() {
+        Map<String, Object> bytesProps = new HashMap<>(producerConfigs());
+        bytesProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        KafkaTemplate<String, byte[]> bytesTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(bytesProps));
+
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, bytesTemplate);
+        templates.put(Object.class, kafkaTemplate());
+        return new DeadLetterPublishingRecoverer(templates,
+                (record, exception) -> new TopicPartition(record.topic() + ".DLT", -1));
+    }
+
+    /**
+     * 监听器错误处理器：反序列化失败等不可重试异常直接投递死信主题并提交偏移量
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler() {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(kafkaDeadLetterRecoverer());
+        errorHandler.setCommitRecovered(true);
+        return errorHandler;
+    }
+
     // ==================== 消费者配置 ====================
 
     /**
@@ -96,15 +142,14 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JacksonJsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, AvroMessageDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, enableAutoCommit);
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
         props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000);
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
         props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 10000);
-        // 信任所有包的JSON反序列化
-        props.put(JacksonJsonDeserializer.TRUSTED_PACKAGES, "*");
         return props;
     }
 
@@ -128,8 +173,33 @@ public class KafkaConfig {
         factory.setConcurrency(3);
         // 设置手动确认模式
         factory.getContainerProperties().setAckMode(ackMode);
+        // 无法解码的记录投递死信主题
+        factory.setCommonErrorHandler(kafkaErrorHandler());
         // 设置自动启动
         factory.setAutoStartup(true);
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Kafka并行消费监听器容器工厂
+     *
+     * <p>批量拉取 + 手动确认，配合 {@link com.junmo.platform.core.mq.KeyOrderedParallelProcessor}
+     * 在分区内按 Key 并行处理，并发度不再受分区数限制。</p>
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> parallelKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        // 容器线程只负责拉取和提交，真正的处理并发度由处理器控制
+        factory.setConcurrency(parallelConcurrency);
+        // 批量监听，一次拿到 poll 返回的全部记录
+        factory.setBatchListener(true);
+        // 批量手动确认，支持 nack(index) 只提交成功前缀的偏移量
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // 批量模式下无法解码的记录值为 null，由监听器投递死信主题（见 KafkaMessageConsumer）
+        factory.setCommonErrorHandler(kafkaErrorHandler());
+        factory.setAutoStartup(true);
+        return factory;
+    }
+}
@@ -1,28 +1,45 @@
 package com.junmo.platform.core.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.neo4j.driver.AuthTokens;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.neo4j.config.AbstractNeo4jConfig;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import java.util.List;
+
 /**
  * Neo4j 图数据库配置
  *
- * <p>配置 Neo4j 数据库连接和 Spring Data Neo4j 仓库扫描。</p>
+ * <p>配置 Neo4j 数据库连接和 Spring Data Neo4j 仓库扫描，启动时创建用户关系图的唯一约束和索引。</p>
  *
  * @author junmo-platform
  * @version 1.0.0
  */
+@Slf4j
 @Configuration
-@EnableNeo4jRepositories(basePackages = "com.junmo.platform.core.repository.neo4j")
+@EnableNeo4jRepositories(basePackages = "com.junmo.platform.model.repository.neo4j")
 @EnableTransactionManagement
 public class Neo4jConfig extends AbstractNeo4jConfig {
 
+    /**
+     * 用户关系图的约束和索引
+     * 唯一约束同时提供索引，关系查询都从 User.id 定位起点
+     */
+    private static final List<String> SCHEMA = List.of(
+            "CREATE CONSTRAINT user_id_unique IF NOT EXISTS FOR (u:User) REQUIRE u.id IS UNIQUE",
+            "CREATE CONSTRAINT user_username_unique IF NOT EXISTS FOR (u:User) REQUIRE u.username IS UNIQUE",
+            "CREATE INDEX user_status IF NOT EXISTS FOR (u:User) ON (u.status)",
+            "CREATE INDEX follows_created_at IF NOT EXISTS FOR ()-[r:FOLLOWS]-() ON (r.createdAt)",
+            "CREATE INDEX friend_created_at IF NOT EXISTS FOR ()-[r:FRIEND]-() ON (r.createdAt)");
+
     @Value("${spring.neo4j.uri:bolt://localhost:7687}")
     private String uri;
 
@@ -42,4 +59,24 @@ public class Neo4jConfig extends AbstractNeo4jConfig {
     public Driver driver() {
         return GraphDatabase.driver(uri, AuthTokens.basic(username, password));
     }
-}
\ No newline at end of file
+
+    /**
+     * 启动时创建约束和索引（幂等），失败时只记录日志，不影响启动
+     *
+     * @param neo4jClient Neo4j 客户端
+     * @return 启动任务
+     */
+    @Bean
+    public ApplicationRunner neo4jSchemaInitializer(Neo4jClient neo4jClient) {
+        return args -> {
+            for (String statement : SCHEMA) {
+                try {
+                    neo4jClient.query(statement).run();
+                } catch (RuntimeException e) {
+                    log.warn("创建 Neo4j 约束或索引失败: statement={}, error={}", statement, e.getMessage());
+                }
+            }
+            log.info("Neo4j 用户关系图约束和索引已就绪");
+        };
+    }
+}
@@ -2,12 +2,19 @@ package com.junmo.platform.core.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.amqp.autoconfigure.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * RabbitMQ配置
@@ -19,6 +26,21 @@ import org.springframework.context.annotation.Configuration;
 @Slf4j
 public class RabbitMQConfig {
 
+    @Value("${mq.rabbitmq.listener.prefetch:50}")
+    private int prefetch;
+
+    @Value("${mq.rabbitmq.listener.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mq.rabbitmq.listener.receive-timeout:200}")
+    private long receiveTimeout;
+
+    @Value("${mq.rabbitmq.listener.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Value("${mq.rabbitmq.retry.delays:5000,30000,300000}")
+    private long[] retryDelays;
+
     // ==================== 队列定义 ====================
 
     /**
@@ -31,6 +53,21 @@ public class RabbitMQConfig {
      */
     public static final String NOTIFICATION_QUEUE = "notification.queue";
 
+    /**
+     * 用户创建死信队列
+     */
+    public static final String USER_CREATED_DLQ = "user.created.dlq";
+
+    /**
+     * 通知死信队列
+     */
+    public static final String NOTIFICATION_DLQ = "notification.dlq";
+
+    /**
+     * 延迟重试次数消息头
+     */
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
     // ==================== 交换机定义 ====================
 
     /**
@@ -64,7 +101,7 @@ public class RabbitMQConfig {
     public Queue userCreatedQueue() {
         return QueueBuilder.durable(USER_CREATED_QUEUE)
                 .withArgument("x-dead-letter-exchange", "user.dlx.exchange")
-                .withArgument("x-dead-letter-routing-key", "user.created.dlq")
+                .withArgument("x-dead-letter-routing-key", USER_CREATED_DLQ)
                 .build();
     }
 
@@ -75,7 +112,7 @@ public class RabbitMQConfig {
     public Queue notificationQueue() {
         return QueueBuilder.durable(NOTIFICATION_QUEUE)
                 .withArgument("x-dead-letter-exchange", "notification.dlx.exchange")
-                .withArgument("x-dead-letter-routing-key", "notification.dlq")
+                .withArgument("x-dead-letter-routing-key", NOTIFICATION_DLQ)
                 .build();
     }
 
@@ -126,7 +163,7 @@ public class RabbitMQConfig {
      */
     @Bean
     public Queue userDeadLetterQueue() {
-        return QueueBuilder.durable("user.created.dlq").build();
+        return QueueBuilder.durable(USER_CREATED_DLQ).build();
     }
 
     /**
@@ -134,7 +171,7 @@ public class RabbitMQConfig {
      */
     @Bean
     public Queue notificationDeadLetterQueue() {
-        return QueueBuilder.durable("notification.dlq").build();
+        return QueueBuilder.durable(NOTIFICATION_DLQ).build();
     }
 
     /**
@@ -160,7 +197,7 @@ public class RabbitMQConfig {
     public Binding userDeadLetterBinding() {
         return BindingBuilder.bind(userDeadLetterQueue())
                 .to(userDeadLetterExchange())
-                .with("user.created.dlq");
+                .with(USER_CREATED_DLQ);
     }
 
     /**
@@ -170,17 +207,124 @@ public class RabbitMQConfig {
     public Binding notificationDeadLetterBinding() {
         return BindingBuilder.bind(notificationDeadLetterQueue())
                 .to(notificationDeadLetterExchange())
-                .with("notification.dlq");
+                .with(NOTIFICATION_DLQ);
+    }
+
+    // ==================== 延迟重试队列 ====================
+
+    /**
+     * 延迟重试队列
+     *
+     * <p>每个业务队列按重试延迟分级声明一组 TTL 队列（无消费者），消息过期后经默认交换机
+     * 死信回原队列。重试在 Broker 端等待，不占用消费者线程，原队列的其他消息不受阻塞。</p>
+     *
+     * @return 重试队列声明
+     */
+    @Bean
+    public Declarables retryQueues() {
+        List<Declarable> queues = new ArrayList<>();
+        for (String sourceQueue : List.of(USER_CREATED_QUEUE, NOTIFICATION_QUEUE)) {
+            for (long delay : retryDelays) {
+                queues.add(QueueBuilder.durable(retryQueueName(sourceQueue, delay))
+                        .ttl((int) delay)
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(sourceQueue)
+                        .build());
+            }
+        }
+        log.info("RabbitMQ延迟重试队列初始化完成: delays={}", retryDelays);
+        return new Declarables(queues);
+    }
+
+    /**
+     * 获取延迟重试队列名称
+     *
+     * <p>队列名包含延迟时间，调整延迟配置时会声明新队列，避免与已有队列的 TTL 参数冲突。</p>
+     *
+     * @param sourceQueue 业务队列
+     * @param delayMillis 延迟时间（毫秒）
+     * @return 重试队列名称
+     */
+    public static String retryQueueName(String sourceQueue, long delayMillis) {
+        return sourceQueue + ".retry." + delayMillis;
     }
 
     // ==================== 消息转换器 ====================
 
     /**
      * JSON消息转换器
+     *
+     * <p>发送时生成消息ID，供消费端幂等去重使用。</p>
      */
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        converter.setCreateMessageIds(true);
+        return converter;
+    }
+
+    // ==================== 监听器容器工厂 ====================
+
+    /**
+     * 默认监听器容器工厂（逐条消费）
+     *
+     * <p>重试等通用配置沿用 spring.rabbitmq.listener.simple，并发度由各监听器按队列单独指定。</p>
+     *
+     * @param configurer Spring Boot 监听器容器配置器
+     * @param connectionFactory 连接工厂
+     * @return 监听器容器工厂
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        // 监听器通过抛出异常决定重新入队或进入死信队列，由容器自动确认
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setPrefetchCount(prefetch);
+        applyTaskExecutor(factory, "rabbit-consumer-");
+        return factory;
+    }
+
+    /**
+     * 批量监听器容器工厂
+     *
+     * <p>消费者侧攒批：每次最多接收 batchSize 条消息，或等待 receiveTimeout 毫秒后交付已收到的消息，
+     * 监听器一次处理一批并手动确认，适合突发流量快速排空。</p>
+     *
+     * @param connectionFactory 连接工厂
+     * @return 批量监听器容器工厂
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        // 预取数不能小于批大小，否则攒批总要等到超时
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setDefaultRequeueRejected(true);
+        applyTaskExecutor(factory, "rabbit-batch-consumer-");
+        log.info("RabbitMQ批量监听器容器工厂初始化完成: prefetch={}, batchSize={}, receiveTimeout={}ms, virtualThreads={}",
+                Math.max(prefetch, batchSize), batchSize, receiveTimeout, virtualThreads);
+        return factory;
+    }
+
+    /**
+     * 设置消费者线程执行器（可选虚拟线程）
+     */
+    private void applyTaskExecutor(SimpleRabbitListenerContainerFactory factory, String threadNamePrefix) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            factory.setTaskExecutor(executor);
+        }
     }
 
     // ==================== RabbitTemplate ====================
@@ -193,15 +337,19 @@ public class RabbitMQConfig {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
 
-        // 开启发送确认
+        // 开启发送确认（重发由 PublisherConfirmTracker 根据 CorrelationData 处理，这里只记录日志）
         rabbitTemplate.setConfirmCallback((correlationData, ack, cause) -> {
+            String correlationId = correlationData != null ? correlationData.getId() : null;
             if (ack) {
-                log.info("消息发送成功: correlationId={}", correlationData);
+                log.debug("消息发送成功: correlationId={}", correlationId);
             } else {
-                log.error("消息发送失败: correlationId={}, cause={}", correlationData, cause);
+                log.warn("消息发送失败: correlationId={}, cause={}", correlationId, cause);
             }
         });
 
+        // 无法路由的消息退回给发送方，而不是被 Broker 丢弃
+        rabbitTemplate.setMandatory(true);
+
         // 开启返回确认
         rabbitTemplate.setReturnsCallback(returned -> {
             log.error("消息被退回: message={}, replyCode={}, replyText={}, exchange={}, routingKey={}",
@@ -0,0 +1,71 @@
+package com.junmo.platform.core.config;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Locale;
+
+/**
+ * WebSocket 消息代理模式（websocket.broker.mode）
+ *
+ * <p>配置值不区分大小写，所有按模式分支的地方（代理配置、广播器、条件装配的 Bean）都经由 {@link #of(String)} 解析，
+ * 避免同一配置值在不同位置得出不同结论。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public enum WebSocketBrokerMode {
+
+    /**
+     * 内存代理，订阅只保存在本节点
+     */
+    SIMPLE,
+
+    /**
+     * STOMP 代理中继到 RabbitMQ
+     */
+    RELAY,
+
+    /**
+     * 内存代理 + Redis Pub/Sub 桥接
+     */
+    REDIS;
+
+    /**
+     * 配置项名称
+     */
+    public static final String PROPERTY = "websocket.broker.mode";
+
+    /**
+     * 解析配置值，未配置时使用 simple
+     *
+     * <p>无法识别的值直接启动失败：拼写错误如果退化为 simple，每个节点都会悄悄变成互不相通的单机代理。</p>
+     *
+     * @param value 配置值
+     * @return 代理模式
+     * @throws IllegalArgumentException 配置值无法识别
+     */
+    public static WebSocketBrokerMode of(String value) {
+        if (value == null || value.isBlank()) {
+            return SIMPLE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无法识别的 " + PROPERTY + ": " + value
+                    + "，可选值为 simple、relay、redis", e);
+        }
+    }
+
+    /**
+     * Redis 桥接模式条件
+     */
+    public static class RedisCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return of(context.getEnvironment().getProperty(PROPERTY)) == REDIS;
+        }
+    }
+}
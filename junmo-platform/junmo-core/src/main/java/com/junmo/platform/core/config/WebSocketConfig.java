@@ -1,13 +1,23 @@
 package com.junmo.platform.core.config;
 
+import com.junmo.platform.core.mq.WebSocketBroadcaster;
+import com.junmo.platform.core.mq.WebSocketSessionLimiter;
 import com.junmo.platform.core.security.WebSocketHandshakeInterceptor;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * WebSocket配置
@@ -17,15 +27,70 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * 2. 配置消息代理
  * 3. 配置拦截器实现用户认证和会话管理
  *
+ * 消息代理模式（websocket.broker.mode，不区分大小写，见 {@link WebSocketBrokerMode}）:
+ * - simple: 内存代理，订阅只保存在本节点，适用于单节点部署
+ * - relay: STOMP代理中继到RabbitMQ（需启用rabbitmq_stomp插件），由Broker跨节点扇出
+ * - redis: 内存代理 + Redis Pub/Sub桥接，由 {@link WebSocketBroadcaster} 跨节点扇出
+ *
+ * 慢客户端保护: 传输层限制单个会话的发送耗时和发送缓冲区（超出后关闭会话），
+ * {@link WebSocketSessionLimiter} 限制单个会话在出站通道中的积压消息数。
+ *
  * @author junmo-platform
  * @version 1.0.0
  */
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketHandshakeInterceptor handshakeInterceptor;
+    private final WebSocketSessionLimiter sessionLimiter;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerModeValue;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:/}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.transport.send-time-limit:10000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:8}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
 
     /**
      * 注册STOMP端点
@@ -47,10 +112,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // 启用简单消息代理
         // /topic: 用于广播消息
         // /queue: 用于点对点消息
-        registry.enableSimpleBroker("/topic", "/queue");
+        WebSocketBrokerMode brokerMode = WebSocketBrokerMode.of(brokerModeValue);
+        if (brokerMode == WebSocketBrokerMode.RELAY) {
+            // 启用STOMP代理中继，订阅保存在RabbitMQ中，所有节点共享
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setVirtualHost(relayVirtualHost)
+                    // 用户连接在其他节点时，通过广播目的地解析点对点消息
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            // 启用简单消息代理
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
+        log.info("WebSocket消息代理初始化完成: mode={}", brokerMode);
 
         // 设置应用目的地前缀
         // 客户端发送消息时需要加上此前缀
@@ -61,6 +143,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.setUserDestinationPrefix("/user");
     }
 
+    /**
+     * 配置WebSocket传输层
+     *
+     * @param registration 传输层注册器
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 单个会话发送耗时或发送缓冲区超出上限时关闭会话，避免慢客户端占用出站线程
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(sessionLimiter);
+    }
+
     /**
      * 配置客户端入站通道
      *
@@ -68,8 +164,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        // 配置线程池
-        registration.taskExecutor().corePoolSize(4).maxPoolSize(8);
+        // 配置线程池（队列满后才会扩展到最大线程数）
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(sessionLimiter.inboundCounter());
     }
 
     /**
@@ -79,7 +179,32 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureClientOutboundChannel(ChannelRegistration registration) {
-        // 配置线程池
-        registration.taskExecutor().corePoolSize(4).maxPoolSize(8);
+        // 配置线程池（队列满后才会扩展到最大线程数）
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        // 按会话限制出站积压
+        registration.interceptors(sessionLimiter);
+    }
+
+    /**
+     * Redis桥接模式下订阅跨节点广播频道
+     *
+     * @param connectionFactory Redis连接工厂
+     * @param broadcaster WebSocket广播器
+     * @param channel 广播频道
+     * @return Redis消息监听容器
+     */
+    @Bean
+    @Conditional(WebSocketBrokerMode.RedisCondition.class)
+    public RedisMessageListenerContainer webSocketBroadcastListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            WebSocketBroadcaster broadcaster,
+            @Value("${websocket.broker.redis.channel:junmo:ws:broadcast}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(broadcaster, new ChannelTopic(channel));
+        return container;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.junmo.platform.core.mq;
+
+import com.junmo.platform.core.config.RabbitMQConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * RabbitMQ 延迟重试发布器
+ *
+ * <p>处理失败的消息按已重试次数投递到对应延迟级别的 TTL 队列（指数退避），
+ * 过期后由 Broker 死信回原队列重新消费；重试次数耗尽后由调用方拒绝消息，进入死信队列。</p>
+ *
+ * <p>投递重试队列后同步等待发布确认，调用方在确认成功后才确认原消息；未被确认时抛出异常，
+ * 由调用方把原消息拒绝进入死信队列，不会因为重试消息丢失而静默丢弃。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class DelayedRetryPublisher {
+
+    private final PublisherConfirmTracker publisherConfirmTracker;
+
+    private final long[] retryDelays;
+
+    public DelayedRetryPublisher(
+            PublisherConfirmTracker publisherConfirmTracker,
+            @Value("${mq.rabbitmq.retry.delays:5000,30000,300000}") long[] retryDelays) {
+        this.publisherConfirmTracker = publisherConfirmTracker;
+        this.retryDelays = retryDelays;
+    }
+
+    /**
+     * 将消息投递到下一级延迟重试队列
+     *
+     * @param sourceQueue 消息所在的业务队列
+     * @param message     原始消息
+     * @return 已投递到重试队列且被 Broker 确认时返回 true；重试次数耗尽时返回 false
+     * @throws AmqpException 投递失败或未被 Broker 确认
+     */
+    public boolean scheduleRetry(String sourceQueue, Message message) {
+        int retryCount = getRetryCount(message);
+        if (retryCount >= retryDelays.length) {
+            log.warn("消息重试次数已耗尽: queue={}, retryCount={}", sourceQueue, retryCount);
+            return false;
+        }
+
+        long delay = retryDelays[retryCount];
+        message.getMessageProperties().setHeader(RabbitMQConfig.RETRY_COUNT_HEADER, retryCount + 1);
+        // 通过默认交换机直接投递到重试队列
+        String retryQueue = RabbitMQConfig.retryQueueName(sourceQueue, delay);
+        if (!publisherConfirmTracker.sendAndAwait("", retryQueue, message)) {
+            throw new AmqpException("重试消息未被Broker确认: queue=" + retryQueue
+                    + ", messageId=" + message.getMessageProperties().getMessageId());
+        }
+        log.info("消息已投递到延迟重试队列: queue={}, retryCount={}, delay={}ms", sourceQueue, retryCount + 1, delay);
+        return true;
+    }
+
+    /**
+     * 获取消息已重试次数
+     *
+     * @param message 消息
+     * @return 已重试次数
+     */
+    public static int getRetryCount(Message message) {
+        Object header = message.getMessageProperties().getHeader(RabbitMQConfig.RETRY_COUNT_HEADER);
+        return header instanceof Number number ? number.intValue() : 0;
+    }
+}
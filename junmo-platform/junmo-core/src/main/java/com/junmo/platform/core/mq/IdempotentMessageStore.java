@@ -0,0 +1,99 @@
+package com.junmo.platform.core.mq;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.junmo.platform.base.constant.CacheConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息幂等存储
+ *
+ * <p>两级去重检查：</p>
+ * <ol>
+ *   <li>本地 Caffeine 缓存：同一实例上的重复投递直接命中，无网络开销</li>
+ *   <li>Redis 精确标记：本地未命中时一次 EXISTS 查询</li>
+ * </ol>
+ *
+ * <p>处理成功后以一次异步 SET NX EX 写入精确标记，标记在去重窗口后自动过期。
+ * Redis 不可用时放行消息（退化为至少一次），不阻塞消费。</p>
+ *
+ * <p>只在处理成功后标记，处理失败的消息重新投递时仍会被处理；并发投递的同一条消息可能被处理两次。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class IdempotentMessageStore {
+
+    private static final String MARKER = "1";
+
+    private final RedissonClient redissonClient;
+
+    private final Cache<String, Boolean> localCache;
+
+    private final Duration window;
+
+    public IdempotentMessageStore(
+            RedissonClient redissonClient,
+            @Value("${mq.idempotent.window:" + CacheConstants.IDEMPOTENT.EXPIRE_TIME + "}") long windowSeconds,
+            @Value("${mq.idempotent.local-maximum-size:100000}") long localMaximumSize) {
+        this.redissonClient = redissonClient;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(windowSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("消息幂等存储初始化完成: window={}s, localMaximumSize={}", windowSeconds, localMaximumSize);
+    }
+
+    /**
+     * 判断消息是否已处理
+     *
+     * @param namespace  去重命名空间
+     * @param messageKey 消息去重key
+     * @return 已处理返回 true
+     */
+    public boolean isProcessed(String namespace, String messageKey) {
+        String key = namespace + CacheConstants.DELIMITER + messageKey;
+        if (localCache.getIfPresent(key) != null) {
+            return true;
+        }
+        try {
+            boolean processed = redissonClient.getBucket(doneKey(key)).isExists();
+            if (processed) {
+                localCache.put(key, Boolean.TRUE);
+            }
+            return processed;
+        } catch (RuntimeException e) {
+            log.warn("查询消息幂等标记失败，放行消息: key={}, error={}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 标记消息已处理
+     *
+     * @param namespace  去重命名空间
+     * @param messageKey 消息去重key
+     */
+    public void markProcessed(String namespace, String messageKey) {
+        String key = namespace + CacheConstants.DELIMITER + messageKey;
+        localCache.put(key, Boolean.TRUE);
+        try {
+            redissonClient.getBucket(doneKey(key)).setIfAbsentAsync(MARKER, window);
+        } catch (RuntimeException e) {
+            log.warn("写入消息幂等标记失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private static String doneKey(String key) {
+        return CacheConstants.IDEMPOTENT.DONE_KEY + CacheConstants.DELIMITER + key;
+    }
+}
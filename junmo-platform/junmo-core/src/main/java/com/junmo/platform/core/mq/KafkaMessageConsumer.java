@@ -2,26 +2,68 @@ package com.junmo.platform.core.mq;
 
 import com.junmo.platform.api.dto.NotificationMessage;
 import com.junmo.platform.api.dto.UserCreatedMessage;
+import com.junmo.platform.core.annotation.IdempotentConsumer;
+import com.junmo.platform.core.annotation.ListenerMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Kafka消息消费者
  * 使用 Spring Boot 原生的 @KafkaListener 注解
  *
+ * <p>支持两种消费模式（mq.kafka.parallel.enabled 切换，同一时刻只启动其中一种）：</p>
+ * <ul>
+ *   <li>默认模式：逐条消费，并发度受分区数限制</li>
+ *   <li>并行模式：批量拉取后在分区内按 userId（消息Key）并行处理，同一用户的消息保持顺序</li>
+ * </ul>
+ *
+ * <p>两种模式使用相同的去重命名空间（主题-分区@偏移量），重复投递的记录不会重复处理。</p>
+ *
  * @author junmo-platform
  * @version 2.0.0
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class KafkaMessageConsumer {
 
+    /**
+     * 并行模式下失败记录重新投递前的等待时间
+     */
+    private static final Duration REDELIVERY_BACKOFF = Duration.ofSeconds(1);
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(KafkaMessageConsumer.class);
+
+    /**
+     * 用户创建消息去重命名空间
+     */
+    private static final String USER_CREATED_NAMESPACE = "kafka:user-created";
+
+    /**
+     * 通知消息去重命名空间
+     */
+    private static final String NOTIFICATION_NAMESPACE = "kafka:notification";
+
+    private final KeyOrderedParallelProcessor parallelProcessor;
+
+    private final IdempotentMessageStore idempotentMessageStore;
+
+    private final DeadLetterPublishingRecoverer kafkaDeadLetterRecoverer;
+
     /**
      * 消费用户创建消息（Kafka）
      *
@@ -34,8 +76,11 @@ public class KafkaMessageConsumer {
     @KafkaListener(
             topics = "user-created-topic",
             groupId = "user-created-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = "#{!${mq.kafka.parallel.enabled:false}}"
     )
+    @ListenerMetrics(listener = "kafka.user-created", messageType = "UserCreatedMessage")
+    @IdempotentConsumer(namespace = USER_CREATED_NAMESPACE, key = "#topic + '-' + #partition + '@' + #offset")
     public void handleUserCreated(
             @Payload UserCreatedMessage message,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
@@ -95,8 +140,11 @@ public class KafkaMessageConsumer {
     @KafkaListener(
             topics = "notification-topic",
             groupId = "notification-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = "#{!${mq.kafka.parallel.enabled:false}}"
     )
+    @ListenerMetrics(listener = "kafka.notification", messageType = "NotificationMessage")
+    @IdempotentConsumer(namespace = NOTIFICATION_NAMESPACE, key = "#topic + '-' + #partition + '@' + #offset")
     public void handleNotification(
             @Payload NotificationMessage message,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
@@ -144,6 +192,99 @@ public class KafkaMessageConsumer {
         }
     }
 
+    // ==================== 并行消费模式 ====================
+
+    /**
+     * 并行消费用户创建消息（Kafka）
+     *
+     * @param records 批量消费记录
+     * @param acknowledgment 手动确认对象
+     */
+    @KafkaListener(
+            topics = "user-created-topic",
+            groupId = "user-created-group",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            autoStartup = "${mq.kafka.parallel.enabled:false}"
+    )
+    @ListenerMetrics(listener = "kafka.user-created.batch", messageType = "UserCreatedMessage")
+    public void handleUserCreatedBatch(List<ConsumerRecord<String, UserCreatedMessage>> records,
+                                       Acknowledgment acknowledgment) {
+        log.info("并行消费Kafka用户创建消息: count={}", records.size());
+
+        int failedIndex = parallelProcessor.process(records, record ->
+                processIgnoringNonRetryable(USER_CREATED_NAMESPACE, record, () -> handleUserCreatedEvent(record.value())));
+        acknowledgeBatch(records, failedIndex, acknowledgment);
+    }
+
+    /**
+     * 并行消费通知消息（Kafka）
+     *
+     * <p>邮件等慢速下游调用只阻塞同一用户的后续通知，不再阻塞整个分区。</p>
+     *
+     * @param records 批量消费记录
+     * @param acknowledgment 手动确认对象
+     */
+    @KafkaListener(
+            topics = "notification-topic",
+            groupId = "notification-group",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            autoStartup = "${mq.kafka.parallel.enabled:false}"
+    )
+    @ListenerMetrics(listener = "kafka.notification.batch", messageType = "NotificationMessage")
+    public void handleNotificationBatch(List<ConsumerRecord<String, NotificationMessage>> records,
+                                        Acknowledgment acknowledgment) {
+        log.info("并行消费Kafka通知消息: count={}", records.size());
+
+        int failedIndex = parallelProcessor.process(records, record ->
+                processIgnoringNonRetryable(NOTIFICATION_NAMESPACE, record, () -> handleNotificationEvent(record.value())));
+        acknowledgeBatch(records, failedIndex, acknowledgment);
+    }
+
+    /**
+     * 执行单条记录处理，与逐条模式保持一致的异常分类：
+     * 空消息、参数错误、业务异常不重试（视为已处理），其余运行时异常触发重新投递。
+     * 已处理过的记录直接跳过
+     */
+    private void processIgnoringNonRetryable(String namespace, ConsumerRecord<String, ?> record, Runnable task) {
+        String messageKey = record.topic() + "-" + record.partition() + "@" + record.offset();
+        if (idempotentMessageStore.isProcessed(namespace, messageKey)) {
+            log.info("重复消息，跳过处理: namespace={}, key={}", namespace, messageKey);
+            return;
+        }
+        DeserializationException deserializationException = SerializationUtils.getExceptionFromHeader(
+                record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (deserializationException != null) {
+            // 无法解码的记录投递死信主题后视为已处理，不阻塞同一 Key 的后续记录
+            log.error("Kafka记录反序列化失败，投递死信主题: topic={}, partition={}, offset={}, error={}",
+                    record.topic(), record.partition(), record.offset(), deserializationException.getMessage());
+            kafkaDeadLetterRecoverer.accept(record, deserializationException);
+            idempotentMessageStore.markProcessed(namespace, messageKey);
+            return;
+        }
+        try {
+            task.run();
+            idempotentMessageStore.markProcessed(namespace, messageKey);
+        } catch (NullPointerException | IllegalArgumentException
+                 | com.junmo.platform.common.exception.BusinessException e) {
+            log.error("Kafka记录处理失败，拒绝重试: topic={}, partition={}, offset={}, key={}, error={}",
+                    record.topic(), record.partition(), record.offset(), record.key(), e.getMessage());
+        }
+    }
+
+    /**
+     * 确认批次：全部成功则提交整批，否则只提交第一条失败记录之前的偏移量
+     */
+    private void acknowledgeBatch(List<? extends ConsumerRecord<String, ?>> records, int failedIndex,
+                                  Acknowledgment acknowledgment) {
+        if (failedIndex == KeyOrderedParallelProcessor.ALL_SUCCEEDED) {
+            acknowledgment.acknowledge();
+            log.info("并行处理批次成功并确认: count={}", records.size());
+        } else {
+            acknowledgment.nack(failedIndex, REDELIVERY_BACKOFF);
+            log.warn("并行处理批次部分失败，已提交前{}条，其余重新投递: count={}", failedIndex, records.size());
+        }
+    }
+
     /**
      * 处理用户创建事件
      */
@@ -0,0 +1,293 @@
+package com.junmo.platform.core.mq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Kafka 分区内按 Key 有序的并行处理器
+ *
+ * <p>参考 Confluent parallel-consumer 的 KEY 顺序模式：</p>
+ * <ul>
+ *   <li>同一批次内的记录按 Key 分组，同一 Key 的记录严格按偏移量顺序串行处理</li>
+ *   <li>不同 Key 的记录并行处理，不再受分区数限制</li>
+ *   <li>Key 为空的记录视为互相独立，各自并行处理</li>
+ *   <li>某个 Key 处理失败后，该 Key 后续记录不再处理，保证 Key 内顺序</li>
+ * </ul>
+ *
+ * <p>偏移量跟踪：处理结束后返回批次中第一条失败记录的下标，调用方通过
+ * {@code Acknowledgment.nack(index, sleep)} 只提交该下标之前的偏移量，
+ * 之后的记录会被重新投递，从而保证提交的偏移量之前的记录全部处理成功。</p>
+ *
+ * <p>批次最多等待 {@code mq.kafka.parallel.batch-timeout}：超时后中断仍在处理的 Key 组，
+ * 以第一条未完成的记录作为失败下标返回，慢 Key 不会让整个 poll 和该消费者上的所有分区一直等待。
+ * 超时时间应小于 {@code max.poll.interval.ms}。</p>
+ *
+ * <p>忽略中断的处理函数（如阻塞 IO）在超时后仍会继续执行。Key 组从开始到真正结束都登记在处理中集合里，
+ * 重新投递的批次遇到仍在处理的 Key 时不会启动该 Key 组，而是把它的第一条记录作为失败下标返回，
+ * 容器暂停分区并在退避后再次投递，直到旧任务结束，因此同一 Key 不会并发执行。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class KeyOrderedParallelProcessor implements DisposableBean {
+
+    /**
+     * 全部记录处理成功
+     */
+    public static final int ALL_SUCCEEDED = -1;
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    private final long batchTimeoutMillis;
+
+    /**
+     * 已提交且尚未真正结束的 Key 组（包括超时后仍在执行的任务）
+     */
+    private final Set<Object> inFlightKeys = ConcurrentHashMap.newKeySet();
+
+    public KeyOrderedParallelProcessor(
+            @Value("${mq.kafka.parallel.max-concurrency:64}") int maxConcurrency,
+            @Value("${mq.kafka.parallel.batch-timeout:30000}") long batchTimeoutMillis) {
+        // 下游调用（邮件、短信等）以 IO 等待为主，使用虚拟线程承载，并发度由信号量控制
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.permits = new Semaphore(maxConcurrency);
+        this.batchTimeoutMillis = batchTimeoutMillis;
+        log.info("Kafka Key有序并行处理器初始化完成: maxConcurrency={}, batchTimeout={}ms",
+                maxConcurrency, batchTimeoutMillis);
+    }
+
+    /**
+     * 记录处理函数
+     *
+     * @param <K> Key类型
+     * @param <V> Value类型
+     */
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+
+        /**
+         * 处理单条记录，抛出异常表示需要重新投递
+         *
+         * @param record 消费记录
+         */
+        void handle(ConsumerRecord<K, V> record);
+    }
+
+    /**
+     * 并行处理一个批次的记录
+     *
+     * @param records 批次记录（保持 poll 返回的顺序）
+     * @param handler 记录处理函数
+     * @param <K>     Key类型
+     * @param <V>     Value类型
+     * @return 第一条失败记录在批次中的下标，全部成功返回 {@link #ALL_SUCCEEDED}
+     */
+    public <K, V> int process(List<ConsumerRecord<K, V>> records, RecordHandler<K, V> handler) {
+        if (records == null || records.isEmpty()) {
+            return ALL_SUCCEEDED;
+        }
+
+        Map<Object, List<Integer>> keyGroups = groupByKey(records);
+        AtomicInteger firstFailedIndex = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicIntegerArray completed = new AtomicIntegerArray(records.size());
+
+        List<Map.Entry<Object, List<Integer>>> runnable = new ArrayList<>(keyGroups.size());
+        for (Map.Entry<Object, List<Integer>> group : keyGroups.entrySet()) {
+            if (inFlightKeys.add(group.getKey())) {
+                runnable.add(group);
+            } else {
+                // 上一批次超时的任务仍在处理该 Key，本批次不启动，等待重新投递
+                firstFailedIndex.accumulateAndGet(group.getValue().getFirst(), Math::min);
+                log.warn("Kafka Key仍在处理中，延后重新投递: key={}", group.getKey());
+            }
+        }
+        CountDownLatch done = new CountDownLatch(runnable.size());
+        List<KeyGroupTask<K, V>> tasks = new ArrayList<>(runnable.size());
+        for (Map.Entry<Object, List<Integer>> group : runnable) {
+            KeyGroupTask<K, V> task = new KeyGroupTask<>(group.getKey(), group.getValue(), records, handler,
+                    firstFailedIndex, completed, done);
+            tasks.add(task);
+            executor.execute(task);
+        }
+
+        if (!await(done)) {
+            // 超时：中断仍在处理的 Key 组，第一条未完成的记录及其之后的记录重新投递；
+            // 任务真正结束前其 Key 保持在处理中集合里，重新投递的记录不会与之并发
+            tasks.forEach(KeyGroupTask::cancel);
+            for (int i = 0; i < records.size(); i++) {
+                if (completed.get(i) == 0) {
+                    firstFailedIndex.accumulateAndGet(i, Math::min);
+                    break;
+                }
+            }
+            log.warn("Kafka批次并行处理超时: records={}, keys={}, timeout={}ms",
+                    records.size(), keyGroups.size(), batchTimeoutMillis);
+        }
+
+        int failed = firstFailedIndex.get();
+        if (failed == Integer.MAX_VALUE) {
+            log.debug("Kafka批次并行处理完成: records={}, keys={}", records.size(), keyGroups.size());
+            return ALL_SUCCEEDED;
+        }
+
+        ConsumerRecord<K, V> failedRecord = records.get(failed);
+        log.warn("Kafka批次并行处理存在失败记录: records={}, keys={}, firstFailedIndex={}, topic={}, partition={}, offset={}",
+                records.size(), keyGroups.size(), failed,
+                failedRecord.topic(), failedRecord.partition(), failedRecord.offset());
+        return failed;
+    }
+
+    /**
+     * 在批次超时时间内等待所有 Key 组结束
+     *
+     * @return 超时返回 false
+     */
+    private boolean await(CountDownLatch done) {
+        try {
+            return done.await(batchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 按 Key 分组，组内保持原始顺序（同一 Key 必然位于同一分区且偏移量递增）
+     */
+    private <K, V> Map<Object, List<Integer>> groupByKey(List<ConsumerRecord<K, V>> records) {
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<K, V> record = records.get(i);
+            Object groupKey = record.key() != null
+                    ? record.key()
+                    : record.topic() + "-" + record.partition() + "@" + record.offset();
+            groups.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    /**
+     * 串行处理同一 Key 的记录，失败即停止并记录最小失败下标
+     */
+    private <K, V> void processKeyGroup(List<ConsumerRecord<K, V>> records,
+                                        List<Integer> indexes,
+                                        RecordHandler<K, V> handler,
+                                        AtomicInteger firstFailedIndex,
+                                        AtomicIntegerArray completed, CountDownLatch done) {
+        for (int index : indexes) {
+            // 更早的记录已经失败，这之后的记录都会被重新投递，无需再处理
+            if (index > firstFailedIndex.get()) {
+                return;
+            }
+            ConsumerRecord<K, V> record = records.get(index);
+            try {
+                permits.acquire();
+                try {
+                    handler.handle(record);
+                } finally {
+                    permits.release();
+                }
+                completed.set(index, 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                firstFailedIndex.accumulateAndGet(index, Math::min);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Kafka记录处理失败: topic={}, partition={}, offset={}, key={}, error={}",
+                        record.topic(), record.partition(), record.offset(), record.key(), e.getMessage(), e);
+                firstFailedIndex.accumulateAndGet(index, Math::min);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 一个 Key 组的处理任务，结束（包括被取消）时从处理中集合移除该 Key
+     */
+    private final class KeyGroupTask<K, V> implements Runnable {
+
+        private final Object key;
+
+        private final List<Integer> indexes;
+
+        private final List<ConsumerRecord<K, V>> records;
+
+        private final RecordHandler<K, V> handler;
+
+        private final AtomicInteger firstFailedIndex;
+
+        private final AtomicIntegerArray completed;
+
+        private final CountDownLatch done;
+
+        private volatile Thread runner;
+
+        private volatile boolean cancelled;
+
+        private KeyGroupTask(Object key, List<Integer> indexes, List<ConsumerRecord<K, V>> records,
+                             RecordHandler<K, V> handler, AtomicInteger firstFailedIndex,
+                             AtomicIntegerArray completed, CountDownLatch done) {
+            this.key = key;
+            this.indexes = indexes;
+            this.records = records;
+            this.handler = handler;
+            this.firstFailedIndex = firstFailedIndex;
+            this.completed = completed;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            try {
+                if (!cancelled) {
+                    processKeyGroup(records, indexes, handler, firstFailedIndex, completed);
+                }
+            } catch (RuntimeException e) {
+                // processKeyGroup 自行记录失败下标，不会抛出异常
+                log.error("Kafka Key组处理异常: key={}", key, e);
+            } finally {
+                runner = null;
+                inFlightKeys.remove(key);
+                done.countDown();
+            }
+        }
+
+        /**
+         * 取消任务：尚未开始的直接跳过，正在执行的发出中断
+         */
+        private void cancel() {
+            cancelled = true;
+            Thread thread = runner;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
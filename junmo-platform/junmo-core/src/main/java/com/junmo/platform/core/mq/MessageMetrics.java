@@ -0,0 +1,98 @@
+package com.junmo.platform.core.mq;
+
+import com.junmo.platform.api.dto.TimestampedMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 消息监听指标
+ *
+ * <ul>
+ *   <li>mq.listener.processing：监听方法处理耗时，按 listener、type、outcome 区分</li>
+ *   <li>mq.message.end-to-end：消息创建（DTO 的 createdAt）到处理完成的端到端延迟，按 listener、type 区分</li>
+ * </ul>
+ *
+ * <p>Timer 按标签组合缓存，每条消息只做一次哈希查找，不再重复构建 Builder 和查询注册表。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageMetrics {
+
+    /**
+     * 处理耗时指标名
+     */
+    public static final String PROCESSING_TIMER = "mq.listener.processing";
+
+    /**
+     * 端到端延迟指标名
+     */
+    public static final String END_TO_END_TIMER = "mq.message.end-to-end";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 处理耗时 Timer 缓存，键为 [listener, type, outcome]
+     */
+    private final Map<List<String>, Timer> processingTimers = new ConcurrentHashMap<>();
+
+    /**
+     * 端到端延迟 Timer 缓存，键为 [listener, type]
+     */
+    private final Map<List<String>, Timer> endToEndTimers = new ConcurrentHashMap<>();
+
+    /**
+     * 记录监听方法处理耗时
+     *
+     * @param listener    监听器名称
+     * @param messageType 消息类型
+     * @param outcome     处理结果（success、failure）
+     * @param nanos       耗时（纳秒）
+     */
+    public void recordProcessing(String listener, String messageType, String outcome, long nanos) {
+        processingTimers.computeIfAbsent(List.of(listener, messageType, outcome), key -> Timer.builder(PROCESSING_TIMER)
+                        .description("消息监听方法处理耗时")
+                        .tag("listener", listener)
+                        .tag("type", messageType)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(Duration.ofNanos(nanos));
+    }
+
+    /**
+     * 记录消息端到端延迟
+     *
+     * @param listener    监听器名称
+     * @param messageType 消息类型
+     * @param message     消息
+     */
+    public void recordEndToEnd(String listener, String messageType, TimestampedMessage message) {
+        LocalDateTime createdAt = message.getCreatedAt();
+        if (createdAt == null) {
+            return;
+        }
+        Duration latency = Duration.between(createdAt, LocalDateTime.now());
+        if (latency.isNegative()) {
+            // 生产者与消费者时钟偏差
+            latency = Duration.ZERO;
+        }
+        endToEndTimers.computeIfAbsent(List.of(listener, messageType), key -> Timer.builder(END_TO_END_TIMER)
+                        .description("消息创建到处理完成的端到端延迟")
+                        .tag("listener", listener)
+                        .tag("type", messageType)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(latency);
+    }
+}
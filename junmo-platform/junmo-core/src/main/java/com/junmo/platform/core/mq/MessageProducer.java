@@ -5,12 +5,13 @@ import com.junmo.platform.api.dto.UserCreatedMessage;
 import com.junmo.platform.core.config.RabbitMQConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -25,7 +26,7 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 public class MessageProducer {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final PublisherConfirmTracker publisherConfirmTracker;
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
     // ==================== RabbitMQ ====================
@@ -48,7 +49,7 @@ public class MessageProducer {
                 .build();
 
         try {
-            rabbitTemplate.convertAndSend(
+            publisherConfirmTracker.send(
                     RabbitMQConfig.USER_EXCHANGE,
                     RabbitMQConfig.USER_CREATED_ROUTING_KEY,
                     message
@@ -92,7 +93,7 @@ public class MessageProducer {
                 .build();
 
         try {
-            rabbitTemplate.convertAndSend(
+            publisherConfirmTracker.send(
                     RabbitMQConfig.NOTIFICATION_EXCHANGE,
                     "notification." + type.toLowerCase(),
                     message
@@ -116,6 +117,35 @@ public class MessageProducer {
         }
     }
 
+    /**
+     * 批量发送通知消息到RabbitMQ并等待发布确认
+     *
+     * <p>先异步发出整批消息，再统一等待一次 Broker 确认，被拒绝的消息会自动重发。</p>
+     *
+     * @param messages 通知消息列表
+     * @param timeout 最长等待时间
+     * @return 全部消息都被 Broker 确认时返回 true
+     */
+    public boolean sendNotificationMessages(List<NotificationMessage> messages, Duration timeout) {
+        try {
+            List<CompletableFuture<Boolean>> confirms = messages.stream()
+                    .map(message -> publisherConfirmTracker.send(
+                            RabbitMQConfig.NOTIFICATION_EXCHANGE,
+                            "notification." + message.getType().toLowerCase(),
+                            message))
+                    .toList();
+            boolean confirmed = publisherConfirmTracker.awaitConfirms(confirms, timeout);
+            log.info("批量发送通知消息到RabbitMQ完成: count={}, confirmed={}", messages.size(), confirmed);
+            return confirmed;
+        } catch (org.springframework.amqp.AmqpConnectException e) {
+            log.error("RabbitMQ连接失败，无法批量发送通知消息: count={}, error={}", messages.size(), e.getMessage());
+            throw new com.junmo.platform.common.exception.BusinessException("RabbitMQ连接失败", e);
+        } catch (org.springframework.amqp.AmqpException e) {
+            log.error("RabbitMQ批量发送通知消息失败: count={}, error={}", messages.size(), e.getMessage());
+            throw new com.junmo.platform.common.exception.BusinessException("RabbitMQ发送失败", e);
+        }
+    }
+
     // ==================== Kafka ====================
 
     /**
@@ -0,0 +1,212 @@
+package com.junmo.platform.core.mq;
+
+import com.junmo.platform.api.dto.OnlineUser;
+import com.junmo.platform.api.dto.PresenceUpdate;
+import com.junmo.platform.api.dto.UserStatusMessage;
+import com.junmo.platform.base.constant.CacheConstants;
+import com.junmo.platform.core.service.PresenceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在线状态增量聚合器
+ *
+ * <p>用户上线、下线、状态变更不再逐条广播，而是按目的地暂存，每个时间窗口合并为一个 DELTA 帧推送：</p>
+ * <ul>
+ *   <li>同一窗口内同一用户的多次变更只保留最后一次（如断线重连产生的 OFFLINE → ONLINE）</li>
+ *   <li>每帧带有来源节点ID和该节点内的序号，客户端按节点分别检查，发现跳号（丢帧或订阅者处理过慢）时请求快照，
+ *       而不是补发积压的增量。序号不跨节点共享：各节点的帧经不同路径到达，全局序号在客户端看来会乱序</li>
+ *   <li>快照由 {@link #snapshot()} 生成并在一个窗口内复用，重连风暴时不会逐个订阅者读取 Redis</li>
+ * </ul>
+ *
+ * <p>在集群中每个节点聚合本节点产生的变更，通过 {@link WebSocketBroadcaster} 扇出到所有节点。
+ * 节点定期心跳，超过 {@code websocket.presence.session-ttl} 没有心跳的节点（宕机或被强杀）由存活节点移除其序号，
+ * 快照中不会一直残留已不存在的节点。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class PresenceDeltaAggregator implements DisposableBean {
+
+    /**
+     * 增量帧
+     */
+    public static final String TYPE_DELTA = "DELTA";
+
+    /**
+     * 快照帧
+     */
+    public static final String TYPE_SNAPSHOT = "SNAPSHOT";
+
+    private final WebSocketBroadcaster broadcaster;
+
+    private final PresenceRegistry presenceRegistry;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final long snapshotCacheMillis;
+
+    private final long nodeTtlMillis;
+
+    /**
+     * 本节点ID，每次启动重新生成
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 目的地 -> (用户ID -> 窗口内最新状态)，内层 Map 只在 compute 中修改
+     */
+    private final Map<String, Map<Long, UserStatusMessage>> pendingChanges = new ConcurrentHashMap<>();
+
+    private volatile PresenceUpdate cachedSnapshot;
+
+    private volatile long cachedSnapshotAt;
+
+    public PresenceDeltaAggregator(
+            WebSocketBroadcaster broadcaster,
+            PresenceRegistry presenceRegistry,
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${websocket.presence.delta-interval:500}") long deltaIntervalMillis,
+            @Value("${websocket.presence.session-ttl:30000}") long nodeTtlMillis) {
+        this.broadcaster = broadcaster;
+        this.presenceRegistry = presenceRegistry;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.snapshotCacheMillis = deltaIntervalMillis;
+        this.nodeTtlMillis = nodeTtlMillis;
+    }
+
+    /**
+     * 提交状态变更，在下一个窗口推送
+     *
+     * @param destination 目的地，如 /topic/user-status
+     * @param change      状态变更
+     */
+    public void submit(String destination, UserStatusMessage change) {
+        pendingChanges.compute(destination, (key, changes) -> {
+            Map<Long, UserStatusMessage> merged = changes != null ? changes : new LinkedHashMap<>();
+            // 覆盖同一用户在本窗口内较早的变更
+            merged.put(change.getUserId(), change);
+            return merged;
+        });
+    }
+
+    /**
+     * 推送各目的地在本窗口内的变更，每个目的地一帧
+     */
+    @Scheduled(fixedDelayString = "${websocket.presence.delta-interval:500}")
+    public void flush() {
+        for (String destination : pendingChanges.keySet()) {
+            Map<Long, UserStatusMessage> changes = pendingChanges.remove(destination);
+            if (changes == null || changes.isEmpty()) {
+                continue;
+            }
+            try {
+                PresenceUpdate delta = PresenceUpdate.builder()
+                        .type(TYPE_DELTA)
+                        .origin(nodeId)
+                        .sequence(nextSequence())
+                        .changes(new ArrayList<>(changes.values()))
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                broadcaster.broadcast(destination, delta);
+                log.debug("推送在线状态增量: destination={}, sequence={}, count={}",
+                        destination, delta.getSequence(), changes.size());
+            } catch (RuntimeException e) {
+                log.error("推送在线状态增量失败: destination={}, count={}, error={}",
+                        destination, changes.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 获取在线状态快照
+     *
+     * <p>快照携带生成时各节点的当前序号，客户端应用快照后丢弃各节点序号不大于它的增量。
+     * 序号先于在线用户读取，读取期间产生的增量会在快照之后再次应用，结果相同。</p>
+     *
+     * @return 快照帧
+     */
+    public PresenceUpdate snapshot() {
+        PresenceUpdate snapshot = cachedSnapshot;
+        long now = System.currentTimeMillis();
+        if (snapshot != null && now - cachedSnapshotAt < snapshotCacheMillis) {
+            return snapshot;
+        }
+
+        Map<String, Long> sequences = currentSequences();
+        List<OnlineUser> onlineUsers = presenceRegistry.getOnlineUsers();
+        List<UserStatusMessage> statuses = new ArrayList<>(onlineUsers.size());
+        for (OnlineUser onlineUser : onlineUsers) {
+            statuses.add(new UserStatusMessage(onlineUser.getUserId(), onlineUser.getUsername(), onlineUser.getStatus()));
+        }
+        snapshot = PresenceUpdate.builder()
+                .type(TYPE_SNAPSHOT)
+                .sequences(sequences)
+                .changes(statuses)
+                .createdAt(LocalDateTime.now())
+                .build();
+        cachedSnapshot = snapshot;
+        cachedSnapshotAt = now;
+        return snapshot;
+    }
+
+    /**
+     * 节点心跳，并移除心跳超时节点的序号
+     */
+    @Scheduled(fixedDelayString = "${websocket.presence.heartbeat-interval:10000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            stringRedisTemplate.opsForZSet().add(CacheConstants.PRESENCE.NODES_KEY, nodeId, now);
+            Set<String> staleNodes = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(CacheConstants.PRESENCE.NODES_KEY, 0, now - nodeTtlMillis);
+            if (staleNodes == null || staleNodes.isEmpty()) {
+                return;
+            }
+            stringRedisTemplate.opsForHash().delete(CacheConstants.PRESENCE.SEQUENCE_KEY, staleNodes.toArray());
+            stringRedisTemplate.opsForZSet().remove(CacheConstants.PRESENCE.NODES_KEY, staleNodes.toArray());
+            log.info("移除心跳超时节点的在线状态推送序号: nodes={}", staleNodes);
+        } catch (RuntimeException e) {
+            log.warn("在线状态推送节点心跳失败: nodeId={}, error={}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 节点下线时移除其序号，避免快照中残留已下线节点
+     */
+    @Override
+    public void destroy() {
+        try {
+            stringRedisTemplate.opsForHash().delete(CacheConstants.PRESENCE.SEQUENCE_KEY, nodeId);
+            stringRedisTemplate.opsForZSet().remove(CacheConstants.PRESENCE.NODES_KEY, nodeId);
+        } catch (RuntimeException e) {
+            log.warn("移除在线状态推送序号失败: nodeId={}, error={}", nodeId, e.getMessage());
+        }
+    }
+
+    private long nextSequence() {
+        return stringRedisTemplate.opsForHash().increment(CacheConstants.PRESENCE.SEQUENCE_KEY, nodeId, 1);
+    }
+
+    private Map<String, Long> currentSequences() {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(CacheConstants.PRESENCE.SEQUENCE_KEY);
+        Map<String, Long> sequences = new LinkedHashMap<>();
+        entries.forEach((node, sequence) -> sequences.put((String) node, Long.parseLong((String) sequence)));
+        return sequences;
+    }
+}
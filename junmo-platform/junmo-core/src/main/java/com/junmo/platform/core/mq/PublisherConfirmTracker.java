@@ -0,0 +1,280 @@
+package com.junmo.platform.core.mq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * RabbitMQ 发布确认跟踪器
+ *
+ * <p>每次发送都携带唯一的 {@link CorrelationData}，并登记到内存中的待确认表：</p>
+ * <ul>
+ *   <li>Broker 确认（ack）后从待确认表移除</li>
+ *   <li>Broker 拒绝（nack）或超时未确认时延迟重发，超过最大重试次数后放弃并记录错误日志</li>
+ *   <li>消息被退回（无法路由）时不重发，重发同样无法路由</li>
+ *   <li>同一条消息的每次发送都使用同一个 messageId，确认丢失导致的重复投递可以被幂等消费去重</li>
+ * </ul>
+ *
+ * <p>确认是异步的，发送方不会阻塞；需要确认结果时通过 {@link #awaitConfirms} 对一批消息统一等待一次，
+ * 代替逐条同步的 waitForConfirms，以较低开销实现至少一次投递。
+ * 原消息必须在新消息被确认后才能释放的场景（死信重放、延迟重试）使用 {@link #sendAndAwait}。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class PublisherConfirmTracker implements DisposableBean {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final int maxRetries;
+
+    private final long retryDelayMillis;
+
+    private final long confirmTimeoutMillis;
+
+    /**
+     * 待确认表：correlationId -> 待确认消息
+     */
+    private final Map<String, PendingPublish> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 重发和超时扫描线程（确认回调运行在连接的 IO 线程上，不能在回调中直接发送消息）
+     */
+    private final ScheduledExecutorService scheduler;
+
+    public PublisherConfirmTracker(
+            RabbitTemplate rabbitTemplate,
+            @Value("${mq.rabbitmq.confirm.max-retries:3}") int maxRetries,
+            @Value("${mq.rabbitmq.confirm.retry-delay:1000}") long retryDelayMillis,
+            @Value("${mq.rabbitmq.confirm.timeout:30000}") long confirmTimeoutMillis) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("rabbit-confirm-tracker")
+                .daemon(true)
+                .factory());
+        long sweepInterval = Math.max(confirmTimeoutMillis / 2, 1000);
+        this.scheduler.scheduleWithFixedDelay(this::sweepTimedOut, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+        log.info("RabbitMQ发布确认跟踪器初始化完成: maxRetries={}, retryDelay={}ms, timeout={}ms",
+                maxRetries, retryDelayMillis, confirmTimeoutMillis);
+    }
+
+    /**
+     * 待确认消息
+     *
+     * @param exchange   交换机
+     * @param routingKey 路由键
+     * @param payload    消息体
+     * @param messageId  AMQP messageId，重发时沿用
+     * @param attempt    当前发送次数（从1开始）
+     * @param sentAt     本次发送时间
+     * @param result     最终确认结果，重发时沿用同一个结果
+     */
+    private record PendingPublish(String exchange, String routingKey, Object payload, String messageId,
+                                  int attempt, long sentAt, CompletableFuture<Boolean> result) {
+
+        PendingPublish nextAttempt() {
+            return new PendingPublish(exchange, routingKey, payload, messageId, attempt + 1,
+                    System.currentTimeMillis(), result);
+        }
+    }
+
+    /**
+     * 异步发送消息并跟踪发布确认
+     *
+     * @param exchange   交换机
+     * @param routingKey 路由键
+     * @param payload    消息体
+     * @return 最终确认结果：被 Broker 确认时为 true，重试耗尽或被退回时为 false
+     * @throws AmqpException 消息未能发出（连接失败等）
+     */
+    public CompletableFuture<Boolean> send(String exchange, String routingKey, Object payload) {
+        PendingPublish publish = new PendingPublish(exchange, routingKey, payload, messageIdOf(payload), 1,
+                System.currentTimeMillis(), new CompletableFuture<>());
+        publish(publish);
+        return publish.result();
+    }
+
+    /**
+     * 批量等待发布确认
+     *
+     * <p>整批只等待一次，总耗时不超过 timeout；被拒绝后自动重发的消息以重发的最终结果为准。</p>
+     *
+     * @param results 发送时返回的确认结果
+     * @param timeout 最长等待时间
+     * @return 全部消息都被 Broker 确认时返回 true
+     */
+    public boolean awaitConfirms(Collection<CompletableFuture<Boolean>> results, Duration timeout) {
+        try {
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return results.stream().allMatch(CompletableFuture::join);
+        } catch (TimeoutException e) {
+            log.warn("等待发布确认超时: count={}, timeout={}ms", results.size(), timeout.toMillis());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("等待发布确认失败: count={}, error={}", results.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 发送消息并同步等待最终确认结果
+     *
+     * <p>等待时间为 {@code mq.rabbitmq.confirm.timeout}；超时后放弃该消息后续的重发，
+     * 由调用方保留原消息（重新入队或进入死信），避免原消息和重发消息同时存在。</p>
+     *
+     * @param exchange   交换机
+     * @param routingKey 路由键
+     * @param payload    消息体
+     * @return 被 Broker 确认时返回 true
+     * @throws AmqpException 消息未能发出（连接失败等）
+     */
+    public boolean sendAndAwait(String exchange, String routingKey, Object payload) {
+        CompletableFuture<Boolean> result = send(exchange, routingKey, payload);
+        if (awaitConfirms(List.of(result), Duration.ofMillis(confirmTimeoutMillis))) {
+            return true;
+        }
+        // 已完成的结果不会再被重发
+        result.complete(false);
+        return false;
+    }
+
+    /**
+     * 获取待确认消息数量
+     *
+     * @return 待确认消息数量
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void publish(PendingPublish publish) {
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        pending.put(correlation.getId(), publish);
+        correlation.getFuture().whenComplete((confirm, ex) -> {
+            if (ex != null) {
+                onNack(correlation.getId(), ex.getMessage());
+            } else if (!confirm.ack()) {
+                onNack(correlation.getId(), confirm.reason());
+            } else {
+                onAck(correlation);
+            }
+        });
+        try {
+            rabbitTemplate.convertAndSend(publish.exchange(), publish.routingKey(), publish.payload(), message -> {
+                // 覆盖消息转换器为每次发送生成的 messageId
+                message.getMessageProperties().setMessageId(publish.messageId());
+                return message;
+            }, correlation);
+        } catch (AmqpException e) {
+            // 未发出的消息不会收到确认，直接移除
+            pending.remove(correlation.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * 已是 AMQP 消息且带有 messageId 时沿用原 messageId，否则生成新的
+     */
+    private static String messageIdOf(Object payload) {
+        if (payload instanceof Message message && message.getMessageProperties().getMessageId() != null) {
+            return message.getMessageProperties().getMessageId();
+        }
+        return UUID.randomUUID().toString();
+    }
+
+    private void onAck(CorrelationData correlation) {
+        PendingPublish publish = pending.remove(correlation.getId());
+        if (publish == null) {
+            // 已按超时处理并重发
+            return;
+        }
+        if (correlation.getReturned() != null) {
+            log.error("消息无法路由已被退回，不再重发: exchange={}, routingKey={}, replyText={}",
+                    publish.exchange(), publish.routingKey(), correlation.getReturned().getReplyText());
+            publish.result().complete(false);
+            return;
+        }
+        publish.result().complete(true);
+    }
+
+    private void onNack(String correlationId, String cause) {
+        PendingPublish publish = pending.remove(correlationId);
+        if (publish == null || publish.result().isDone()) {
+            // 已按超时处理，或调用方已放弃等待
+            return;
+        }
+        if (publish.attempt() > maxRetries) {
+            log.error("消息发布确认失败且超过最大重试次数，放弃重发: exchange={}, routingKey={}, attempts={}, cause={}",
+                    publish.exchange(), publish.routingKey(), publish.attempt(), cause);
+            publish.result().complete(false);
+            return;
+        }
+        log.warn("消息发布确认失败，{}ms后重发: exchange={}, routingKey={}, attempt={}, cause={}",
+                retryDelayMillis, publish.exchange(), publish.routingKey(), publish.attempt(), cause);
+        scheduler.schedule(() -> republish(publish.nextAttempt()), retryDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void republish(PendingPublish publish) {
+        if (publish.result().isDone()) {
+            return;
+        }
+        try {
+            publish(publish);
+        } catch (AmqpException e) {
+            log.error("重发消息失败: exchange={}, routingKey={}, attempt={}, error={}",
+                    publish.exchange(), publish.routingKey(), publish.attempt(), e.getMessage());
+            if (publish.attempt() > maxRetries) {
+                publish.result().complete(false);
+            } else {
+                scheduler.schedule(() -> republish(publish.nextAttempt()), retryDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 超时未确认的消息按拒绝处理（例如连接断开导致确认丢失）
+     */
+    private void sweepTimedOut() {
+        long deadline = System.currentTimeMillis() - confirmTimeoutMillis;
+        pending.forEach((correlationId, publish) -> {
+            if (publish.sentAt() < deadline) {
+                onNack(correlationId, "发布确认超时");
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        if (!pending.isEmpty()) {
+            log.warn("关闭时仍有未确认的消息: count={}", pending.size());
+        }
+    }
+}
@@ -2,34 +2,69 @@ package com.junmo.platform.core.mq;
 
 import com.junmo.platform.api.dto.NotificationMessage;
 import com.junmo.platform.api.dto.UserCreatedMessage;
+import com.junmo.platform.core.annotation.IdempotentConsumer;
+import com.junmo.platform.core.annotation.ListenerMetrics;
 import com.junmo.platform.core.config.RabbitMQConfig;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * RabbitMQ消息消费者
  * 使用 Spring Boot 原生的 @RabbitListener 注解
  *
+ * <p>每个队列单独声明监听器，以便按队列配置并发度：</p>
+ * <ul>
+ *   <li>用户创建队列：逐条消费</li>
+ *   <li>通知队列：批量消费，突发通知可以快速排空</li>
+ * </ul>
+ *
+ * <p>可重试的失败不在消费者线程内等待重试，而是投递到延迟重试队列，重试耗尽后进入死信队列。</p>
+ *
+ * <p>按消息ID去重，重复投递的消息不会重复处理。</p>
+ *
  * @author junmo-platform
  * @version 2.0.0
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
-@RabbitListener(queues = {
-        RabbitMQConfig.USER_CREATED_QUEUE,
-        RabbitMQConfig.NOTIFICATION_QUEUE
-})
 public class RabbitMQMessageConsumer {
 
+    /**
+     * 通知消息去重命名空间
+     */
+    private static final String NOTIFICATION_NAMESPACE = "rabbitmq:notification";
+
+    private final MessageConverter jsonMessageConverter;
+
+    private final DelayedRetryPublisher delayedRetryPublisher;
+
+    private final IdempotentMessageStore idempotentMessageStore;
+
+    private final MessageMetrics messageMetrics;
+
     /**
      * 处理用户创建消息
      *
      * @param message 用户创建消息
+     * @param amqpMessage 原始消息
      */
-    @RabbitHandler
-    public void handleUserCreated(UserCreatedMessage message) {
+    @RabbitListener(
+            queues = RabbitMQConfig.USER_CREATED_QUEUE,
+            containerFactory = "rabbitListenerContainerFactory",
+            concurrency = "${mq.rabbitmq.user-created.concurrency:2-4}"
+    )
+    @ListenerMetrics(listener = "rabbitmq.user-created", messageType = "UserCreatedMessage")
+    @IdempotentConsumer(namespace = "rabbitmq:user-created")
+    public void handleUserCreated(UserCreatedMessage message, Message amqpMessage) {
         log.info("消费RabbitMQ用户创建消息: userId={}, username={}", message.getUserId(), message.getUsername());
 
         try {
@@ -47,22 +82,73 @@ public class RabbitMQMessageConsumer {
             throw new org.springframework.amqp.AmqpRejectAndDontRequeueException("业务异常，拒绝重试", e);
         } catch (org.springframework.amqp.AmqpException e) {
             log.error("处理用户创建事件时发生RabbitMQ异常: userId={}, error={}", message.getUserId(), e.getMessage(), e);
-            // RabbitMQ异常，触发重试机制
-            throw e;
+            // RabbitMQ异常，延迟重试
+            retryOrReject(RabbitMQConfig.USER_CREATED_QUEUE, amqpMessage);
         } catch (RuntimeException e) {
             log.error("处理用户创建事件时发生运行时异常: userId={}, error={}", message.getUserId(), e.getMessage(), e);
-            // 运行时异常，触发重试机制
-            throw e;
+            // 运行时异常，延迟重试
+            retryOrReject(RabbitMQConfig.USER_CREATED_QUEUE, amqpMessage);
         }
     }
 
+    /**
+     * 批量处理通知消息
+     *
+     * <p>逐条处理并单独确认：成功的消息确认，不可重试的消息拒绝进入死信队列，
+     * 其余失败的消息投递到延迟重试队列，一条消息失败不影响同批次的其他消息。</p>
+     *
+     * @param messages 原始消息批次
+     * @param channel 信道
+     * @throws IOException 确认失败
+     */
+    @RabbitListener(
+            queues = RabbitMQConfig.NOTIFICATION_QUEUE,
+            containerFactory = "batchRabbitListenerContainerFactory",
+            concurrency = "${mq.rabbitmq.notification.concurrency:2-8}"
+    )
+    @ListenerMetrics(listener = "rabbitmq.notification.batch", messageType = "NotificationMessage")
+    public void handleNotificationBatch(List<Message> messages, Channel channel) throws IOException {
+        log.info("批量消费RabbitMQ通知消息: count={}", messages.size());
+
+        int failedCount = 0;
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            String messageId = message.getMessageProperties().getMessageId();
+            if (messageId != null && idempotentMessageStore.isProcessed(NOTIFICATION_NAMESPACE, messageId)) {
+                log.info("重复消息，跳过处理: namespace={}, key={}", NOTIFICATION_NAMESPACE, messageId);
+                channel.basicAck(deliveryTag, false);
+                continue;
+            }
+            try {
+                NotificationMessage notification = (NotificationMessage) jsonMessageConverter.fromMessage(message);
+                handleNotification(notification);
+                // 批量监听器收到的是原始消息，端到端延迟在转换后逐条记录
+                messageMetrics.recordEndToEnd("rabbitmq.notification.batch", "NotificationMessage", notification);
+                if (messageId != null) {
+                    idempotentMessageStore.markProcessed(NOTIFICATION_NAMESPACE, messageId);
+                }
+                channel.basicAck(deliveryTag, false);
+            } catch (org.springframework.amqp.AmqpRejectAndDontRequeueException
+                     | org.springframework.amqp.support.converter.MessageConversionException
+                     | ClassCastException e) {
+                log.error("通知消息无法处理，转入死信队列: deliveryTag={}, error={}", deliveryTag, e.getMessage());
+                failedCount++;
+                channel.basicNack(deliveryTag, false, false);
+            } catch (RuntimeException e) {
+                failedCount++;
+                retryOrReject(channel, deliveryTag, message);
+            }
+        }
+
+        log.info("批量处理通知消息完成: count={}, failed={}", messages.size(), failedCount);
+    }
+
     /**
      * 处理通知消息
      *
      * @param message 通知消息
      */
-    @RabbitHandler
-    public void handleNotification(NotificationMessage message) {
+    private void handleNotification(NotificationMessage message) {
         log.info("消费RabbitMQ通知消息: userId={}, type={}, title={}",
                 message.getUserId(), message.getType(), message.getTitle());
 
@@ -90,6 +176,44 @@ public class RabbitMQMessageConsumer {
         }
     }
 
+    /**
+     * 投递到延迟重试队列，重试次数耗尽时拒绝消息进入死信队列
+     *
+     * <p>始终以异常结束：投递成功时要求容器立即确认原消息（且不记录为已处理），
+     * 重试耗尽或投递重试队列失败时拒绝消息进入死信队列，不重新入队，避免无退避的热循环。</p>
+     */
+    private void retryOrReject(String queue, Message message) {
+        boolean scheduled;
+        try {
+            scheduled = delayedRetryPublisher.scheduleRetry(queue, message);
+        } catch (org.springframework.amqp.AmqpException e) {
+            throw new org.springframework.amqp.AmqpRejectAndDontRequeueException("投递延迟重试队列失败，转入死信队列", e);
+        }
+        if (!scheduled) {
+            throw new org.springframework.amqp.AmqpRejectAndDontRequeueException("重试次数耗尽，转入死信队列");
+        }
+        throw new org.springframework.amqp.ImmediateAcknowledgeAmqpException("已投递到延迟重试队列");
+    }
+
+    /**
+     * 批量消费时的延迟重试：投递成功后确认原消息，重试耗尽或投递失败时拒绝进入死信队列
+     *
+     * <p>投递失败时不重新入队：立即重新入队的消息会被同一消费者马上再次取到，形成无退避的热循环，
+     * 进入死信队列后可通过死信重放恢复。</p>
+     */
+    private void retryOrReject(Channel channel, long deliveryTag, Message message) throws IOException {
+        try {
+            if (delayedRetryPublisher.scheduleRetry(RabbitMQConfig.NOTIFICATION_QUEUE, message)) {
+                channel.basicAck(deliveryTag, false);
+            } else {
+                channel.basicNack(deliveryTag, false, false);
+            }
+        } catch (org.springframework.amqp.AmqpException e) {
+            log.error("投递延迟重试队列失败，转入死信队列: deliveryTag={}, error={}", deliveryTag, e.getMessage());
+            channel.basicNack(deliveryTag, false, false);
+        }
+    }
+
     /**
      * 处理用户创建事件
      */
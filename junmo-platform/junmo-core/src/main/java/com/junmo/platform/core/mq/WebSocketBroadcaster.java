@@ -0,0 +1,220 @@
+package com.junmo.platform.core.mq;
+
+import com.junmo.platform.core.config.WebSocketBrokerMode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket 集群广播器
+ *
+ * <p>所有服务端推送（广播和点对点）都经过此组件，根据 websocket.broker.mode 选择投递方式：</p>
+ * <ul>
+ *   <li>simple：本节点内存代理，只能推送给连接在本节点的客户端（单节点部署）</li>
+ *   <li>relay：STOMP 代理中继到 RabbitMQ，由 Broker 负责跨节点扇出</li>
+ *   <li>redis：本节点内存代理 + Redis Pub/Sub 桥接。消息在发送节点序列化一次，
+ *       按时间窗口攒批后发布到 Redis，各节点收到后直接把已序列化的字节投递给本地订阅者</li>
+ * </ul>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class WebSocketBroadcaster implements MessageListener, DisposableBean {
+
+    private static final TypeReference<List<Frame>> FRAME_LIST = new TypeReference<>() {
+    };
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean redisMode;
+
+    private final String channel;
+
+    private final int batchSize;
+
+    /**
+     * 待发布到 Redis 的消息
+     */
+    private final Queue<Frame> pendingFrames = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 待发布消息数（ConcurrentLinkedQueue.size() 需要遍历队列）
+     */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+
+    public WebSocketBroadcaster(
+            SimpMessagingTemplate messagingTemplate,
+            StringRedisTemplate stringRedisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${websocket.broker.mode:simple}") String mode,
+            @Value("${websocket.broker.redis.channel:junmo:ws:broadcast}") String channel,
+            @Value("${websocket.broker.redis.flush-interval:20}") long flushIntervalMillis,
+            @Value("${websocket.broker.redis.batch-size:200}") int batchSize) {
+        this.messagingTemplate = messagingTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisMode = WebSocketBrokerMode.of(mode) == WebSocketBrokerMode.REDIS;
+        this.channel = channel;
+        this.batchSize = batchSize;
+        if (redisMode) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("ws-broadcast-flusher")
+                    .daemon(true)
+                    .factory());
+            this.scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+        log.info("WebSocket广播器初始化完成: mode={}, channel={}, flushInterval={}ms, batchSize={}",
+                mode, channel, flushIntervalMillis, batchSize);
+    }
+
+    /**
+     * 跨节点传输的消息帧
+     *
+     * @param destination 目的地
+     * @param user        目标用户，为空表示广播
+     * @param payload     已序列化的消息体（JSON）
+     */
+    public record Frame(String destination, String user, String payload) {
+    }
+
+    /**
+     * 广播消息到所有节点上订阅了该目的地的客户端
+     *
+     * @param destination 目的地，如 /topic/user-status
+     * @param payload     消息体
+     */
+    public void broadcast(String destination, Object payload) {
+        if (redisMode) {
+            enqueue(new Frame(destination, null, serialize(payload)));
+        } else {
+            messagingTemplate.convertAndSend(destination, payload);
+        }
+    }
+
+    /**
+     * 发送点对点消息到指定用户（用户可能连接在任意节点）
+     *
+     * @param user        用户标识
+     * @param destination 用户目的地，如 /queue/messages
+     * @param payload     消息体
+     */
+    public void sendToUser(String user, String destination, Object payload) {
+        if (redisMode) {
+            enqueue(new Frame(destination, user, serialize(payload)));
+        } else {
+            messagingTemplate.convertAndSendToUser(user, destination, payload);
+        }
+    }
+
+    /**
+     * 接收 Redis 桥接消息，投递给本节点的订阅者
+     *
+     * @param message Redis 消息
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<Frame> frames;
+        try {
+            frames = objectMapper.readValue(message.getBody(), FRAME_LIST);
+        } catch (JacksonException e) {
+            log.error("解析WebSocket广播消息失败: channel={}, error={}", channel, e.getMessage());
+            return;
+        }
+        for (Frame frame : frames) {
+            // 消息体已是 JSON，直接发送，跳过消息转换
+            org.springframework.messaging.Message<byte[]> payload = jsonMessage(frame.payload());
+            if (frame.user() == null) {
+                messagingTemplate.send(frame.destination(), payload);
+            } else {
+                String user = frame.user().replace("/", "%2F");
+                messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + user + frame.destination(), payload);
+            }
+        }
+    }
+
+    private static org.springframework.messaging.Message<byte[]> jsonMessage(String json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private String serialize(Object payload) {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private void enqueue(Frame frame) {
+        pendingFrames.add(frame);
+        // 攒满一批时立即发布，不等待下一个时间窗口
+        if (pendingCount.incrementAndGet() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * 将待发布的消息按批发布到 Redis，每批一条 Redis 消息
+     */
+    private void flush() {
+        while (!pendingFrames.isEmpty()) {
+            List<Frame> batch = new ArrayList<>(batchSize);
+            Frame frame;
+            while (batch.size() < batchSize && (frame = pendingFrames.poll()) != null) {
+                batch.add(frame);
+            }
+            pendingCount.addAndGet(-batch.size());
+            try {
+                stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(batch));
+            } catch (RuntimeException e) {
+                log.error("发布WebSocket广播消息失败: channel={}, count={}, error={}",
+                        channel, batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            flush();
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.junmo.platform.core.service.WebSocketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
@@ -11,6 +13,8 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
+import java.util.Map;
+
 /**
  * WebSocket事件监听器
  *
@@ -42,12 +46,15 @@ public class WebSocketEventListener {
 
         log.info("WebSocket连接建立: sessionId={}", sessionId);
 
-        // TODO: 从session attributes中获取userId
-        // Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
-        // if (userId != null) {
-        //     webSocketService.saveUserSession(userId, sessionId);
-        //     webSocketService.userOnline(userId);
-        // }
+        // CONNECTED 帧不携带会话属性，握手时写入的 userId 在原始 CONNECT 消息上
+        Message<?> connectMessage = (Message<?>) headerAccessor.getHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        Map<String, Object> attributes = connectMessage != null
+                ? SimpMessageHeaderAccessor.getSessionAttributes(connectMessage.getHeaders())
+                : headerAccessor.getSessionAttributes();
+        Long userId = attributes != null ? (Long) attributes.get("userId") : null;
+        if (userId != null) {
+            webSocketService.userOnline(userId, sessionId);
+        }
     }
 
     /**
@@ -62,12 +69,11 @@ public class WebSocketEventListener {
 
         log.info("WebSocket断开连接: sessionId={}", sessionId);
 
-        // TODO: 从session attributes中获取userId
-        // Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
-        // if (userId != null) {
-        //     webSocketService.removeUserSession(userId);
-        //     webSocketService.userOffline(userId);
-        // }
+        Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+        Long userId = attributes != null ? (Long) attributes.get("userId") : null;
+        if (userId != null) {
+            webSocketService.userOffline(userId, sessionId);
+        }
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.junmo.platform.core.mq;
 
+import com.junmo.platform.api.dto.MessageHistoryRequest;
+import com.junmo.platform.api.dto.PresenceUpdate;
 import com.junmo.platform.api.dto.SystemMessage;
 import com.junmo.platform.api.dto.UserMessage;
 import com.junmo.platform.api.dto.UserStatusMessage;
@@ -9,11 +11,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
+
 /**
  * WebSocket消息监听器
  *
@@ -33,28 +37,36 @@ public class WebSocketMessageListener {
 
     private final UserService userService;
     private final WebSocketService webSocketService;
+    private final WebSocketBroadcaster broadcaster;
+    private final PresenceDeltaAggregator presenceDeltaAggregator;
 
     /**
-     * 监听用户订阅用户状态
+     * 获取在线状态快照
+     *
+     * 客户端订阅 /app/user-status 时直接回复快照（不经过消息代理），
+     * 增量帧通过订阅 /topic/user-status 接收。
      *
      * @param headerAccessor 消息头访问器
-     * @return 用户状态消息
+     * @return 在线状态快照
      */
-    @SubscribeMapping("/topic/user-status")
-    public UserStatusMessage subscribeUserStatus(SimpMessageHeaderAccessor headerAccessor) {
+    @SubscribeMapping("/user-status")
+    public PresenceUpdate subscribeUserStatus(SimpMessageHeaderAccessor headerAccessor) {
         log.info("用户订阅用户状态: sessionId={}", headerAccessor.getSessionId());
 
-        Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
-        if (userId != null) {
-            // 更新用户上线状态
-            webSocketService.userOnline(userId);
-
-            // 返回用户状态
-            UserStatusMessage message = new UserStatusMessage(userId, "ONLINE");
-            return message;
-        }
+        return presenceDeltaAggregator.snapshot();
+    }
 
-        return new UserStatusMessage(null, "GUEST");
+    /**
+     * 请求在线状态快照（客户端发现增量帧跳号时发送到 /app/user-status/sync）
+     *
+     * @param headerAccessor 消息头访问器
+     * @return 在线状态快照，仅发送给请求的会话
+     */
+    @MessageMapping("/user-status/sync")
+    @SendToUser(destinations = "/queue/user-status", broadcast = false)
+    public PresenceUpdate syncUserStatus(SimpMessageHeaderAccessor headerAccessor) {
+        log.debug("请求在线状态快照: sessionId={}", headerAccessor.getSessionId());
+        return presenceDeltaAggregator.snapshot();
     }
 
     /**
@@ -75,12 +87,10 @@ public class WebSocketMessageListener {
      *
      * @param message        用户消息
      * @param headerAccessor 消息头访问器
-     * @return 用户消息
      */
-    @MessageMapping("/app/user/message")
-    @SendTo("/topic/user-messages")
-    public UserMessage handleUserMessage(@Payload UserMessage message,
-                                          SimpMessageHeaderAccessor headerAccessor) {
+    @MessageMapping("/user/message")
+    public void handleUserMessage(@Payload UserMessage message,
+                                  SimpMessageHeaderAccessor headerAccessor) {
         log.info("收到用户消息: {}", message);
 
         Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
@@ -90,12 +100,29 @@ public class WebSocketMessageListener {
             // TODO: 获取用户信息
             // User user = userService.getById(userId);
             // message.setSenderName(user.getUsername());
-
-            // TODO: 保存消息到数据库
-            // webSocketService.saveMessage(message);
         }
 
-        return message;
+        // 先持久化（由服务端分配消息ID），客户端据此记录最后收到的消息
+        message.setMessageId(null);
+        webSocketService.saveMessage(message);
+
+        broadcaster.broadcast("/topic/user-messages", message);
+    }
+
+    /**
+     * 查询消息历史（重连后从最后收到的消息ID增量同步，或向前翻页），客户端发送到 /app/user/message/history
+     *
+     * @param request        查询请求
+     * @param headerAccessor 消息头访问器
+     * @return 消息列表，仅发送给请求的会话
+     */
+    @MessageMapping("/user/message/history")
+    @SendToUser(destinations = "/queue/message-history", broadcast = false)
+    public List<UserMessage> getMessageHistory(@Payload MessageHistoryRequest request,
+                                               SimpMessageHeaderAccessor headerAccessor) {
+        Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
+        log.debug("查询消息历史: userId={}, request={}", userId, request);
+        return webSocketService.getMessageHistory(userId, request);
     }
 
     /**
@@ -103,12 +130,10 @@ public class WebSocketMessageListener {
      *
      * @param message        用户状态消息
      * @param headerAccessor 消息头访问器
-     * @return 用户状态消息
      */
     @MessageMapping("/app/user/status")
-    @SendTo("/topic/user-status")
-    public UserStatusMessage handleUserStatus(@Payload UserStatusMessage message,
-                                               SimpMessageHeaderAccessor headerAccessor) {
+    public void handleUserStatus(@Payload UserStatusMessage message,
+                                 SimpMessageHeaderAccessor headerAccessor) {
         log.info("收到用户状态变更: {}", message);
 
         Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
@@ -119,11 +144,9 @@ public class WebSocketMessageListener {
             // User user = userService.getById(userId);
             // message.setUsername(user.getUsername());
 
-            // 更新用户状态
+            // 更新用户状态，变更由在线状态增量帧推送
             webSocketService.updateUserStatus(userId, message.getStatus());
         }
-
-        return message;
     }
 
     /**
@@ -131,12 +154,10 @@ public class WebSocketMessageListener {
      *
      * @param message        系统消息
      * @param headerAccessor 消息头访问器
-     * @return 系统消息
      */
     @MessageMapping("/app/system/broadcast")
-    @SendTo("/topic/system")
-    public SystemMessage handleSystemBroadcast(@Payload SystemMessage message,
-                                                SimpMessageHeaderAccessor headerAccessor) {
+    public void handleSystemBroadcast(@Payload SystemMessage message,
+                                      SimpMessageHeaderAccessor headerAccessor) {
         log.info("收到系统广播消息: {}", message);
 
         Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
@@ -147,7 +168,7 @@ public class WebSocketMessageListener {
             //     }
                     }
             
-                    return message;
+                    broadcaster.broadcast("/topic/system", message);
                 }
             
                 // TODO: 系统通知消息监听（待实现）
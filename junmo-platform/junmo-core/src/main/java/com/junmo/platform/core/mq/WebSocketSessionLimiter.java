@@ -0,0 +1,290 @@
+package com.junmo.platform.core.mq;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket 会话出站限流
+ *
+ * <p>注册在 clientOutboundChannel 上，按会话统计已进入出站通道、尚未写到连接上的 MESSAGE 帧数
+ * （包括出站线程池队列和会话发送缓冲区中的消息）。慢客户端的积压达到 websocket.outbound.max-pending-per-session 后按溢出策略处理：</p>
+ * <ul>
+ *   <li>drop：丢弃发往可丢弃目的地（默认 /topic）的新消息，点对点消息和 CONNECTED、RECEIPT、ERROR 等控制帧不丢弃。
+ *       在线状态增量帧被丢弃后客户端会发现序号跳变并请求快照</li>
+ *   <li>terminate：关闭该会话，由客户端重连</li>
+ * </ul>
+ *
+ * <p>单个会话的发送耗时和发送缓冲区上限由传输层（websocket.transport.*）控制，二者配合使慢客户端
+ * 既不会长期占用出站线程，也不会让出站队列无限增长。</p>
+ *
+ * <p>指标：</p>
+ * <ul>
+ *   <li>websocket.sessions.active：本节点当前会话数</li>
+ *   <li>websocket.messages：入站、出站消息数，按 direction 区分</li>
+ *   <li>websocket.outbound.pending：本节点尚未写出的出站消息数</li>
+ *   <li>websocket.outbound.dropped：被丢弃的出站消息数</li>
+ *   <li>websocket.sessions.terminated：因积压被关闭的会话数</li>
+ * </ul>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class WebSocketSessionLimiter implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    /**
+     * 丢弃新消息
+     */
+    public static final String POLICY_DROP = "drop";
+
+    /**
+     * 关闭会话
+     */
+    public static final String POLICY_TERMINATE = "terminate";
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE".getBytes(StandardCharsets.UTF_8);
+
+    private final int maxPendingPerSession;
+
+    private final boolean terminateOnOverflow;
+
+    private final List<String> droppablePrefixes;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final Counter inboundMessages;
+
+    private final Counter outboundMessages;
+
+    private final Counter droppedMessages;
+
+    private final Counter terminatedSessions;
+
+    public WebSocketSessionLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${websocket.outbound.max-pending-per-session:256}") int maxPendingPerSession,
+            @Value("${websocket.outbound.overflow-policy:drop}") String overflowPolicy,
+            @Value("${websocket.outbound.droppable-prefixes:/topic}") List<String> droppablePrefixes) {
+        this.maxPendingPerSession = maxPendingPerSession;
+        this.terminateOnOverflow = POLICY_TERMINATE.equalsIgnoreCase(overflowPolicy);
+        this.droppablePrefixes = droppablePrefixes;
+
+        Gauge.builder("websocket.sessions.active", sessions, Map::size)
+                .description("WebSocket当前会话数")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.pending", this, WebSocketSessionLimiter::getPendingCount)
+                .description("尚未写出的出站消息数")
+                .register(meterRegistry);
+        this.inboundMessages = Counter.builder("websocket.messages")
+                .description("WebSocket消息数")
+                .tag("direction", "inbound")
+                .register(meterRegistry);
+        this.outboundMessages = Counter.builder("websocket.messages")
+                .description("WebSocket消息数")
+                .tag("direction", "outbound")
+                .register(meterRegistry);
+        this.droppedMessages = Counter.builder("websocket.outbound.dropped")
+                .description("因会话积压被丢弃的出站消息数")
+                .register(meterRegistry);
+        this.terminatedSessions = Counter.builder("websocket.sessions.terminated")
+                .description("因会话积压被关闭的会话数")
+                .register(meterRegistry);
+    }
+
+    private static final class SessionState {
+
+        private final WebSocketSession session;
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final AtomicBoolean terminating = new AtomicBoolean();
+
+        private SessionState(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    /**
+     * 跟踪会话的建立和关闭，并在消息真正写到连接上时释放积压计数
+     *
+     * @param handler WebSocket处理器
+     * @return 装饰后的处理器
+     */
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                // STOMP 处理器会在此会话外再包装发送缓冲区，sendMessage 被调用时消息已离开缓冲区
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        try {
+                            super.sendMessage(message);
+                        } finally {
+                            if (isMessageFrame(message)) {
+                                release(state);
+                            }
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * 入站消息计数拦截器，注册在 clientInboundChannel 上
+     *
+     * @return 通道拦截器
+     */
+    public ChannelInterceptor inboundCounter() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                inboundMessages.increment();
+                return message;
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        SessionState state = sessionState(message);
+        if (state == null) {
+            return message;
+        }
+
+        if (state.pending.get() >= maxPendingPerSession) {
+            if (terminateOnOverflow) {
+                terminate(state);
+                return null;
+            }
+            if (isDroppable(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                droppedMessages.increment();
+                log.debug("会话积压，丢弃出站消息: sessionId={}, pending={}",
+                        state.session.getId(), state.pending.get());
+                return null;
+            }
+        }
+
+        state.pending.incrementAndGet();
+        outboundMessages.increment();
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+            SessionState state = sessionState(message);
+            if (state != null) {
+                release(state);
+            }
+        }
+    }
+
+    /**
+     * 获取本节点尚未写出的出站消息数
+     *
+     * @return 消息数
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (SessionState state : sessions.values()) {
+            pending += state.pending.get();
+        }
+        return pending;
+    }
+
+    private static void release(SessionState state) {
+        state.pending.updateAndGet(value -> Math.max(value - 1, 0));
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage textMessage) {
+            return textMessage.getPayload().startsWith("MESSAGE");
+        }
+        if (message instanceof BinaryMessage binaryMessage) {
+            ByteBuffer payload = binaryMessage.getPayload().duplicate();
+            if (payload.remaining() < MESSAGE_COMMAND.length) {
+                return false;
+            }
+            for (byte b : MESSAGE_COMMAND) {
+                if (payload.get() != b) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private SessionState sessionState(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private boolean isDroppable(String destination) {
+        if (destination == null) {
+            return false;
+        }
+        for (String prefix : droppablePrefixes) {
+            if (destination.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void terminate(SessionState state) {
+        if (!state.terminating.compareAndSet(false, true)) {
+            return;
+        }
+        terminatedSessions.increment();
+        log.warn("会话积压超过上限，关闭会话: sessionId={}, pending={}", state.session.getId(), state.pending.get());
+        try {
+            state.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.warn("关闭会话失败: sessionId={}, error={}", state.session.getId(), e.getMessage());
+        }
+    }
+}
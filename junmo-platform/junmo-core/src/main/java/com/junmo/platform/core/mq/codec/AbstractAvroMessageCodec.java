@@ -0,0 +1,294 @@
+package com.junmo.platform.core.mq.codec;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Avro 消息编解码器基类
+ *
+ * <p>基于本地 schema 文件的 Avro 二进制编码，不依赖 Schema Registry：</p>
+ * <ul>
+ *   <li>消息格式：[魔数 1字节][类型ID 1字节][schema版本 1字节][Avro二进制数据]</li>
+ *   <li>编码/解码直接在 Encoder/Decoder 上按 schema 字段顺序读写 DTO 字段，无反射、无中间 GenericRecord</li>
+ *   <li>解码直接基于原始字节数组，不额外拷贝</li>
+ *   <li>启动时校验 schema 文件的字段顺序和字段类型（含可空性、逻辑类型）与编解码实现一致，schema 被误改时快速失败</li>
+ *   <li>升级 schema 版本后保留旧版本的 schema 文件：旧版本写入的消息通过 {@link ResolvingDecoder}
+ *       按写入方 schema 解析到当前 schema（新增字段取默认值），只有未知版本才拒绝</li>
+ * </ul>
+ *
+ * @param <T> 消息类型
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public abstract class AbstractAvroMessageCodec<T> {
+
+    /**
+     * 魔数
+     */
+    public static final byte MAGIC_BYTE = 0x4A;
+
+    /**
+     * 消息头长度
+     */
+    public static final int HEADER_LENGTH = 3;
+
+    /**
+     * 可空 long 字段：["null","long"]
+     */
+    protected static final Schema NULLABLE_LONG = nullable(Schema.create(Schema.Type.LONG));
+
+    /**
+     * 可空 string 字段：["null","string"]
+     */
+    protected static final Schema NULLABLE_STRING = nullable(Schema.create(Schema.Type.STRING));
+
+    /**
+     * 可空本地时间字段：["null",{"type":"long","logicalType":"local-timestamp-millis"}]
+     */
+    protected static final Schema NULLABLE_DATETIME =
+            nullable(LogicalTypes.localTimestampMillis().addToSchema(Schema.create(Schema.Type.LONG)));
+
+    private final Class<T> messageType;
+
+    private final byte typeId;
+
+    private final byte schemaVersion;
+
+    private final Schema schema;
+
+    /**
+     * 旧版本的写入方 schema（key 为 schema 版本）
+     */
+    private final Map<Byte, Schema> writerSchemas = new HashMap<>();
+
+    /**
+     * 每个线程按版本复用的解析解码器（构建解析语法开销较大，解码器本身非线程安全）
+     */
+    private final ThreadLocal<Map<Byte, ResolvingDecoder>> resolvingDecoders =
+            ThreadLocal.withInitial(HashMap::new);
+
+    protected AbstractAvroMessageCodec(Class<T> messageType, byte typeId, byte schemaVersion,
+                                       String schemaPath, List<FieldSpec> fields) {
+        this(messageType, typeId, schemaVersion, schemaPath, fields, Map.of());
+    }
+
+    /**
+     * @param previousSchemaPaths 仍可能在途的旧版本 schema 文件（key 为 schema 版本）
+     */
+    protected AbstractAvroMessageCodec(Class<T> messageType, byte typeId, byte schemaVersion,
+                                       String schemaPath, List<FieldSpec> fields,
+                                       Map<Byte, String> previousSchemaPaths) {
+        this.messageType = messageType;
+        this.typeId = typeId;
+        this.schemaVersion = schemaVersion;
+        this.schema = loadSchema(schemaPath);
+        verifyFields(fields);
+        previousSchemaPaths.forEach((version, path) -> {
+            if (version >= schemaVersion) {
+                throw new IllegalStateException("旧版本schema的版本号必须小于当前版本: type="
+                        + messageType.getSimpleName() + ", version=" + version + ", current=" + schemaVersion);
+            }
+            Schema writerSchema = loadSchema(path);
+            // 启动时构建一次解析语法，旧 schema 无法解析到当前 schema 时快速失败
+            try {
+                DecoderFactory.get().resolvingDecoder(writerSchema, schema, null);
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("旧版本schema无法解析到当前schema: type="
+                        + messageType.getSimpleName() + ", version=" + version, e);
+            }
+            writerSchemas.put(version, writerSchema);
+        });
+    }
+
+    /**
+     * 按 schema 字段顺序写出消息
+     *
+     * @param message 消息
+     * @param encoder 编码器
+     * @throws IOException 编码异常
+     */
+    protected abstract void write(T message, BinaryEncoder encoder) throws IOException;
+
+    /**
+     * 按 schema 字段顺序读入消息
+     *
+     * @param decoder 解码器（当前版本为二进制解码器，旧版本为解析解码器）
+     * @return 消息
+     * @throws IOException 解码异常
+     */
+    protected abstract T read(Decoder decoder) throws IOException;
+
+    /**
+     * 编码消息
+     *
+     * @param message 消息
+     * @return 二进制数据
+     */
+    public byte[] encode(T message) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        out.write(MAGIC_BYTE);
+        out.write(typeId);
+        out.write(schemaVersion);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        try {
+            write(message, encoder);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Avro编码失败: type=" + messageType.getSimpleName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码消息（调用方已校验消息头）
+     *
+     * @param data 二进制数据（包含消息头）
+     * @param reuse 可复用的解码器，可为null
+     * @return 消息
+     */
+    public T decode(byte[] data, BinaryDecoder reuse) {
+        byte version = data[2];
+        BinaryDecoder decoder = DecoderFactory.get()
+                .binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, reuse);
+        try {
+            if (version == schemaVersion) {
+                return read(decoder);
+            }
+            return readResolved(version, decoder);
+        } catch (IOException e) {
+            throw new SerializationException("Avro解码失败: type=" + messageType.getSimpleName()
+                    + ", version=" + version, e);
+        }
+    }
+
+    /**
+     * 按写入方 schema 解析旧版本消息
+     */
+    private T readResolved(byte version, BinaryDecoder in) throws IOException {
+        Schema writerSchema = writerSchemas.get(version);
+        if (writerSchema == null) {
+            throw new SerializationException("不支持的schema版本: type=" + messageType.getSimpleName()
+                    + ", version=" + version + ", expected=" + schemaVersion);
+        }
+        Map<Byte, ResolvingDecoder> decoders = resolvingDecoders.get();
+        ResolvingDecoder resolving = decoders.get(version);
+        if (resolving == null) {
+            resolving = DecoderFactory.get().resolvingDecoder(writerSchema, schema, in);
+            decoders.put(version, resolving);
+        } else {
+            resolving.configure(in);
+        }
+        // 只允许在末尾追加字段，解析后的字段顺序必须与当前 schema 一致，才能按固定顺序读取
+        if (resolving.readFieldOrderIfDiff() != null) {
+            throw new SerializationException("旧版本schema字段顺序与当前schema不一致: type="
+                    + messageType.getSimpleName() + ", version=" + version);
+        }
+        T message = read(resolving);
+        resolving.drain();
+        return message;
+    }
+
+    public Class<T> getMessageType() {
+        return messageType;
+    }
+
+    public byte getTypeId() {
+        return typeId;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    // ==================== 字段读写辅助方法 ====================
+
+    protected static void writeNullableLong(BinaryEncoder encoder, Long value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(0);
+        } else {
+            encoder.writeIndex(1);
+            encoder.writeLong(value);
+        }
+    }
+
+    protected static void writeNullableString(BinaryEncoder encoder, String value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(0);
+        } else {
+            encoder.writeIndex(1);
+            encoder.writeString(value);
+        }
+    }
+
+    protected static void writeNullableDateTime(BinaryEncoder encoder, LocalDateTime value) throws IOException {
+        // local-timestamp-millis：本地时间按UTC换算为毫秒，不携带时区
+        writeNullableLong(encoder, value == null ? null : value.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    protected static Long readNullableLong(Decoder decoder) throws IOException {
+        return decoder.readIndex() == 0 ? null : decoder.readLong();
+    }
+
+    protected static String readNullableString(Decoder decoder) throws IOException {
+        return decoder.readIndex() == 0 ? null : decoder.readString();
+    }
+
+    protected static LocalDateTime readNullableDateTime(Decoder decoder) throws IOException {
+        Long millis = readNullableLong(decoder);
+        return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    // ==================== Schema 加载 ====================
+
+    private static Schema loadSchema(String schemaPath) {
+        try (InputStream in = AbstractAvroMessageCodec.class.getClassLoader().getResourceAsStream(schemaPath)) {
+            if (in == null) {
+                throw new IllegalStateException("Avro schema文件不存在: " + schemaPath);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载Avro schema失败: " + schemaPath, e);
+        }
+    }
+
+    private void verifyFields(List<FieldSpec> fields) {
+        List<FieldSpec> schemaFields = schema.getFields().stream()
+                .map(field -> new FieldSpec(field.name(), field.schema()))
+                .toList();
+        if (!schemaFields.equals(fields)) {
+            throw new IllegalStateException("Avro schema字段与编解码实现不一致: schema=" + schema.getFullName()
+                    + ", schemaFields=" + schemaFields + ", codecFields=" + fields);
+        }
+    }
+
+    private static Schema nullable(Schema schema) {
+        return Schema.createUnion(Schema.create(Schema.Type.NULL), schema);
+    }
+
+    /**
+     * 编解码实现按顺序读写的字段：字段名及其 schema
+     *
+     * @param name   字段名
+     * @param schema 字段 schema
+     */
+    protected record FieldSpec(String name, Schema schema) {
+    }
+}
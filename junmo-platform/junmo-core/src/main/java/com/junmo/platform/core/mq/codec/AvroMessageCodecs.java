@@ -0,0 +1,65 @@
+package com.junmo.platform.core.mq.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.util.Map;
+
+/**
+ * Avro 消息编解码器注册表
+ *
+ * <p>Kafka 通过类名反射创建序列化器，因此编解码器以静态注册表形式提供，
+ * 新增消息类型时在此注册并分配唯一的类型ID。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public final class AvroMessageCodecs {
+
+    private static final AbstractAvroMessageCodec<?>[] BY_TYPE_ID = new AbstractAvroMessageCodec<?>[Byte.MAX_VALUE + 1];
+
+    private static final Map<Class<?>, AbstractAvroMessageCodec<?>> BY_CLASS;
+
+    static {
+        UserCreatedMessageCodec userCreated = new UserCreatedMessageCodec();
+        NotificationMessageCodec notification = new NotificationMessageCodec();
+        BY_TYPE_ID[userCreated.getTypeId()] = userCreated;
+        BY_TYPE_ID[notification.getTypeId()] = notification;
+        BY_CLASS = Map.of(
+                userCreated.getMessageType(), userCreated,
+                notification.getMessageType(), notification
+        );
+    }
+
+    private AvroMessageCodecs() {
+    }
+
+    /**
+     * 根据消息类型获取编解码器
+     *
+     * @param messageType 消息类型
+     * @param <T> 消息类型
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AbstractAvroMessageCodec<T> forClass(Class<T> messageType) {
+        AbstractAvroMessageCodec<?> codec = BY_CLASS.get(messageType);
+        if (codec == null) {
+            throw new SerializationException("未注册Avro编解码器的消息类型: " + messageType.getName());
+        }
+        return (AbstractAvroMessageCodec<T>) codec;
+    }
+
+    /**
+     * 根据消息头中的类型ID获取编解码器
+     *
+     * @param typeId 类型ID
+     * @return 编解码器
+     */
+    public static AbstractAvroMessageCodec<?> forTypeId(byte typeId) {
+        AbstractAvroMessageCodec<?> codec = typeId >= 0 ? BY_TYPE_ID[typeId] : null;
+        if (codec == null) {
+            throw new SerializationException("未知的Avro消息类型ID: " + typeId);
+        }
+        return codec;
+    }
+}
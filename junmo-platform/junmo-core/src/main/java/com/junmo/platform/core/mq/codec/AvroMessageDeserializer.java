@@ -0,0 +1,34 @@
+package com.junmo.platform.core.mq.codec;
+
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka Avro 消息反序列化器
+ *
+ * <p>根据消息头中的类型ID选择编解码器，直接从原始字节解码为 DTO。
+ * 只接受已注册的消息类型，不再需要信任任意包的 JSON 类型信息。</p>
+ *
+ * <p>Kafka 保证每个反序列化器实例只被一个消费者线程使用，因此解码器可以安全复用。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public class AvroMessageDeserializer implements Deserializer<Object> {
+
+    private final BinaryDecoder reusableDecoder = DecoderFactory.get().binaryDecoder(new byte[0], null);
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < AbstractAvroMessageCodec.HEADER_LENGTH || data[0] != AbstractAvroMessageCodec.MAGIC_BYTE) {
+            throw new SerializationException("非Avro消息格式: topic=" + topic + ", length=" + data.length);
+        }
+        AbstractAvroMessageCodec<?> codec = AvroMessageCodecs.forTypeId(data[1]);
+        return codec.decode(data, reusableDecoder);
+    }
+}
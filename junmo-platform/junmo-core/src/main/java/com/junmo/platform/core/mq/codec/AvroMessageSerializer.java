@@ -0,0 +1,25 @@
+package com.junmo.platform.core.mq.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka Avro 消息序列化器
+ *
+ * <p>根据消息对象类型选择已注册的编解码器，输出带消息头的 Avro 二进制数据。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public class AvroMessageSerializer implements Serializer<Object> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        AbstractAvroMessageCodec<Object> codec =
+                (AbstractAvroMessageCodec<Object>) AvroMessageCodecs.forClass(data.getClass());
+        return codec.encode(data);
+    }
+}
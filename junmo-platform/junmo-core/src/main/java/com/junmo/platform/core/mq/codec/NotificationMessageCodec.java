@@ -0,0 +1,62 @@
+package com.junmo.platform.core.mq.codec;
+
+import com.junmo.platform.api.dto.NotificationMessage;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 通知消息 Avro 编解码器
+ *
+ * <p>对应 schema：avro/notification-message-v1.avsc</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public class NotificationMessageCodec extends AbstractAvroMessageCodec<NotificationMessage> {
+
+    /**
+     * 消息类型ID
+     */
+    public static final byte TYPE_ID = 2;
+
+    /**
+     * 当前schema版本
+     */
+    public static final byte SCHEMA_VERSION = 1;
+
+    public NotificationMessageCodec() {
+        super(NotificationMessage.class, TYPE_ID, SCHEMA_VERSION, "avro/notification-message-v1.avsc",
+                List.of(
+                        new FieldSpec("userId", NULLABLE_LONG),
+                        new FieldSpec("username", NULLABLE_STRING),
+                        new FieldSpec("title", NULLABLE_STRING),
+                        new FieldSpec("content", NULLABLE_STRING),
+                        new FieldSpec("type", NULLABLE_STRING),
+                        new FieldSpec("createdAt", NULLABLE_DATETIME)));
+    }
+
+    @Override
+    protected void write(NotificationMessage message, BinaryEncoder encoder) throws IOException {
+        writeNullableLong(encoder, message.getUserId());
+        writeNullableString(encoder, message.getUsername());
+        writeNullableString(encoder, message.getTitle());
+        writeNullableString(encoder, message.getContent());
+        writeNullableString(encoder, message.getType());
+        writeNullableDateTime(encoder, message.getCreatedAt());
+    }
+
+    @Override
+    protected NotificationMessage read(Decoder decoder) throws IOException {
+        NotificationMessage message = new NotificationMessage();
+        message.setUserId(readNullableLong(decoder));
+        message.setUsername(readNullableString(decoder));
+        message.setTitle(readNullableString(decoder));
+        message.setContent(readNullableString(decoder));
+        message.setType(readNullableString(decoder));
+        message.setCreatedAt(readNullableDateTime(decoder));
+        return message;
+    }
+}
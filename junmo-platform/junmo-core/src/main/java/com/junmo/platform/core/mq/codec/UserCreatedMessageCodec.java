@@ -0,0 +1,59 @@
+package com.junmo.platform.core.mq.codec;
+
+import com.junmo.platform.api.dto.UserCreatedMessage;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 用户创建消息 Avro 编解码器
+ *
+ * <p>对应 schema：avro/user-created-message-v1.avsc</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public class UserCreatedMessageCodec extends AbstractAvroMessageCodec<UserCreatedMessage> {
+
+    /**
+     * 消息类型ID
+     */
+    public static final byte TYPE_ID = 1;
+
+    /**
+     * 当前schema版本
+     */
+    public static final byte SCHEMA_VERSION = 1;
+
+    public UserCreatedMessageCodec() {
+        super(UserCreatedMessage.class, TYPE_ID, SCHEMA_VERSION, "avro/user-created-message-v1.avsc",
+                List.of(
+                        new FieldSpec("userId", NULLABLE_LONG),
+                        new FieldSpec("username", NULLABLE_STRING),
+                        new FieldSpec("email", NULLABLE_STRING),
+                        new FieldSpec("realName", NULLABLE_STRING),
+                        new FieldSpec("createdAt", NULLABLE_DATETIME)));
+    }
+
+    @Override
+    protected void write(UserCreatedMessage message, BinaryEncoder encoder) throws IOException {
+        writeNullableLong(encoder, message.getUserId());
+        writeNullableString(encoder, message.getUsername());
+        writeNullableString(encoder, message.getEmail());
+        writeNullableString(encoder, message.getRealName());
+        writeNullableDateTime(encoder, message.getCreatedAt());
+    }
+
+    @Override
+    protected UserCreatedMessage read(Decoder decoder) throws IOException {
+        UserCreatedMessage message = new UserCreatedMessage();
+        message.setUserId(readNullableLong(decoder));
+        message.setUsername(readNullableString(decoder));
+        message.setEmail(readNullableString(decoder));
+        message.setRealName(readNullableString(decoder));
+        message.setCreatedAt(readNullableDateTime(decoder));
+        return message;
+    }
+}
@@ -0,0 +1,65 @@
+package com.junmo.platform.core.service;
+
+import com.junmo.platform.api.dto.UserMessage;
+
+import java.util.List;
+
+/**
+ * 聊天消息存储服务接口
+ *
+ * 提供WebSocket用户消息的追加写入和基于消息ID游标的历史查询，
+ * 客户端重连后可从最后收到的消息ID增量同步，不必重新拉取全部历史
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public interface ChatMessageService {
+
+    /**
+     * 公共聊天会话ID（/topic/user-messages）
+     */
+    String PUBLIC_CONVERSATION = "public";
+
+    /**
+     * 获取消息所属的会话ID：有接收者时为双方的私聊会话，否则为公共会话
+     *
+     * @param userId 当前用户ID
+     * @param peerId 对方用户ID，为空表示公共会话
+     * @return 会话ID
+     */
+    static String conversationId(Long userId, Long peerId) {
+        if (userId == null || peerId == null) {
+            return PUBLIC_CONVERSATION;
+        }
+        return "direct:" + Math.min(userId, peerId) + ":" + Math.max(userId, peerId);
+    }
+
+    /**
+     * 保存消息（异步批量写入）
+     *
+     * <p>消息ID为空时分配时间有序的消息ID，发送时间为空时填充当前时间，调用返回后即可把消息推送给客户端。</p>
+     *
+     * @param message 用户消息
+     */
+    void saveMessage(UserMessage message);
+
+    /**
+     * 查询指定消息之后的消息（按消息ID升序），用于重连后增量同步
+     *
+     * @param conversationId 会话ID
+     * @param afterMessageId 客户端最后收到的消息ID
+     * @param limit 最多返回的消息数
+     * @return 消息列表
+     */
+    List<UserMessage> getMessagesAfter(String conversationId, Long afterMessageId, int limit);
+
+    /**
+     * 查询指定消息之前的消息（按消息ID升序），用于向前翻页
+     *
+     * @param conversationId 会话ID
+     * @param beforeMessageId 当前最早的消息ID，为空时返回最新的消息
+     * @param limit 最多返回的消息数
+     * @return 消息列表
+     */
+    List<UserMessage> getMessagesBefore(String conversationId, Long beforeMessageId, int limit);
+}
@@ -0,0 +1,58 @@
+package com.junmo.platform.core.service;
+
+import com.junmo.platform.api.dto.DeadLetterMessageVO;
+import com.junmo.platform.api.dto.DeadLetterReplayResult;
+
+import java.util.List;
+
+/**
+ * 死信消息管理服务接口
+ *
+ * 提供死信队列（user.created.dlq、notification.dlq）的查看、过滤、限速重放和丢弃功能
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+public interface DeadLetterService {
+
+    /**
+     * 获取死信队列中的消息数量
+     *
+     * @param deadLetterQueue 死信队列
+     * @return 消息数量
+     */
+    long countMessages(String deadLetterQueue);
+
+    /**
+     * 查看死信消息（不会从队列中移除）
+     *
+     * @param deadLetterQueue 死信队列
+     * @param keyword 消息体包含的关键词，为空时不过滤
+     * @param limit 最多扫描的消息数
+     * @return 匹配的死信消息
+     */
+    List<DeadLetterMessageVO> inspectMessages(String deadLetterQueue, String keyword, int limit);
+
+    /**
+     * 将死信消息重放到原队列
+     *
+     * <p>重放的消息会清除延迟重试次数，重新获得完整的重试机会。</p>
+     *
+     * @param deadLetterQueue 死信队列
+     * @param keyword 消息体包含的关键词，为空时重放全部消息
+     * @param maxMessages 最多扫描的消息数
+     * @param permitsPerSecond 每秒最多重放的消息数
+     * @return 重放结果
+     */
+    DeadLetterReplayResult replayMessages(String deadLetterQueue, String keyword, int maxMessages, double permitsPerSecond);
+
+    /**
+     * 丢弃死信消息
+     *
+     * @param deadLetterQueue 死信队列
+     * @param keyword 消息体包含的关键词，为空时丢弃全部扫描到的消息
+     * @param maxMessages 最多扫描的消息数
+     * @return 丢弃结果
+     */
+    DeadLetterReplayResult discardMessages(String deadLetterQueue, String keyword, int maxMessages);
+}
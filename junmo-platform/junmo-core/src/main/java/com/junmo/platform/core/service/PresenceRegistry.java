@@ -0,0 +1,415 @@
+package com.junmo.platform.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.junmo.platform.api.dto.OnlineUser;
+import com.junmo.platform.base.constant.CacheConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群在线状态注册表
+ *
+ * <p>在线状态保存在 Redis 中，所有节点共享：</p>
+ * <ul>
+ *   <li>junmo:presence:online：有序集合，成员为用户ID，分数为该用户所有会话中最近一次心跳时间</li>
+ *   <li>junmo:presence:sessions:{userId}：哈希，字段为会话ID，值为会话最近心跳时间，同一用户可有多个会话</li>
+ *   <li>junmo:presence:profile：哈希，字段为用户ID，值为在线用户资料（JSON）</li>
+ * </ul>
+ *
+ * <p>每个节点只为本节点的会话发送心跳，一个心跳周期按批执行脚本，只刷新 Redis 中仍存在的会话，
+ * 不会把刚注销或已被清理的用户重新写回在线集合。
+ * 节点宕机后其会话不再有心跳，超过会话 TTL 后由 {@link #expireStaleUsers()} 清理。</p>
+ *
+ * <p>用户是否由离线变为在线以会话哈希中是否还有存活会话为准，不依赖在线集合，
+ * 宕机节点残留的在线集合成员不会吞掉上线事件。</p>
+ *
+ * <p>{@link #isUserOnline(Long)} 优先查本节点会话，再查短 TTL 的本地近端缓存，热点查询不访问 Redis。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class PresenceRegistry {
+
+    /**
+     * 登记会话；登记前没有存活会话时返回 1 表示用户已上线，并用本次资料覆盖残留的旧资料
+     * KEYS: sessions:{userId}, online, profile
+     * ARGV: sessionId, userId, 当前时间, 会话TTL（毫秒）, 存活截止时间, 用户资料
+     */
+    private static final RedisScript<Long> REGISTER_SCRIPT = new DefaultRedisScript<>("""
+            local cutoff = tonumber(ARGV[5])
+            local fields = redis.call('HGETALL', KEYS[1])
+            local alive = 0
+            for i = 1, #fields, 2 do
+              if tonumber(fields[i + 1]) < cutoff then
+                redis.call('HDEL', KEYS[1], fields[i])
+              else
+                alive = alive + 1
+              end
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])
+            redis.call('PEXPIRE', KEYS[1], ARGV[4])
+            redis.call('ZADD', KEYS[2], ARGV[3], ARGV[2])
+            if alive == 0 then
+              redis.call('HSET', KEYS[3], ARGV[2], ARGV[6])
+              return 1
+            end
+            redis.call('HSETNX', KEYS[3], ARGV[2], ARGV[6])
+            return 0
+            """, Long.class);
+
+    /**
+     * 心跳：只刷新仍存在的会话，有会话被刷新的用户才更新在线集合中已有的成员（ZADD XX），返回未找到的会话数
+     * KEYS: online, sessions:{userId}...
+     * ARGV: 当前时间, 会话TTL（毫秒），之后每个用户依次为 userId, 会话数, 会话ID...
+     */
+    private static final RedisScript<Long> HEARTBEAT_SCRIPT = new DefaultRedisScript<>("""
+            local now = ARGV[1]
+            local missing = 0
+            local a = 3
+            for k = 2, #KEYS do
+              local userId = ARGV[a]
+              local n = tonumber(ARGV[a + 1])
+              a = a + 2
+              local refreshed = 0
+              for i = 1, n do
+                if redis.call('HEXISTS', KEYS[k], ARGV[a]) == 1 then
+                  redis.call('HSET', KEYS[k], ARGV[a], now)
+                  refreshed = refreshed + 1
+                else
+                  missing = missing + 1
+                end
+                a = a + 1
+              end
+              if refreshed > 0 then
+                redis.call('PEXPIRE', KEYS[k], ARGV[2])
+                redis.call('ZADD', KEYS[1], 'XX', now, userId)
+              end
+            end
+            return missing
+            """, Long.class);
+
+    /**
+     * 每次心跳脚本处理的最大用户数，避免单个脚本长时间阻塞 Redis
+     */
+    private static final int HEARTBEAT_BATCH_SIZE = 500;
+
+    /**
+     * 移除会话；用户没有其他存活会话时移除在线状态，返回 1 表示用户已下线
+     * KEYS: sessions:{userId}, online, profile
+     * ARGV: sessionId, userId, 存活截止时间
+     */
+    private static final RedisScript<Long> UNREGISTER_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            local cutoff = tonumber(ARGV[3])
+            local fields = redis.call('HGETALL', KEYS[1])
+            local alive = 0
+            for i = 1, #fields, 2 do
+              if tonumber(fields[i + 1]) < cutoff then
+                redis.call('HDEL', KEYS[1], fields[i])
+              else
+                alive = alive + 1
+              end
+            end
+            if alive == 0 then
+              redis.call('HDEL', KEYS[3], ARGV[2])
+              return redis.call('ZREM', KEYS[2], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 心跳超时的用户下线，返回 1 表示由本次调用完成下线（多个节点同时清理时只有一个节点返回 1）
+     * KEYS: online, profile, sessions:{userId}
+     * ARGV: userId, 存活截止时间
+     */
+    private static final RedisScript<Long> EXPIRE_SCRIPT = new DefaultRedisScript<>("""
+            local score = redis.call('ZSCORE', KEYS[1], ARGV[1])
+            if score and tonumber(score) < tonumber(ARGV[2]) then
+              redis.call('ZREM', KEYS[1], ARGV[1])
+              redis.call('HDEL', KEYS[2], ARGV[1])
+              redis.call('DEL', KEYS[3])
+              return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final long sessionTtlMillis;
+
+    /**
+     * 本节点的会话：sessionId -> userId
+     */
+    private final Map<String, Long> localSessions = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点的用户会话：userId -> sessionId 集合
+     */
+    private final Map<Long, Set<String>> localUserSessions = new ConcurrentHashMap<>();
+
+    /**
+     * 其他节点用户在线状态的近端缓存
+     */
+    private final Cache<Long, Boolean> onlineNearCache;
+
+    public PresenceRegistry(
+            StringRedisTemplate stringRedisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${websocket.presence.session-ttl:30000}") long sessionTtlMillis,
+            @Value("${websocket.presence.near-cache-ttl:2000}") long nearCacheTtlMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.sessionTtlMillis = sessionTtlMillis;
+        this.onlineNearCache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(nearCacheTtlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 注册会话
+     *
+     * @param onlineUser 在线用户资料（用户已在线时不会覆盖已有资料）
+     * @param sessionId  会话ID
+     * @return 用户由离线变为在线时返回 true
+     */
+    public boolean register(OnlineUser onlineUser, String sessionId) {
+        Long userId = onlineUser.getUserId();
+        localSessions.put(sessionId, userId);
+        localUserSessions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        onlineNearCache.invalidate(userId);
+
+        long now = System.currentTimeMillis();
+        Long online = stringRedisTemplate.execute(REGISTER_SCRIPT,
+                List.of(sessionsKey(userId), CacheConstants.PRESENCE.ONLINE_KEY, CacheConstants.PRESENCE.PROFILE_KEY),
+                sessionId, userId.toString(), String.valueOf(now), String.valueOf(sessionTtlMillis),
+                String.valueOf(now - sessionTtlMillis), toJson(onlineUser));
+        return Objects.equals(online, 1L);
+    }
+
+    /**
+     * 注销会话
+     *
+     * @param userId    用户ID
+     * @param sessionId 会话ID
+     * @return 用户的最后一个会话注销、由在线变为离线时返回 true
+     */
+    public boolean unregister(Long userId, String sessionId) {
+        localSessions.remove(sessionId);
+        localUserSessions.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        onlineNearCache.invalidate(userId);
+
+        Long offline = stringRedisTemplate.execute(UNREGISTER_SCRIPT,
+                List.of(sessionsKey(userId), CacheConstants.PRESENCE.ONLINE_KEY, CacheConstants.PRESENCE.PROFILE_KEY),
+                sessionId, userId.toString(), String.valueOf(aliveCutoff()));
+        return offline != null && offline == 1L;
+    }
+
+    /**
+     * 更新用户状态
+     *
+     * @param userId 用户ID
+     * @param status 状态
+     * @return 更新后的在线用户资料，用户不在线时返回 null
+     */
+    public OnlineUser updateStatus(Long userId, String status) {
+        OnlineUser onlineUser = getOnlineUser(userId);
+        if (onlineUser == null) {
+            return null;
+        }
+        onlineUser.setStatus(status);
+        onlineUser.setLastActiveTime(LocalDateTime.now());
+        stringRedisTemplate.opsForHash().put(CacheConstants.PRESENCE.PROFILE_KEY, userId.toString(), toJson(onlineUser));
+        return onlineUser;
+    }
+
+    /**
+     * 判断用户是否在线
+     *
+     * @param userId 用户ID
+     * @return 是否在线
+     */
+    public boolean isUserOnline(Long userId) {
+        if (localUserSessions.containsKey(userId)) {
+            return true;
+        }
+        return onlineNearCache.get(userId, id -> {
+            Double score = stringRedisTemplate.opsForZSet().score(CacheConstants.PRESENCE.ONLINE_KEY, id.toString());
+            return score != null && score >= aliveCutoff();
+        });
+    }
+
+    /**
+     * 获取集群在线用户数量
+     *
+     * @return 在线用户数量
+     */
+    public long getOnlineUserCount() {
+        Long count = stringRedisTemplate.opsForZSet()
+                .count(CacheConstants.PRESENCE.ONLINE_KEY, aliveCutoff(), Double.POSITIVE_INFINITY);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 获取集群在线用户列表
+     *
+     * @return 在线用户列表
+     */
+    public List<OnlineUser> getOnlineUsers() {
+        List<Object> profiles = stringRedisTemplate.opsForHash().values(CacheConstants.PRESENCE.PROFILE_KEY);
+        List<OnlineUser> onlineUsers = new ArrayList<>(profiles.size());
+        for (Object profile : profiles) {
+            OnlineUser onlineUser = fromJson((String) profile);
+            if (onlineUser != null) {
+                onlineUsers.add(onlineUser);
+            }
+        }
+        return onlineUsers;
+    }
+
+    /**
+     * 获取在线用户资料
+     *
+     * @param userId 用户ID
+     * @return 在线用户资料，不在线时返回 null
+     */
+    public OnlineUser getOnlineUser(Long userId) {
+        Object profile = stringRedisTemplate.opsForHash().get(CacheConstants.PRESENCE.PROFILE_KEY, userId.toString());
+        return profile != null ? fromJson((String) profile) : null;
+    }
+
+    /**
+     * 获取用户在集群中的所有会话ID
+     *
+     * @param userId 用户ID
+     * @return 会话ID集合
+     */
+    public Set<String> getSessionIds(Long userId) {
+        Set<Object> sessionIds = stringRedisTemplate.opsForHash().keys(sessionsKey(userId));
+        return sessionIds.stream().map(Object::toString).collect(java.util.stream.Collectors.toSet());
+    }
+
+    /**
+     * 为本节点的所有会话发送心跳，每 {@value #HEARTBEAT_BATCH_SIZE} 个用户执行一次脚本
+     */
+    @Scheduled(fixedDelayString = "${websocket.presence.heartbeat-interval:10000}")
+    public void heartbeat() {
+        if (localUserSessions.isEmpty()) {
+            return;
+        }
+        String now = String.valueOf(System.currentTimeMillis());
+        String ttl = String.valueOf(sessionTtlMillis);
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        long missing = 0;
+        try {
+            for (Map.Entry<Long, Set<String>> entry : localUserSessions.entrySet()) {
+                List<String> sessionIds = List.copyOf(entry.getValue());
+                if (sessionIds.isEmpty()) {
+                    continue;
+                }
+                if (keys.isEmpty()) {
+                    keys.add(CacheConstants.PRESENCE.ONLINE_KEY);
+                    args.add(now);
+                    args.add(ttl);
+                }
+                keys.add(sessionsKey(entry.getKey()));
+                args.add(entry.getKey().toString());
+                args.add(String.valueOf(sessionIds.size()));
+                args.addAll(sessionIds);
+                if (keys.size() > HEARTBEAT_BATCH_SIZE) {
+                    missing += sendHeartbeat(keys, args);
+                    keys.clear();
+                    args.clear();
+                }
+            }
+            if (!keys.isEmpty()) {
+                missing += sendHeartbeat(keys, args);
+            }
+        } catch (DataAccessException e) {
+            log.warn("发送在线状态心跳失败: users={}, error={}", localUserSessions.size(), e.getMessage());
+            return;
+        }
+        if (missing > 0) {
+            // 已注销（与心跳并发）或心跳中断期间已被清理的会话，不会被心跳重新写回
+            log.warn("心跳时部分会话已不存在，未刷新: missing={}", missing);
+        }
+    }
+
+    private long sendHeartbeat(List<String> keys, List<String> args) {
+        Long missing = stringRedisTemplate.execute(HEARTBEAT_SCRIPT, keys, args.toArray());
+        return missing != null ? missing : 0;
+    }
+
+    /**
+     * 清理心跳超时的用户（所在节点宕机或网络中断）
+     *
+     * @return 由本次清理下线的用户ID
+     */
+    public List<Long> expireStaleUsers() {
+        long cutoff = aliveCutoff();
+        Set<String> staleMembers = stringRedisTemplate.opsForZSet()
+                .rangeByScore(CacheConstants.PRESENCE.ONLINE_KEY, 0, cutoff);
+        if (staleMembers == null || staleMembers.isEmpty()) {
+            return List.of();
+        }
+        List<Long> expired = new ArrayList<>();
+        for (String member : staleMembers) {
+            Long userId = Long.valueOf(member);
+            Long removed = stringRedisTemplate.execute(EXPIRE_SCRIPT,
+                    List.of(CacheConstants.PRESENCE.ONLINE_KEY, CacheConstants.PRESENCE.PROFILE_KEY, sessionsKey(userId)),
+                    member, String.valueOf(cutoff));
+            if (Objects.equals(removed, 1L)) {
+                onlineNearCache.invalidate(userId);
+                expired.add(userId);
+            }
+        }
+        return expired;
+    }
+
+    private long aliveCutoff() {
+        return System.currentTimeMillis() - sessionTtlMillis;
+    }
+
+    private static String sessionsKey(Long userId) {
+        return CacheConstants.PRESENCE.SESSIONS_KEY + CacheConstants.DELIMITER + userId;
+    }
+
+    private String toJson(OnlineUser onlineUser) {
+        return objectMapper.writeValueAsString(onlineUser);
+    }
+
+    private OnlineUser fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OnlineUser.class);
+        } catch (JacksonException e) {
+            log.warn("解析在线用户资料失败: error={}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.junmo.platform.core.service;
+
+import com.junmo.platform.api.enums.UserStatus;
+import com.junmo.platform.base.constant.CacheConstants;
+import com.junmo.platform.model.repository.neo4j.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 好友推荐
+ *
+ * <p>按共同好友数推荐"好友的好友"。计算只从用户本人出发展开两跳，第一跳最多展开 fanout 个好友，
+ * 第二跳在子查询中对每个好友最多展开 second-hop-fanout 个候选，好友数巨大的用户（无论是本人还是其好友）
+ * 都不会拖垮查询。结果以有序集合缓存在 Redis（分数为共同好友数），读取时未命中才计算。
+ * 没有推荐结果时缓存一个空标记（较短的过期时间），避免每次读取都重新计算；
+ * 缓存在一个 MULTI 事务中整体替换，读取方不会看到被清空、尚未写入的中间状态。</p>
+ *
+ * <p>好友关系变化时，双方及双方（最多 fanout 个）好友的推荐都会变化，这些用户ID记入待刷新集合；
+ * 定时任务每次弹出一批，只重新计算仍有缓存的用户，没有缓存的等下次读取时再计算。
+ * 处于事务中时，失效在事务提交后执行，保证重新计算读到的是已提交的关系。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class UserFriendRecommender {
+
+    private static final String RECOMMEND_CYPHER =
+            "MATCH (u:User {id: $userId})-[:FRIEND]-(f:User) WITH u, f LIMIT $fanout "
+                    + "CALL { WITH u, f "
+                    + "MATCH (f)-[:FRIEND]-(c:User) "
+                    + "WHERE c.id <> $userId AND c.status = $status AND NOT (u)-[:FRIEND]-(c) "
+                    + "RETURN c LIMIT $secondHopFanout } "
+                    + "WITH c.id AS candidateId, count(DISTINCT f) AS mutualCount "
+                    + "ORDER BY mutualCount DESC, candidateId LIMIT $limit "
+                    + "RETURN candidateId, mutualCount";
+
+    /**
+     * 无推荐结果标记（真实成员的分数即共同好友数，至少为 1）
+     */
+    private static final String EMPTY_MARKER = "-";
+
+    private final Neo4jClient neo4jClient;
+
+    private final UserRepository userRepository;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final int size;
+
+    private final int fanout;
+
+    private final int secondHopFanout;
+
+    private final int refreshBatchSize;
+
+    public UserFriendRecommender(
+            Neo4jClient neo4jClient,
+            UserRepository userRepository,
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${neo4j.graph.recommend.size:20}") int size,
+            @Value("${neo4j.graph.recommend.fanout:1000}") int fanout,
+            @Value("${neo4j.graph.recommend.second-hop-fanout:100}") int secondHopFanout,
+            @Value("${neo4j.graph.recommend.refresh-batch-size:100}") int refreshBatchSize) {
+        this.neo4jClient = neo4jClient;
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.size = size;
+        this.fanout = fanout;
+        this.secondHopFanout = secondHopFanout;
+        this.refreshBatchSize = refreshBatchSize;
+    }
+
+    /**
+     * 获取推荐好友
+     *
+     * @param userId 用户ID
+     * @return 推荐用户ID及共同好友数，按共同好友数倒序
+     */
+    public Map<Long, Long> recommend(Long userId) {
+        String key = recommendKey(userId);
+        Set<ZSetOperations.TypedTuple<String>> cached = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(key, 0, size - 1);
+        if (cached != null && !cached.isEmpty()) {
+            Map<Long, Long> recommendations = new LinkedHashMap<>();
+            for (ZSetOperations.TypedTuple<String> tuple : cached) {
+                if (!EMPTY_MARKER.equals(tuple.getValue())) {
+                    recommendations.put(Long.valueOf(tuple.getValue()), tuple.getScore().longValue());
+                }
+            }
+            return recommendations;
+        }
+        return refresh(userId);
+    }
+
+    /**
+     * 好友关系变化，标记双方及双方好友的推荐待刷新，并删除双方的缓存（处于事务中时在提交后执行）
+     *
+     * @param userId1 用户ID
+     * @param userId2 用户ID
+     */
+    public void friendshipChanged(Long userId1, Long userId2) {
+        afterCommit(() -> markChanged(userId1, userId2));
+    }
+
+    /**
+     * 用户已删除，清除其推荐缓存（处于事务中时在提交后执行）
+     *
+     * @param userId 用户ID
+     */
+    public void evict(Long userId) {
+        afterCommit(() -> stringRedisTemplate.delete(recommendKey(userId)));
+    }
+
+    private void markChanged(Long userId1, Long userId2) {
+        try {
+            stringRedisTemplate.delete(List.of(recommendKey(userId1), recommendKey(userId2)));
+            Set<String> affected = new HashSet<>();
+            for (Long userId : List.of(userId1, userId2)) {
+                userRepository.findFriendIds(userId, fanout).forEach(friendId -> affected.add(String.valueOf(friendId)));
+            }
+            if (!affected.isEmpty()) {
+                stringRedisTemplate.opsForSet().add(CacheConstants.GRAPH.RECOMMEND_DIRTY_KEY, affected.toArray(String[]::new));
+            }
+        } catch (RuntimeException e) {
+            log.warn("标记好友推荐待刷新失败: userId1={}, userId2={}, error={}", userId1, userId2, e.getMessage());
+        }
+    }
+
+    /**
+     * 刷新待刷新用户的推荐（SPOP 弹出，多节点不会重复处理同一用户）
+     */
+    @Scheduled(fixedDelayString = "${neo4j.graph.recommend.refresh-interval:60000}")
+    public void refreshDirty() {
+        List<String> userIds;
+        try {
+            userIds = stringRedisTemplate.opsForSet().pop(CacheConstants.GRAPH.RECOMMEND_DIRTY_KEY, refreshBatchSize);
+        } catch (RuntimeException e) {
+            log.warn("读取待刷新好友推荐失败: error={}", e.getMessage());
+            return;
+        }
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+
+        int refreshed = 0;
+        for (String userId : userIds) {
+            try {
+                if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(recommendKey(Long.valueOf(userId))))) {
+                    refresh(Long.valueOf(userId));
+                    refreshed++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("刷新好友推荐失败: userId={}, error={}", userId, e.getMessage());
+            }
+        }
+        log.debug("好友推荐增量刷新完成: popped={}, refreshed={}", userIds.size(), refreshed);
+    }
+
+    /**
+     * 计算并缓存推荐
+     */
+    private Map<Long, Long> refresh(Long userId) {
+        Collection<Map<String, Object>> rows = neo4jClient.query(RECOMMEND_CYPHER)
+                .bindAll(Map.of(
+                        "userId", userId,
+                        "fanout", fanout,
+                        "secondHopFanout", secondHopFanout,
+                        "status", UserStatus.ACTIVE.getValue(),
+                        "limit", size))
+                .fetch()
+                .all();
+
+        Map<Long, Long> recommendations = new LinkedHashMap<>();
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            Long candidateId = ((Number) row.get("candidateId")).longValue();
+            Long mutualCount = ((Number) row.get("mutualCount")).longValue();
+            recommendations.put(candidateId, mutualCount);
+            tuples.add(new DefaultTypedTuple<>(String.valueOf(candidateId), mutualCount.doubleValue()));
+        }
+
+        Duration ttl;
+        if (tuples.isEmpty()) {
+            tuples.add(new DefaultTypedTuple<>(EMPTY_MARKER, 0D));
+            ttl = Duration.ofSeconds(CacheConstants.GRAPH.RECOMMEND_EMPTY_EXPIRE_TIME);
+        } else {
+            ttl = Duration.ofSeconds(CacheConstants.GRAPH.RECOMMEND_EXPIRE_TIME);
+        }
+        replace(recommendKey(userId), tuples, ttl);
+        return recommendations;
+    }
+
+    /**
+     * 在一个 MULTI 事务中替换缓存：DEL + ZADD + EXPIRE
+     */
+    private void replace(String key, Set<ZSetOperations.TypedTuple<String>> tuples, Duration ttl) {
+        stringRedisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                ops.delete(key);
+                ops.opsForZSet().add(key, tuples);
+                ops.expire(key, ttl);
+                return ops.exec();
+            }
+        });
+    }
+
+    /**
+     * 处于事务中时注册为提交后执行（回滚时不执行），否则立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String recommendKey(Long userId) {
+        return CacheConstants.GRAPH.RECOMMEND_KEY + CacheConstants.DELIMITER + userId;
+    }
+}
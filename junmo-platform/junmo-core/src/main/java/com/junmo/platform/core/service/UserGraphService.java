@@ -1,21 +1,31 @@
 package com.junmo.platform.core.service;
 
+import com.junmo.platform.common.exception.BusinessException;
 import com.junmo.platform.model.entity.User;
 import com.junmo.platform.model.entity.neo4j.UserNode;
 import com.junmo.platform.model.repository.neo4j.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 用户图数据库服务
  *
  * <p>提供用户节点的 CRUD 操作和图查询功能，支持从关系型数据库同步数据到图数据库。</p>
  *
+ * <p>关系模型见 {@link UserNode}。所有关系查询都从 User.id 唯一约束定位起点，并带有 LIMIT 或跳数上限，
+ * 单个用户关系数很大时也不会展开整张图；好友推荐由 {@link UserFriendRecommender} 预计算并缓存。</p>
+ *
  * @author junmo-platform
  * @version 1.0.0
  */
@@ -26,6 +36,14 @@ public class UserGraphService {
 
     private final UserRepository userRepository;
     private final UserService userService;
+    private final UserFriendRecommender userFriendRecommender;
+    private final Neo4jClient neo4jClient;
+
+    @Value("${neo4j.graph.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${neo4j.graph.max-path-depth:6}")
+    private int maxPathDepth;
 
     /**
      * 同步用户到图数据库
@@ -182,7 +200,9 @@ public class UserGraphService {
     @Transactional
     public void deleteUserNode(Long userId) {
         log.info("删除用户节点: userId={}", userId);
+        // deleteById 使用 DETACH DELETE，关系随节点一起删除
         userRepository.deleteById(userId);
+        userFriendRecommender.evict(userId);
     }
 
     /**
@@ -194,17 +214,175 @@ public class UserGraphService {
         return userRepository.count();
     }
 
-    // ==================== TODO: 待添加的关系操作方法 ====================
-    // TODO: 当实现用户关系功能时，添加以下方法：
-    // - addFollowRelation(followerId, followingId): 添加关注关系
-    // - removeFollowRelation(followerId, followingId): 删除关注关系
-    // - addFriendRelation(userId1, userId2): 添加好友关系
-    // - removeFriendRelation(userId1, userId2): 删除好友关系
-    // - findFollowers(userId): 查找用户的粉丝
-    // - findFollowing(userId): 查找用户关注的人
-    // - findFriends(userId): 查找用户的好友
-    // - findShortestPath(userId1, userId2): 查找两个用户之间的最短路径
-    // - findMutualFriends(userId1, userId2): 查找两个用户的共同好友
-    // - findRecommendedFriends(userId): 推荐好友（基于共同好友数）
-    // - getUserGraphStatistics(userId): 获取用户图统计数据
-}
\ No newline at end of file
+    // ==================== 关系操作 ====================
+
+    /**
+     * 关注用户
+     *
+     * @param followerId  关注者ID
+     * @param followingId 被关注者ID
+     * @return 任一用户节点不存在时返回 false
+     */
+    @Transactional
+    public boolean follow(Long followerId, Long followingId) {
+        requireDistinct(followerId, followingId);
+        log.info("添加关注关系: followerId={}, followingId={}", followerId, followingId);
+        return userRepository.mergeFollows(followerId, followingId) > 0;
+    }
+
+    /**
+     * 取消关注
+     *
+     * @param followerId  关注者ID
+     * @param followingId 被关注者ID
+     * @return 关系不存在时返回 false
+     */
+    @Transactional
+    public boolean unfollow(Long followerId, Long followingId) {
+        log.info("删除关注关系: followerId={}, followingId={}", followerId, followingId);
+        return userRepository.deleteFollows(followerId, followingId) > 0;
+    }
+
+    /**
+     * 添加好友关系，并标记相关用户的好友推荐待刷新
+     *
+     * @param userId1 用户ID
+     * @param userId2 用户ID
+     * @return 任一用户节点不存在时返回 false
+     */
+    @Transactional
+    public boolean addFriend(Long userId1, Long userId2) {
+        requireDistinct(userId1, userId2);
+        log.info("添加好友关系: userId1={}, userId2={}", userId1, userId2);
+        boolean added = userRepository.mergeFriend(Math.min(userId1, userId2), Math.max(userId1, userId2)) > 0;
+        if (added) {
+            userFriendRecommender.friendshipChanged(userId1, userId2);
+        }
+        return added;
+    }
+
+    /**
+     * 删除好友关系，并标记相关用户的好友推荐待刷新
+     *
+     * @param userId1 用户ID
+     * @param userId2 用户ID
+     * @return 关系不存在时返回 false
+     */
+    @Transactional
+    public boolean removeFriend(Long userId1, Long userId2) {
+        log.info("删除好友关系: userId1={}, userId2={}", userId1, userId2);
+        boolean removed = userRepository.deleteFriend(userId1, userId2) > 0;
+        if (removed) {
+            userFriendRecommender.friendshipChanged(userId1, userId2);
+        }
+        return removed;
+    }
+
+    // ==================== 关系查询 ====================
+
+    /**
+     * 按游标分页查找用户的粉丝，按关注时间倒序
+     *
+     * @param userId  用户ID
+     * @param afterId 上一页最后一个用户的ID，首页为 null
+     * @param size    每页数量（不超过 neo4j.graph.max-page-size）
+     * @return 用户节点列表
+     */
+    public List<UserNode> getFollowers(Long userId, Long afterId, int size) {
+        return userRepository.findFollowers(userId, afterId, pageLimit(size));
+    }
+
+    /**
+     * 按游标分页查找用户关注的人，按关注时间倒序
+     *
+     * @param userId  用户ID
+     * @param afterId 上一页最后一个用户的ID，首页为 null
+     * @param size    每页数量（不超过 neo4j.graph.max-page-size）
+     * @return 用户节点列表
+     */
+    public List<UserNode> getFollowing(Long userId, Long afterId, int size) {
+        return userRepository.findFollowing(userId, afterId, pageLimit(size));
+    }
+
+    /**
+     * 按游标分页查找用户的好友，按成为好友的时间倒序
+     *
+     * @param userId  用户ID
+     * @param afterId 上一页最后一个用户的ID，首页为 null
+     * @param size    每页数量（不超过 neo4j.graph.max-page-size）
+     * @return 用户节点列表
+     */
+    public List<UserNode> getFriends(Long userId, Long afterId, int size) {
+        return userRepository.findFriends(userId, afterId, pageLimit(size));
+    }
+
+    /**
+     * 查找两个用户的共同好友
+     *
+     * @param userId1 用户ID
+     * @param userId2 用户ID
+     * @param limit   限制数量（不超过 neo4j.graph.max-page-size）
+     * @return 用户节点列表
+     */
+    public List<UserNode> getMutualFriends(Long userId1, Long userId2, int limit) {
+        return userRepository.findMutualFriends(userId1, userId2, pageLimit(limit));
+    }
+
+    /**
+     * 查找两个用户之间经由好友或关注关系（忽略方向）的最短路径
+     *
+     * @param userId1 起点用户ID
+     * @param userId2 终点用户ID
+     * @return 路径上的用户节点（含两端），超过 neo4j.graph.max-path-depth 跳不可达时为空
+     */
+    public List<UserNode> findShortestPath(Long userId1, Long userId2) {
+        if (userId1.equals(userId2)) {
+            return userRepository.findById(userId1).map(List::of).orElse(List.of());
+        }
+        // 变长关系的跳数上限不能参数化，只拼接校验过的整数
+        String cypher = String.format("MATCH (a:User {id: $userId1}), (b:User {id: $userId2}), "
+                + "p = shortestPath((a)-[:FRIEND|FOLLOWS*..%d]-(b)) "
+                + "RETURN [n IN nodes(p) | n.id] AS ids", maxPathDepth);
+        List<Long> ids = neo4jClient.query(cypher)
+                .bindAll(Map.of("userId1", userId1, "userId2", userId2))
+                .fetch()
+                .one()
+                .map(row -> ((List<?>) row.get("ids")).stream()
+                        .map(id -> ((Number) id).longValue())
+                        .toList())
+                .orElse(List.of());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, UserNode> nodes = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(UserNode::getId, Function.identity()));
+        return ids.stream().map(nodes::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * 获取推荐好友（好友的好友，按共同好友数倒序），结果预计算并缓存
+     *
+     * @param userId 用户ID
+     * @return 推荐的用户节点列表
+     */
+    public List<UserNode> getRecommendedFriends(Long userId) {
+        List<Long> ids = List.copyOf(userFriendRecommender.recommend(userId).keySet());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserNode> nodes = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(UserNode::getId, Function.identity()));
+        return ids.stream().map(nodes::get).filter(Objects::nonNull).toList();
+    }
+
+    private static void requireDistinct(Long userId1, Long userId2) {
+        if (userId1.equals(userId2)) {
+            throw new BusinessException("不能与自己建立关系");
+        }
+    }
+
+    private int pageLimit(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+}
@@ -0,0 +1,523 @@
+package com.junmo.platform.core.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import com.junmo.platform.base.constant.CacheConstants;
+import com.junmo.platform.model.document.UserDocument;
+import com.junmo.platform.model.entity.User;
+import com.junmo.platform.model.mapper.UserMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 用户索引队列
+ *
+ * <p>用户变更不再逐条写入 Elasticsearch，而是按用户ID合并后定时通过 _bulk 批量写入：</p>
+ * <ul>
+ *   <li>同一用户在一个窗口内的多次变更只写一次，索引时从数据库读取最新数据，删除优先于之前的索引</li>
+ *   <li>每个 _bulk 请求受操作数（bulk-actions）和请求体大小（bulk-size-bytes）限制</li>
+ *   <li>单条失败按状态码区分：429 和 5xx 重新入队重试，其他错误（如映射错误）记录后丢弃</li>
+ *   <li>批量删除同样按文档ID进入队列，由同一写入线程按 _bulk 分块删除：不依赖索引刷新，
+ *       也不会与尚未完成的索引请求乱序（写入在途的索引操作先于删除完成，不会在删除后复活文档）</li>
+ *   <li>ES 拒绝请求（429）或不可用时按指数退避暂停写入，队列积压超过 max-pending 时
+ *       {@link #isBackPressured()} 返回 true，调用方可据此降级</li>
+ * </ul>
+ *
+ * <p>指标：search.index.pending（待写入用户数）、search.index.bulk.requests（_bulk 请求数）、
+ * search.index.operations（按 outcome 区分成功、重试、失败的操作数）。</p>
+ *
+ * <p>写入前按文档ID批量读取索引中文档当前的状态和部门（mget），写入成功后只使 {@link UserSearchCache}
+ * 中文档变更前后所属状态、部门范围的结果失效，其他范围的缓存不受持续写入影响；读取失败时整体失效。</p>
+ *
+ * <p>{@link UserIndexRebuilder} 重建索引期间，每批写入前把涉及的用户ID记入 Redis，
+ * 别名切换后由重建节点统一补写到新索引。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class UserIndexQueue implements DisposableBean {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int NOT_FOUND = 404;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final UserMapper userMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final UserSearchCache userSearchCache;
+
+    private final int bulkActions;
+
+    private final long bulkSizeBytes;
+
+    private final int maxPending;
+
+    private final int maxRetries;
+
+    private final long flushIntervalMillis;
+
+    private final long maxBackoffMillis;
+
+    /**
+     * 用户ID -> 待执行的索引操作
+     */
+    private final Map<Long, PendingOperation> pendingOperations = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter bulkRequests;
+
+    private final Counter succeededOperations;
+
+    private final Counter retriedOperations;
+
+    private final Counter failedOperations;
+
+    private volatile long backoffMillis;
+
+    private volatile long backoffUntil;
+
+    public UserIndexQueue(
+            ElasticsearchClient elasticsearchClient,
+            ElasticsearchOperations elasticsearchOperations,
+            UserMapper userMapper,
+            StringRedisTemplate stringRedisTemplate,
+            UserSearchCache userSearchCache,
+            MeterRegistry meterRegistry,
+            @Value("${elasticsearch.indexing.flush-interval:1000}") long flushIntervalMillis,
+            @Value("${elasticsearch.indexing.bulk-actions:1000}") int bulkActions,
+            @Value("${elasticsearch.indexing.bulk-size-bytes:5242880}") long bulkSizeBytes,
+            @Value("${elasticsearch.indexing.max-pending:50000}") int maxPending,
+            @Value("${elasticsearch.indexing.max-retries:5}") int maxRetries,
+            @Value("${elasticsearch.indexing.max-backoff:30000}") long maxBackoffMillis) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.userMapper = userMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.userSearchCache = userSearchCache;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.bulkActions = bulkActions;
+        this.bulkSizeBytes = bulkSizeBytes;
+        this.maxPending = maxPending;
+        this.maxRetries = maxRetries;
+        this.maxBackoffMillis = maxBackoffMillis;
+
+        Gauge.builder("search.index.pending", pendingOperations, Map::size)
+                .description("待写入Elasticsearch的用户数")
+                .register(meterRegistry);
+        this.bulkRequests = Counter.builder("search.index.bulk.requests")
+                .description("Elasticsearch _bulk 请求数")
+                .register(meterRegistry);
+        this.succeededOperations = operationCounter(meterRegistry, "success");
+        this.retriedOperations = operationCounter(meterRegistry, "retried");
+        this.failedOperations = operationCounter(meterRegistry, "failed");
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("user-index-flusher")
+                .daemon(true)
+                .factory());
+        this.scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("用户索引队列初始化完成: flushInterval={}ms, bulkActions={}, bulkSizeBytes={}",
+                flushIntervalMillis, bulkActions, bulkSizeBytes);
+    }
+
+    /**
+     * 待执行的索引操作
+     *
+     * @param delete  是否删除文档
+     * @param attempt 已重试次数
+     */
+    private record PendingOperation(boolean delete, int attempt) {
+    }
+
+    /**
+     * 文档所属的搜索缓存范围
+     *
+     * @param status 状态
+     * @param deptId 部门ID
+     */
+    private record CacheScope(Integer status, String deptId) {
+    }
+
+    /**
+     * 加入索引队列（下一个窗口从数据库读取最新数据写入）
+     *
+     * @param userId 用户ID
+     * @return 队列未积压时返回 true
+     */
+    public boolean enqueueIndex(Long userId) {
+        return enqueue(userId, new PendingOperation(false, 0));
+    }
+
+    /**
+     * 加入删除队列
+     *
+     * @param userId 用户ID
+     * @return 队列未积压时返回 true
+     */
+    public boolean enqueueDelete(Long userId) {
+        return enqueue(userId, new PendingOperation(true, 0));
+    }
+
+    /**
+     * 批量删除用户文档
+     *
+     * <p>按文档ID（即用户ID）加入删除队列，覆盖尚未写入的旧操作，由写入线程按 bulk-actions 分块发送 _bulk 删除，
+     * 成功数按每条删除的结果计数（文档不存在视为成功）。</p>
+     *
+     * @param userIds 用户ID
+     * @return 队列未积压时返回 true
+     */
+    public boolean enqueueDeletes(Collection<Long> userIds) {
+        PendingOperation delete = new PendingOperation(true, 0);
+        for (Long userId : userIds) {
+            pendingOperations.put(userId, delete);
+        }
+        return afterEnqueue();
+    }
+
+    /**
+     * 是否处于背压状态（队列积压超过上限，或 Elasticsearch 拒绝请求后正在退避）
+     *
+     * @return 是否背压
+     */
+    public boolean isBackPressured() {
+        return pendingOperations.size() >= maxPending || System.currentTimeMillis() < backoffUntil;
+    }
+
+    /**
+     * 获取待写入的用户数
+     *
+     * @return 待写入的用户数
+     */
+    public int getPendingCount() {
+        return pendingOperations.size();
+    }
+
+    private boolean enqueue(Long userId, PendingOperation operation) {
+        // 新操作覆盖尚未写入的旧操作
+        pendingOperations.put(userId, operation);
+        return afterEnqueue();
+    }
+
+    private boolean afterEnqueue() {
+        int pending = pendingOperations.size();
+        // 攒满一批时立即写入，不等待下一个时间窗口
+        if (pending >= bulkActions && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+        if (pending >= maxPending) {
+            log.warn("用户索引队列积压: pending={}, maxPending={}", pending, maxPending);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 将队列中的操作按批写入 Elasticsearch
+     */
+    private void flush() {
+        if (System.currentTimeMillis() < backoffUntil) {
+            return;
+        }
+        while (!pendingOperations.isEmpty()) {
+            Map<Long, PendingOperation> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                if (!bulk(batch)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // 读取数据库或构建请求失败，整批放回队列
+                log.error("用户索引批量写入失败: count={}, error={}", batch.size(), e.getMessage());
+                batch.forEach(pendingOperations::putIfAbsent);
+                backoff();
+                return;
+            }
+        }
+    }
+
+    private Map<Long, PendingOperation> drain() {
+        Map<Long, PendingOperation> batch = new HashMap<>();
+        for (Long userId : pendingOperations.keySet()) {
+            if (batch.size() >= bulkActions) {
+                break;
+            }
+            PendingOperation operation = pendingOperations.remove(userId);
+            if (operation != null) {
+                batch.put(userId, operation);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 执行一批操作，可能拆分为多个 _bulk 请求
+     *
+     * @param batch 用户ID -> 操作
+     * @return 是否可以继续写入（false 表示正在退避）
+     */
+    private boolean bulk(Map<Long, PendingOperation> batch) {
+        recordRebuildChanges(batch.keySet());
+        String indexName = elasticsearchOperations.getIndexCoordinatesFor(UserDocument.class).getIndexName();
+
+        List<Long> indexIds = new ArrayList<>();
+        batch.forEach((userId, operation) -> {
+            if (!operation.delete()) {
+                indexIds.add(userId);
+            }
+        });
+        Map<Long, User> users = new HashMap<>();
+        if (!indexIds.isEmpty()) {
+            for (User user : userMapper.selectByIds(indexIds)) {
+                users.put(user.getId(), user);
+            }
+        }
+        Map<Long, List<CacheScope>> cacheScopes = previousCacheScopes(indexName, batch.keySet());
+        if (cacheScopes != null) {
+            users.forEach((userId, user) -> cacheScopes.computeIfAbsent(userId, id -> new ArrayList<>())
+                    .add(new CacheScope(user.getStatus(), user.getDeptId())));
+        }
+
+        // 按请求体大小拆分为多个 _bulk 请求
+        List<List<Long>> chunkUserIds = new ArrayList<>();
+        List<List<BulkOperation>> chunks = new ArrayList<>();
+        long chunkBytes = 0;
+        for (Map.Entry<Long, PendingOperation> entry : batch.entrySet()) {
+            Long userId = entry.getKey();
+            User user = users.get(userId);
+            BulkOperation operation;
+            long operationBytes;
+            if (entry.getValue().delete() || user == null) {
+                // 已删除（包括逻辑删除）的用户删除文档
+                operation = BulkOperation.of(op -> op.delete(d -> d.index(indexName).id(String.valueOf(userId))));
+                operationBytes = 64;
+            } else {
+                Document document = elasticsearchOperations.getElasticsearchConverter()
+                        .mapObject(UserDocument.fromUser(user));
+                operation = BulkOperation.of(op -> op.index(i -> i.index(indexName)
+                        .id(String.valueOf(userId))
+                        .document(document)));
+                operationBytes = document.toJson().length() + 64L;
+            }
+
+            if (chunks.isEmpty() || chunkBytes + operationBytes > bulkSizeBytes) {
+                chunks.add(new ArrayList<>());
+                chunkUserIds.add(new ArrayList<>());
+                chunkBytes = 0;
+            }
+            chunks.getLast().add(operation);
+            chunkUserIds.getLast().add(userId);
+            chunkBytes += operationBytes;
+        }
+
+        for (int i = 0; i < chunks.size(); i++) {
+            if (!send(chunks.get(i), chunkUserIds.get(i), batch, cacheScopes)) {
+                // 进入退避，本批中尚未发送的操作放回队列
+                for (List<Long> unsent : chunkUserIds.subList(i + 1, chunkUserIds.size())) {
+                    unsent.forEach(userId -> pendingOperations.putIfAbsent(userId, batch.get(userId)));
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取文档在索引中当前所属的缓存范围
+     *
+     * @return 用户ID -> 范围（文档不存在时没有条目），读取失败时返回 null
+     */
+    private Map<Long, List<CacheScope>> previousCacheScopes(String indexName, Collection<Long> userIds) {
+        List<String> ids = userIds.stream().map(String::valueOf).toList();
+        try {
+            Map<Long, List<CacheScope>> scopes = new HashMap<>();
+            for (MultiGetResponseItem<Map> item : elasticsearchClient.mget(m -> m.index(indexName)
+                    .ids(ids)
+                    .sourceIncludes("status", "deptId"), Map.class).docs()) {
+                if (!item.isResult() || !item.result().found() || item.result().source() == null) {
+                    continue;
+                }
+                Map<?, ?> source = item.result().source();
+                Integer status = source.get("status") instanceof Number number ? number.intValue() : null;
+                String deptId = source.get("deptId") != null ? String.valueOf(source.get("deptId")) : null;
+                List<CacheScope> list = new ArrayList<>();
+                list.add(new CacheScope(status, deptId));
+                scopes.put(Long.valueOf(item.result().id()), list);
+            }
+            return scopes;
+        } catch (ElasticsearchException | IOException e) {
+            log.warn("读取用户文档当前范围失败，写入后整体失效搜索缓存: count={}, error={}", ids.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 发送一个 _bulk 请求，按单条结果处理重试，写入成功的文档所属范围的搜索缓存随之失效
+     *
+     * @param cacheScopes 用户ID -> 文档变更前后所属的缓存范围，为 null 时整体失效
+     * @return 请求是否被 Elasticsearch 接受（false 表示已进入退避，操作已重新入队）
+     */
+    private boolean send(List<BulkOperation> operations, List<Long> userIds, Map<Long, PendingOperation> batch,
+                         Map<Long, List<CacheScope>> cacheScopes) {
+        bulkRequests.increment();
+        BulkResponse response;
+        try {
+            response = elasticsearchClient.bulk(BulkRequest.of(b -> b.operations(operations)));
+        } catch (ElasticsearchException | IOException e) {
+            boolean rejected = e instanceof ElasticsearchException ex && ex.status() == TOO_MANY_REQUESTS;
+            log.warn("用户索引 _bulk 请求失败，退避后重试: count={}, rejected={}, error={}",
+                    operations.size(), rejected, e.getMessage());
+            for (Long userId : userIds) {
+                retry(userId, batch.get(userId));
+            }
+            backoff();
+            return false;
+        }
+
+        boolean rejected = false;
+        boolean changed = false;
+        Set<Integer> changedStatuses = new HashSet<>();
+        Set<String> changedDeptIds = new HashSet<>();
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            Long userId = userIds.get(i);
+            int status = item.status();
+            if (item.error() == null || (status == NOT_FOUND && batch.get(userId).delete())) {
+                succeededOperations.increment();
+                changed = true;
+                if (cacheScopes != null) {
+                    for (CacheScope scope : cacheScopes.getOrDefault(userId, List.of())) {
+                        if (scope.status() != null) {
+                            changedStatuses.add(scope.status());
+                        }
+                        if (scope.deptId() != null) {
+                            changedDeptIds.add(scope.deptId());
+                        }
+                    }
+                }
+            } else if (status == TOO_MANY_REQUESTS || status >= 500) {
+                rejected |= status == TOO_MANY_REQUESTS;
+                retry(userId, batch.get(userId));
+            } else {
+                failedOperations.increment();
+                log.error("用户索引失败: userId={}, status={}, reason={}",
+                        userId, status, item.error().reason());
+            }
+        }
+
+        if (changed) {
+            if (cacheScopes != null) {
+                userSearchCache.invalidate(changedStatuses, changedDeptIds);
+            } else {
+                userSearchCache.invalidate();
+            }
+        }
+        if (rejected) {
+            backoff();
+            return false;
+        }
+        backoffMillis = 0;
+        log.debug("用户索引 _bulk 完成: count={}, took={}ms, errors={}",
+                items.size(), response.took(), response.errors());
+        return true;
+    }
+
+    /**
+     * 索引重建期间记录本批涉及的用户ID（必须在出队之后检查，保证别名切换前写入旧索引的变更都被记录）
+     */
+    private void recordRebuildChanges(Collection<Long> userIds) {
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(CacheConstants.SEARCH.REBUILD_INDEX_KEY))) {
+                String[] members = userIds.stream().map(String::valueOf).toArray(String[]::new);
+                stringRedisTemplate.opsForSet().add(CacheConstants.SEARCH.REBUILD_CHANGED_KEY, members);
+            }
+        } catch (RuntimeException e) {
+            log.warn("记录索引重建期间的用户变更失败: count={}, error={}", userIds.size(), e.getMessage());
+        }
+    }
+
+    private void retry(Long userId, PendingOperation operation) {
+        if (operation.attempt() >= maxRetries) {
+            failedOperations.increment();
+            log.error("用户索引重试次数已用尽: userId={}, attempts={}", userId, operation.attempt());
+            return;
+        }
+        retriedOperations.increment();
+        // 期间有新的变更时以新变更为准
+        pendingOperations.putIfAbsent(userId, new PendingOperation(operation.delete(), operation.attempt() + 1));
+    }
+
+    private void backoff() {
+        long next = backoffMillis == 0 ? flushIntervalMillis : Math.min(backoffMillis * 2, maxBackoffMillis);
+        backoffMillis = next;
+        backoffUntil = System.currentTimeMillis() + next;
+    }
+
+    private static Counter operationCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("search.index.operations")
+                .description("Elasticsearch 索引操作数")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        // 等待正在进行的定时写入结束，避免与最后一次写入并发
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("用户索引写入线程未能按时结束: timeout={}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        backoffUntil = 0;
+        flush();
+    }
+}
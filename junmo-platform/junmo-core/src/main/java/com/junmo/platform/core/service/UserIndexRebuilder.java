@@ -0,0 +1,383 @@
+package com.junmo.platform.core.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.junmo.platform.base.constant.CacheConstants;
+import com.junmo.platform.common.exception.BusinessException;
+import com.junmo.platform.model.document.UserDocument;
+import com.junmo.platform.model.entity.User;
+import com.junmo.platform.model.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户索引重建器
+ *
+ * <p>重建时不清空正在使用的索引，搜索在整个过程中保持可用：</p>
+ * <ol>
+ *   <li>创建带版本号的新索引 user_index_{yyyyMMddHHmmss}，关闭刷新、副本数置 0</li>
+ *   <li>按用户ID区间切成 slices 个分片并行读取数据库，每个分片按ID做键集分页（WHERE id &gt; ? ORDER BY id LIMIT ?），
+ *       每页通过 _bulk 写入新索引，内存占用只与页大小有关</li>
+ *   <li>恢复刷新间隔和副本数并刷新新索引</li>
+ *   <li>通过一次 _aliases 请求把 user_index 别名从旧索引原子切换到新索引（首次重建时同时删除同名的旧物理索引）</li>
+ *   <li>删除旧版本索引，并把重建期间发生变更的用户重新加入 {@link UserIndexQueue}，补写到新索引</li>
+ * </ol>
+ *
+ * <p>重建过程由分布式锁保证同一时间只有一个节点执行。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class UserIndexRebuilder {
+
+    private static final DateTimeFormatter VERSION_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+
+    private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int NOT_FOUND = 404;
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final UserMapper userMapper;
+
+    private final UserIndexQueue userIndexQueue;
+
+    private final RedissonClient redissonClient;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final UserSearchCache userSearchCache;
+
+    private final int slices;
+
+    private final int pageSize;
+
+    private final int maxRetries;
+
+    private final long timeoutMillis;
+
+    public UserIndexRebuilder(
+            ElasticsearchClient elasticsearchClient,
+            ElasticsearchOperations elasticsearchOperations,
+            UserMapper userMapper,
+            UserIndexQueue userIndexQueue,
+            RedissonClient redissonClient,
+            StringRedisTemplate stringRedisTemplate,
+            UserSearchCache userSearchCache,
+            @Value("${elasticsearch.rebuild.slices:4}") int slices,
+            @Value("${elasticsearch.rebuild.page-size:1000}") int pageSize,
+            @Value("${elasticsearch.rebuild.max-retries:5}") int maxRetries,
+            @Value("${elasticsearch.rebuild.timeout:7200000}") long timeoutMillis) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.userMapper = userMapper;
+        this.userIndexQueue = userIndexQueue;
+        this.redissonClient = redissonClient;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.userSearchCache = userSearchCache;
+        this.slices = Math.max(slices, 1);
+        this.pageSize = pageSize;
+        this.maxRetries = maxRetries;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 重建用户索引
+     *
+     * @return 写入新索引的用户数
+     */
+    public long rebuild() {
+        RLock lock = redissonClient.getLock(CacheConstants.LOCK.SEARCH_REBUILD_LOCK_KEY);
+        if (!lock.tryLock()) {
+            throw new BusinessException("用户索引正在重建中，请稍后再试");
+        }
+        try {
+            return doRebuild();
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private long doRebuild() {
+        String alias = elasticsearchOperations.getIndexCoordinatesFor(UserDocument.class).getIndexName();
+        String newIndex = alias + "_" + LocalDateTime.now().format(VERSION_FORMATTER);
+        long start = System.currentTimeMillis();
+        log.info("开始重建用户索引: alias={}, index={}", alias, newIndex);
+
+        // 从此刻起各节点记录写入旧索引的用户ID，切换别名后补写
+        stringRedisTemplate.delete(CacheConstants.SEARCH.REBUILD_CHANGED_KEY);
+        stringRedisTemplate.opsForValue().set(CacheConstants.SEARCH.REBUILD_INDEX_KEY, newIndex,
+                timeoutMillis, TimeUnit.MILLISECONDS);
+
+        IndexOperations newIndexOps = elasticsearchOperations.indexOps(IndexCoordinates.of(newIndex));
+        try {
+            Settings settings = elasticsearchOperations.indexOps(UserDocument.class).createSettings().flatten();
+            String refreshInterval = settings.getOrDefault(REFRESH_INTERVAL, "1s").toString();
+            String replicas = settings.getOrDefault(NUMBER_OF_REPLICAS, "1").toString();
+
+            // 批量写入期间关闭刷新、不写副本
+            settings.put(REFRESH_INTERVAL, "-1");
+            settings.put(NUMBER_OF_REPLICAS, "0");
+            Document mapping = elasticsearchOperations.indexOps(UserDocument.class).createMapping();
+            newIndexOps.create(settings, mapping);
+
+            long indexed = load(newIndex);
+
+            elasticsearchClient.indices().putSettings(p -> p.index(newIndex)
+                    .settings(s -> s.refreshInterval(t -> t.time(refreshInterval)).numberOfReplicas(replicas)));
+            newIndexOps.refresh();
+
+            List<String> oldIndices = swapAlias(alias, newIndex);
+            userSearchCache.invalidate();
+            int replayed = replayChanges();
+            deleteIndices(oldIndices);
+
+            log.info("重建用户索引完成: index={}, count={}, replayed={}, removed={}, elapsed={}ms",
+                    newIndex, indexed, replayed, oldIndices, System.currentTimeMillis() - start);
+            return indexed;
+        } catch (IOException | RuntimeException e) {
+            log.error("重建用户索引失败: index={}, error={}", newIndex, e.getMessage(), e);
+            stringRedisTemplate.delete(CacheConstants.SEARCH.REBUILD_INDEX_KEY);
+            stringRedisTemplate.delete(CacheConstants.SEARCH.REBUILD_CHANGED_KEY);
+            try {
+                newIndexOps.delete();
+            } catch (RuntimeException ex) {
+                log.warn("删除未完成的用户索引失败: index={}, error={}", newIndex, ex.getMessage());
+            }
+            throw new BusinessException("REBUILD_INDEX_FAILED", "重建用户索引失败: " + e.getMessage(), e, 500);
+        }
+    }
+
+    /**
+     * 按ID区间分片并行读取数据库并写入新索引
+     *
+     * @param index 新索引名
+     * @return 写入的用户数
+     */
+    private long load(String index) {
+        List<Map<String, Object>> bounds = userMapper.selectMaps(new QueryWrapper<User>()
+                .select("MIN(id) AS minId", "MAX(id) AS maxId"));
+        if (bounds.isEmpty() || bounds.getFirst() == null || bounds.getFirst().get("maxId") == null) {
+            return 0;
+        }
+        long minId = ((Number) bounds.getFirst().get("minId")).longValue();
+        long maxId = ((Number) bounds.getFirst().get("maxId")).longValue();
+
+        // 切分为 (lower, upper] 区间
+        long step = Math.max((maxId - minId + 1) / slices, 1);
+        List<long[]> ranges = new ArrayList<>();
+        for (long lower = minId - 1; lower < maxId; lower += step) {
+            ranges.add(new long[]{lower, ranges.size() == slices - 1 ? maxId : Math.min(lower + step, maxId)});
+            if (ranges.size() == slices) {
+                break;
+            }
+        }
+
+        long indexed = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (long[] range : ranges) {
+                futures.add(executor.submit(() -> loadSlice(index, range[0], range[1])));
+            }
+            for (Future<Long> future : futures) {
+                indexed += future.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("重建用户索引被中断", e);
+        }
+        return indexed;
+    }
+
+    private long loadSlice(String index, long lowerExclusive, long upperInclusive) throws IOException {
+        long cursor = lowerExclusive;
+        long indexed = 0;
+        while (true) {
+            List<User> users = userMapper.selectList(new LambdaQueryWrapper<User>()
+                    .gt(User::getId, cursor)
+                    .le(User::getId, upperInclusive)
+                    .orderByAsc(User::getId)
+                    .last("LIMIT " + pageSize));
+            if (users.isEmpty()) {
+                break;
+            }
+            bulk(index, users);
+            indexed += users.size();
+            cursor = users.getLast().getId();
+            if (users.size() < pageSize) {
+                break;
+            }
+        }
+        log.info("用户索引分片写入完成: index={}, range=({}, {}], count={}",
+                index, lowerExclusive, upperInclusive, indexed);
+        return indexed;
+    }
+
+    /**
+     * 写入一页用户，Elasticsearch 拒绝（429）或 5xx 的文档退避后重试
+     */
+    private void bulk(String index, List<User> users) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>(users.size());
+        for (User user : users) {
+            Document document = elasticsearchOperations.getElasticsearchConverter()
+                    .mapObject(UserDocument.fromUser(user));
+            operations.add(BulkOperation.of(op -> op.index(i -> i.index(index)
+                    .id(String.valueOf(user.getId()))
+                    .document(document))));
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            List<BulkOperation> retryable = new ArrayList<>();
+            try {
+                BulkResponse response = elasticsearchClient.bulk(BulkRequest.of(b -> b.operations(operations)));
+                List<BulkResponseItem> items = response.items();
+                for (int i = 0; i < items.size(); i++) {
+                    BulkResponseItem item = items.get(i);
+                    if (item.error() == null) {
+                        continue;
+                    }
+                    if (item.status() == TOO_MANY_REQUESTS || item.status() >= 500) {
+                        retryable.add(operations.get(i));
+                    } else {
+                        log.error("用户索引失败: index={}, id={}, status={}, reason={}",
+                                index, item.id(), item.status(), item.error().reason());
+                    }
+                }
+            } catch (ElasticsearchException e) {
+                if (e.status() != TOO_MANY_REQUESTS && e.status() < 500) {
+                    throw e;
+                }
+                retryable = new ArrayList<>(operations);
+            }
+            if (retryable.isEmpty()) {
+                return;
+            }
+            if (attempt >= maxRetries) {
+                throw new IllegalStateException("用户索引重试次数已用尽: failed=" + retryable.size());
+            }
+            log.warn("用户索引 _bulk 部分失败，退避后重试: index={}, failed={}, attempt={}",
+                    index, retryable.size(), attempt + 1);
+            sleep(100L << Math.min(attempt, 8));
+            operations.clear();
+            operations.addAll(retryable);
+        }
+    }
+
+    /**
+     * 原子切换别名：从旧索引移除别名并指向新索引
+     *
+     * @return 需要删除的旧版本索引
+     */
+    private List<String> swapAlias(String alias, String newIndex) throws IOException {
+        List<String> oldIndices = new ArrayList<>();
+        try {
+            oldIndices.addAll(elasticsearchClient.indices().getAlias(g -> g.name(alias)).result().keySet());
+        } catch (ElasticsearchException e) {
+            if (e.status() != NOT_FOUND) {
+                throw e;
+            }
+        }
+        // 别名不存在但同名索引存在：首次重建，旧数据在物理索引 user_index 中
+        boolean concreteIndex = oldIndices.isEmpty()
+                && elasticsearchClient.indices().exists(e -> e.index(alias)).value();
+
+        List<Action> actions = new ArrayList<>();
+        for (String oldIndex : oldIndices) {
+            actions.add(Action.of(a -> a.remove(r -> r.index(oldIndex).alias(alias))));
+        }
+        if (concreteIndex) {
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+        }
+        actions.add(Action.of(a -> a.add(ad -> ad.index(newIndex).alias(alias).isWriteIndex(true))));
+        elasticsearchClient.indices().updateAliases(u -> u.actions(actions));
+        log.info("用户索引别名已切换: alias={}, index={}, previous={}, concrete={}",
+                alias, newIndex, oldIndices, concreteIndex);
+        return oldIndices;
+    }
+
+    /**
+     * 删除旧版本索引（别名已切换，失败不影响重建结果）
+     */
+    private void deleteIndices(List<String> indices) {
+        if (indices.isEmpty()) {
+            return;
+        }
+        try {
+            elasticsearchClient.indices().delete(d -> d.index(indices));
+        } catch (IOException | RuntimeException e) {
+            log.warn("删除旧版本用户索引失败: indices={}, error={}", indices, e.getMessage());
+        }
+    }
+
+    /**
+     * 停止记录变更，并把重建期间发生变更的用户重新加入索引队列
+     *
+     * @return 重新入队的用户数
+     */
+    private int replayChanges() {
+        try {
+            stringRedisTemplate.delete(CacheConstants.SEARCH.REBUILD_INDEX_KEY);
+            Set<String> changed = stringRedisTemplate.opsForSet().members(CacheConstants.SEARCH.REBUILD_CHANGED_KEY);
+            stringRedisTemplate.delete(CacheConstants.SEARCH.REBUILD_CHANGED_KEY);
+            if (changed == null || changed.isEmpty()) {
+                return 0;
+            }
+            changed.forEach(userId -> userIndexQueue.enqueueIndex(Long.valueOf(userId)));
+            return changed.size();
+        } catch (RuntimeException e) {
+            // 别名已切换，不能回滚；重建期间的变更需要再次重建或等待下次变更补写
+            log.error("补写重建期间的用户变更失败: error={}", e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("重建用户索引被中断", e);
+        }
+    }
+}
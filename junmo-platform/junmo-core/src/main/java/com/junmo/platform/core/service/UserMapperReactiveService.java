@@ -6,9 +6,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
- * 用户响应式服务接口（基于MyBatis-Plus）
+ * 用户响应式服务接口（基于R2DBC）
  *
- * <p>提供基于MyBatis-Plus的响应式用户操作接口，包括：
+ * <p>提供非阻塞的响应式用户操作接口，包括：
  * <ul>
  *   <li>响应式查询操作</li>
  *   <li>响应式创建操作</li>
@@ -16,7 +16,8 @@ import reactor.core.publisher.Mono;
  * </ul>
  * </p>
  *
- * <p>注意：此接口与UserReactiveService（基于R2DBC）不同，本接口使用MyBatis-Plus进行数据访问</p>
+ * <p>注意：此接口供 UserService 的 *Reactive 方法委托，与 MyBatis-Plus 的查询口径保持一致（排除逻辑删除的用户）；
+ * UserReactiveService 直接面向 R2DBC Repository</p>
  *
  * @author junmo-platform
  * @version 1.0.0
@@ -25,6 +26,7 @@ public interface UserMapperReactiveService {
 
     /**
      * 响应式查询所有用户
+     * 按ID键集分页逐页读取，遵循下游背压
      *
      * @return 用户列表Flux
      */
@@ -80,6 +82,8 @@ public interface UserMapperReactiveService {
 
     /**
      * 响应式流式查询用户数据
+     * 变更流：定时轮询，只发出订阅之后新增、更新或逻辑删除的用户（按 updated_at、id 顺序），
+     * 逻辑删除的用户 deleted = 1，下游应据此移除
      *
      * @return 用户流Flux
      */
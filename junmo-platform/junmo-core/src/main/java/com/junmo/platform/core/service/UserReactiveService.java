@@ -1,13 +1,24 @@
 package com.junmo.platform.core.service;
 
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.junmo.platform.model.entity.User;
 import com.junmo.platform.model.repository.r2dbc.UserR2dbcRepository;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
 /**
  * 用户响应式服务
  * 使用R2DBC实现真正的响应式数据访问
@@ -16,6 +27,9 @@ import reactor.core.publisher.Mono;
  * - 传统Controller使用UserService（同步，基于MyBatis-Plus）
  * - 响应式Controller使用UserReactiveService（异步，基于R2DBC）
  *
+ * 批量操作按 r2dbc.user.batch-size 分块，每块一条SQL（IN 删除、多组绑定插入），
+ * 同时执行的块数不超过 r2dbc.user.write-concurrency；各块独立提交，中途失败时已完成的块不回滚
+ *
  * @author junmo-platform
  * @version 1.0.0
  */
@@ -23,9 +37,25 @@ import reactor.core.publisher.Mono;
 @Service
 public class UserReactiveService {
 
+    private static final String INSERT_SQL = "INSERT INTO sys_user (id, username, password, email, phone, real_name, "
+            + "avatar, status, dept_id, create_by, created_at, update_by, updated_at, deleted, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private UserR2dbcRepository userR2dbcRepository;
 
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Autowired
+    private UserUniquenessFilter userUniquenessFilter;
+
+    @Value("${r2dbc.user.batch-size:500}")
+    private int batchSize;
+
+    @Value("${r2dbc.user.write-concurrency:4}")
+    private int writeConcurrency;
+
     /**
      * 根据ID查找用户
      *
@@ -56,7 +86,8 @@ public class UserReactiveService {
      */
     public Mono<User> save(User user) {
         log.info("R2DBC响应式保存用户: username={}", user.getUsername());
-        return userR2dbcRepository.save(user);
+        return userR2dbcRepository.save(user)
+            .flatMap(this::recordUniqueness);
     }
 
     /**
@@ -93,7 +124,8 @@ public class UserReactiveService {
                     existingUser.setDeptId(user.getDeptId());
                 }
                 return userR2dbcRepository.save(existingUser);
-            });
+            })
+            .flatMap(this::recordUniqueness);
     }
 
     /**
@@ -170,17 +202,28 @@ public class UserReactiveService {
 
     /**
      * 批量保存用户
+     * 没有ID的用户按块多组绑定插入（ID、时间、删除标记、版本号按 MyBatis-Plus 规则填充），已有ID的用户逐个更新
      *
      * @param users 用户列表
-     * @return 保存后的用户Flux
+     * @return 保存后的用户Flux，顺序与输入一致
      */
     public Flux<User> saveAll(Iterable<User> users) {
         log.info("R2DBC响应式批量保存用户: count={}", users.spliterator().estimateSize());
-        return userR2dbcRepository.saveAll(users);
+        return Flux.fromIterable(users)
+            .buffer(batchSize)
+            .flatMapSequential(chunk -> {
+                List<User> inserts = chunk.stream().filter(user -> user.getId() == null).toList();
+                List<User> updates = chunk.stream().filter(user -> user.getId() != null).toList();
+                Mono<Long> inserted = inserts.isEmpty() ? Mono.just(0L) : insertBatch(inserts);
+                return inserted
+                    .thenMany(Flux.fromIterable(updates).concatMap(userR2dbcRepository::save))
+                    .thenMany(Flux.fromIterable(chunk).concatMap(this::recordUniqueness));
+            }, writeConcurrency);
     }
 
     /**
      * 批量删除用户
+     * 按块执行 DELETE ... WHERE id IN (...)
      *
      * @param ids 用户ID列表
      * @return 是否删除成功Mono
@@ -188,9 +231,15 @@ public class UserReactiveService {
     public Mono<Boolean> deleteAllById(Iterable<Long> ids) {
         log.info("R2DBC响应式批量删除用户: count={}", ids.spliterator().estimateSize());
         return Flux.fromIterable(ids)
-            .flatMap(userR2dbcRepository::deleteById)
-            .then(Mono.just(true))
-            .onErrorResume(e -> Mono.just(false));
+            .buffer(batchSize)
+            .flatMap(chunk -> r2dbcEntityTemplate.delete(query(where("id").in(chunk)), User.class), writeConcurrency)
+            .reduce(0L, Long::sum)
+            .doOnNext(deleted -> log.info("R2DBC响应式批量删除用户完成: deleted={}", deleted))
+            .thenReturn(true)
+            .onErrorResume(e -> {
+                log.error("R2DBC响应式批量删除用户失败", e);
+                return Mono.just(false);
+            });
     }
 
     /**
@@ -211,7 +260,62 @@ public class UserReactiveService {
      */
     public Mono<Long> countByStatus(Integer status) {
         log.info("R2DBC响应式根据状态统计用户数量: status={}", status);
-        return userR2dbcRepository.findByStatus(status)
-            .count();
+        return userR2dbcRepository.countByStatus(status);
+    }
+
+    /**
+     * 记录已占用的用户名和邮箱，注册时的布隆过滤器检查据此判断
+     */
+    private Mono<User> recordUniqueness(User user) {
+        return userUniquenessFilter.record(user.getUsername(), user.getEmail()).thenReturn(user);
+    }
+
+    /**
+     * 一条 INSERT 语句多组绑定插入一块用户
+     *
+     * @param users 没有ID的用户
+     * @return 插入行数Mono
+     */
+    private Mono<Long> insertBatch(List<User> users) {
+        LocalDateTime now = LocalDateTime.now();
+        return r2dbcEntityTemplate.getDatabaseClient().inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(INSERT_SQL);
+                for (int i = 0; i < users.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    bindInsert(statement, fillInsert(users.get(i), now));
+                }
+                return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+            })
+            .reduce(0L, Long::sum)
+            .doOnNext(inserted -> log.debug("R2DBC响应式批量插入用户: inserted={}", inserted));
+    }
+
+    private static User fillInsert(User user, LocalDateTime now) {
+        user.setId(IdWorker.getId());
+        if (user.getStatus() == null) {
+            user.setStatus(1);
+        }
+        if (user.getCreatedAt() == null) {
+            user.setCreatedAt(now);
+        }
+        user.setUpdatedAt(now);
+        user.setDeleted(0);
+        user.setVersion(0);
+        return user;
+    }
+
+    private static void bindInsert(Statement statement, User user) {
+        Object[] values = {user.getId(), user.getUsername(), user.getPassword(), user.getEmail(), user.getPhone(),
+            user.getRealName(), user.getAvatar(), user.getStatus(), user.getDeptId(), user.getCreateBy(),
+            user.getCreatedAt(), user.getUpdateBy(), user.getUpdatedAt(), user.getDeleted(), user.getVersion()};
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                statement.bind(i, values[i]);
+            } else {
+                statement.bindNull(i, String.class);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.junmo.platform.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.junmo.platform.base.constant.CacheConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 用户搜索结果缓存
+ *
+ * <p>按规范化后的查询形状（关键词、过滤条件、分页、排序、统计）在本地短时缓存搜索结果，
+ * 缓存键包含 Redis 中的两级版本号：</p>
+ * <ul>
+ *   <li>整体版本号：{@link UserIndexRebuilder} 切换别名后递增，所有结果失效</li>
+ *   <li>范围版本号：查询按过滤条件归入一个范围（部门、状态，无过滤条件时为全部），
+ *       {@link UserIndexQueue} 写入后只递增被写入文档变更前后所属的范围，其他部门、状态的结果继续命中</li>
+ * </ul>
+ *
+ * <p>版本号在本地缓存 {@code elasticsearch.search.generation-refresh}，查询不逐次读取 Redis，
+ * 其他节点写入后本节点的结果最多滞后该时间。Redis 不可用时直接查询，不使用缓存。</p>
+ *
+ * <p>输入联想这类逐键调用、结果允许短暂滞后的查询使用 {@link #getLocal}，只按 ttl 过期，不参与版本号失效。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class UserSearchCache {
+
+    /**
+     * 整体版本号字段
+     */
+    private static final String GLOBAL_FIELD = "*";
+
+    /**
+     * 不按部门、状态过滤的查询所属范围，任何写入都会使其失效
+     */
+    private static final String ALL_SCOPE = "all";
+
+    /**
+     * 递增多个范围的版本号
+     */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV do
+                redis.call('HINCRBY', KEYS[1], ARGV[i], 1)
+            end
+            return #ARGV
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final long generationRefreshMillis;
+
+    private final Cache<String, Object> results;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * 本地缓存的版本号（字段 -> 版本号），读取 Redis 失败时为 null
+     */
+    private volatile Map<Object, Object> generations;
+
+    private volatile long generationsLoadedAt;
+
+    public UserSearchCache(
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${elasticsearch.search.cache-ttl:5000}") long ttlMillis,
+            @Value("${elasticsearch.search.cache-size:1000}") long maximumSize,
+            @Value("${elasticsearch.search.generation-refresh:1000}") long generationRefreshMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.generationRefreshMillis = generationRefreshMillis;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.hits = Counter.builder("search.cache.requests")
+                .description("用户搜索结果缓存请求数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("search.cache.requests")
+                .description("用户搜索结果缓存请求数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取缓存，未命中时执行查询并缓存结果（不按部门、状态过滤的查询）
+     *
+     * @param queryShape 规范化后的查询形状
+     * @param loader     查询
+     * @param <T>        结果类型
+     * @return 查询结果
+     */
+    public <T> T get(String queryShape, Supplier<T> loader) {
+        return get(queryShape, null, null, loader);
+    }
+
+    /**
+     * 读取缓存，未命中时执行查询并缓存结果
+     *
+     * @param queryShape 规范化后的查询形状
+     * @param status     查询的状态过滤条件
+     * @param deptId     查询的部门过滤条件
+     * @param loader     查询
+     * @param <T>        结果类型
+     * @return 查询结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String queryShape, Integer status, String deptId, Supplier<T> loader) {
+        Map<Object, Object> current = currentGenerations();
+        if (current == null) {
+            return loader.get();
+        }
+
+        // 同时按部门和状态过滤时只取部门范围：结果中的文档都属于该部门，部门范围的失效已经覆盖
+        String scope = deptId != null ? deptScope(deptId) : status != null ? statusScope(status) : ALL_SCOPE;
+        String key = current.getOrDefault(GLOBAL_FIELD, "0") + ":" + current.getOrDefault(scope, "0")
+                + ":" + queryShape;
+        Object cached = results.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return (T) cached;
+        }
+        misses.increment();
+        T result = loader.get();
+        if (result != null) {
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 读取本地缓存，未命中时执行查询并缓存结果
+     *
+     * <p>不读取版本号、不访问 Redis，结果只按 ttl 过期（索引写入后最多滞后 ttl）。</p>
+     *
+     * @param queryShape 规范化后的查询形状
+     * @param loader     查询
+     * @param <T>        结果类型
+     * @return 查询结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getLocal(String queryShape, Supplier<T> loader) {
+        String key = "local:" + queryShape;
+        Object cached = results.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return (T) cached;
+        }
+        misses.increment();
+        T result = loader.get();
+        if (result != null) {
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * 用户文档已写入或删除，使文档变更前后所属范围的缓存结果在所有节点失效
+     *
+     * @param statuses 受影响的状态（文档变更前后的状态）
+     * @param deptIds  受影响的部门（文档变更前后的部门）
+     */
+    public void invalidate(Collection<Integer> statuses, Collection<String> deptIds) {
+        String[] fields = new String[statuses.size() + deptIds.size() + 1];
+        int i = 0;
+        fields[i++] = ALL_SCOPE;
+        for (Integer status : statuses) {
+            fields[i++] = statusScope(status);
+        }
+        for (String deptId : deptIds) {
+            fields[i++] = deptScope(deptId);
+        }
+        increment(fields);
+    }
+
+    /**
+     * 用户索引已整体替换（重建后切换别名），或无法确定受影响的范围，使所有节点的缓存结果失效
+     */
+    public void invalidate() {
+        increment(GLOBAL_FIELD);
+        results.invalidateAll();
+    }
+
+    private void increment(String... fields) {
+        try {
+            stringRedisTemplate.execute(INCREMENT_SCRIPT, List.of(CacheConstants.SEARCH.GENERATION_KEY),
+                    (Object[]) fields);
+        } catch (RuntimeException e) {
+            log.warn("递增用户索引版本号失败: fields={}, error={}", fields.length, e.getMessage());
+        }
+        // 本节点的写入立即可见，下次查询重新读取版本号
+        generationsLoadedAt = 0;
+    }
+
+    /**
+     * 获取本地缓存的版本号，过期时由一个线程重新读取，其余线程继续使用旧版本号
+     */
+    private Map<Object, Object> currentGenerations() {
+        Map<Object, Object> current = generations;
+        if (current != null && System.currentTimeMillis() - generationsLoadedAt < generationRefreshMillis) {
+            return current;
+        }
+        if (current != null && !refreshing.compareAndSet(false, true)) {
+            return current;
+        }
+        try {
+            current = stringRedisTemplate.opsForHash().entries(CacheConstants.SEARCH.GENERATION_KEY);
+            generations = current;
+            generationsLoadedAt = System.currentTimeMillis();
+            return current;
+        } catch (RuntimeException e) {
+            log.warn("读取用户索引版本号失败，跳过搜索缓存: error={}", e.getMessage());
+            generations = null;
+            return null;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private static String statusScope(Integer status) {
+        return "status:" + status;
+    }
+
+    private static String deptScope(String deptId) {
+        return "dept:" + deptId;
+    }
+}
@@ -1,10 +1,14 @@
 package com.junmo.platform.core.service;
 
+import com.junmo.platform.api.dto.CursorPage;
+import com.junmo.platform.api.dto.UserBriefVO;
+import com.junmo.platform.api.dto.UserStatsVO;
 import com.junmo.platform.model.document.UserDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 用户搜索服务接口
@@ -29,7 +33,7 @@ public interface UserSearchService {
     void indexUsers(List<Long> userIds);
 
     /**
-     * 重建索引（清空后重新索引所有用户）
+     * 重建索引（写入新版本索引后原子切换别名，重建期间搜索可用）
      */
     void rebuildIndex();
 
@@ -67,6 +71,68 @@ public interface UserSearchService {
      */
     Page<UserDocument> advancedSearch(String keyword, Integer status, String deptId, Pageable pageable);
 
+    /**
+     * 高级搜索用户（列表视图）
+     *
+     * <p>条件与 {@link #advancedSearch} 相同，但只向 Elasticsearch 请求列表页展示的字段，
+     * 响应体和反序列化开销都更小，适合高频调用的列表接口。</p>
+     *
+     * @param keyword 关键词
+     * @param status 状态
+     * @param deptId 部门ID
+     * @param pageable 分页参数
+     * @return 用户列表视图分页结果
+     */
+    Page<UserBriefVO> advancedSearchBrief(String keyword, Integer status, String deptId, Pageable pageable);
+
+    /**
+     * 用户名、真实姓名输入联想
+     *
+     * <p>在边缘 n-gram 子字段上按前缀精确匹配，用户名匹配优先；相同前缀的结果在本节点短时缓存。</p>
+     *
+     * @param prefix 已输入的前缀
+     * @param limit 最大返回数量，限制在 1 到 {@code elasticsearch.search.suggest-max-limit} 之间
+     * @return 匹配的用户列表视图
+     */
+    List<UserBriefVO> suggestUsers(String prefix, int limit);
+
+    /**
+     * 用户统计
+     *
+     * <p>一次 size=0 的聚合请求返回总数、新增数、活跃数、状态和部门分布及最近30天每日新增；
+     * Elasticsearch 不可用时改为查询数据库。</p>
+     *
+     * @return 用户统计
+     */
+    UserStatsVO getUserStats();
+
+    /**
+     * 高级搜索用户（游标分页）
+     *
+     * <p>基于时间点快照和 search_after，按 [相关度, userId] 稳定排序，适合深分页；
+     * 第一页 cursor 传空，之后传上一页返回的 nextCursor。</p>
+     *
+     * @param keyword 关键词
+     * @param status 状态
+     * @param deptId 部门ID
+     * @param cursor 游标（第一页为空）
+     * @param size 每页数量（限制在 1 到 elasticsearch.search.max-page-size 之间）
+     * @return 游标分页结果
+     */
+    CursorPage<UserDocument> advancedSearchAfter(String keyword, Integer status, String deptId, String cursor, int size);
+
+    /**
+     * 流式导出用户，按批回调，内存占用只与批大小有关
+     *
+     * @param keyword 关键词
+     * @param status 状态
+     * @param deptId 部门ID
+     * @param batchSize 每批数量
+     * @param consumer 每批数据的处理函数
+     * @return 导出的用户数
+     */
+    long exportUsers(String keyword, Integer status, String deptId, int batchSize, Consumer<List<UserDocument>> consumer);
+
     /**
      * 根据用户名搜索
      *
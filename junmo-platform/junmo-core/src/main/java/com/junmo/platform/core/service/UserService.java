@@ -124,6 +124,7 @@ public interface UserService extends IService<User> {
 
     /**
      * 响应式流式查询用户数据
+     * 只发出订阅之后新增或更新的用户
      *
      * @return 用户流Flux
      */
@@ -0,0 +1,195 @@
+package com.junmo.platform.core.service;
+
+import com.junmo.platform.base.constant.CacheConstants;
+import com.junmo.platform.model.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBloomFilterReactive;
+import org.redisson.api.RBucketReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * 用户名、邮箱占用过滤器
+ *
+ * <p>Redis 布隆过滤器记录所有已占用的用户名和邮箱（不区分大小写，与 sys_user 的排序规则一致）。
+ * 两者都判定为"一定未占用"时注册流程直接跳过数据库唯一性检查，只有可能被占用时才查询数据库。
+ * 布隆过滤器无法删除元素，删除或改名后的旧值只会造成误判、多查一次数据库。</p>
+ *
+ * <p>首次启动时由一个节点按ID键集分页装载全部未删除用户，装载完成前、Redis 不可用时一律返回"可能占用"。
+ * 创建用户和修改用户名、邮箱的写入路径（MyBatis 的 UserServiceImpl、R2DBC 的响应式服务）都会调用 {@link #record}；
+ * 记录失败时的漏记由 sys_user 的唯一索引兜底。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Component
+@Slf4j
+public class UserUniquenessFilter {
+
+    private static final String MARKER = "1";
+
+    private static final Duration SEED_TIMEOUT = Duration.ofHours(1);
+
+    private final RedissonReactiveClient redissonReactiveClient;
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    private final long expectedInsertions;
+
+    private final double falseProbability;
+
+    private final int pageSize;
+
+    /**
+     * 已确认装载完成，之后不再查询装载标记
+     */
+    private volatile boolean ready;
+
+    public UserUniquenessFilter(
+            RedissonClient redissonClient,
+            R2dbcEntityTemplate r2dbcEntityTemplate,
+            @Value("${r2dbc.user.bloom.expected-insertions:10000000}") long expectedInsertions,
+            @Value("${r2dbc.user.bloom.false-probability:0.001}") double falseProbability,
+            @Value("${r2dbc.user.page-size:500}") int pageSize) {
+        this.redissonReactiveClient = redissonClient.reactive();
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falseProbability = falseProbability;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 判断用户名或邮箱是否可能已被占用
+     *
+     * @param username 用户名
+     * @param email    邮箱，可为空
+     * @return 两者都一定未占用时返回 false
+     */
+    public Mono<Boolean> mightExist(String username, String email) {
+        return isReady()
+                .flatMap(isReady -> {
+                    if (!isReady) {
+                        return Mono.just(true);
+                    }
+                    Mono<Boolean> emailExists = email != null
+                            ? emails().contains(normalize(email))
+                            : Mono.just(false);
+                    return Mono.zip(usernames().contains(normalize(username)), emailExists)
+                            .map(tuple -> tuple.getT1() || tuple.getT2());
+                })
+                .onErrorResume(e -> {
+                    log.warn("查询用户名邮箱布隆过滤器失败，回退到数据库检查: username={}, error={}", username, e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * 记录已占用的用户名和邮箱
+     *
+     * @param username 用户名，可为空（只修改邮箱时）
+     * @param email    邮箱，可为空
+     * @return 完成信号，写入失败时忽略
+     */
+    public Mono<Void> record(String username, String email) {
+        Mono<Boolean> usernameAdded = username != null ? usernames().add(normalize(username)) : Mono.just(false);
+        Mono<Boolean> emailAdded = email != null ? emails().add(normalize(email)) : Mono.just(false);
+        return Mono.when(usernameAdded, emailAdded)
+                .onErrorResume(e -> {
+                    log.warn("写入用户名邮箱布隆过滤器失败: username={}, error={}", username, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 应用启动后装载布隆过滤器，已装载或其他节点正在装载时跳过
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        readyMarker().isExists()
+                .filter(exists -> !exists)
+                .flatMap(exists -> seedingMarker().setIfAbsent(MARKER, SEED_TIMEOUT))
+                .filter(Boolean::booleanValue)
+                .flatMap(acquired -> Mono.when(
+                                usernames().tryInit(expectedInsertions, falseProbability),
+                                emails().tryInit(expectedInsertions, falseProbability))
+                        .then(loadAll())
+                        .flatMap(count -> readyMarker().set(MARKER).thenReturn(count))
+                        .doFinally(signal -> seedingMarker().delete().subscribe()))
+                .subscribe(
+                        count -> log.info("用户名邮箱布隆过滤器装载完成: users={}", count),
+                        e -> log.warn("用户名邮箱布隆过滤器装载失败，注册时回退到数据库检查: error={}", e.getMessage()));
+    }
+
+    private Mono<Boolean> isReady() {
+        if (ready) {
+            return Mono.just(true);
+        }
+        return readyMarker().isExists().doOnNext(exists -> ready = exists);
+    }
+
+    private Mono<Long> loadAll() {
+        return loadPage(null)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : loadPage(page.get(page.size() - 1).getId()))
+                .concatMap(page -> {
+                    List<String> emailValues = page.stream()
+                            .map(User::getEmail)
+                            .filter(Objects::nonNull)
+                            .map(UserUniquenessFilter::normalize)
+                            .toList();
+                    return Mono.when(
+                                    usernames().add(page.stream().map(user -> normalize(user.getUsername())).toList()),
+                                    emailValues.isEmpty() ? Mono.empty() : emails().add(emailValues))
+                            .thenReturn((long) page.size());
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<List<User>> loadPage(Long afterId) {
+        Criteria criteria = where("deleted").is(0);
+        if (afterId != null) {
+            criteria = criteria.and(where("id").greaterThan(afterId));
+        }
+        return r2dbcEntityTemplate.select(User.class)
+                .matching(query(criteria).columns("id", "username", "email").sort(Sort.by("id")).limit(pageSize))
+                .all()
+                .collectList();
+    }
+
+    private RBloomFilterReactive<String> usernames() {
+        return redissonReactiveClient.getBloomFilter(CacheConstants.USER.USERNAME_BLOOM_KEY);
+    }
+
+    private RBloomFilterReactive<String> emails() {
+        return redissonReactiveClient.getBloomFilter(CacheConstants.USER.EMAIL_BLOOM_KEY);
+    }
+
+    private RBucketReactive<String> readyMarker() {
+        return redissonReactiveClient.getBucket(CacheConstants.USER.BLOOM_READY_KEY);
+    }
+
+    private RBucketReactive<String> seedingMarker() {
+        return redissonReactiveClient.getBucket(CacheConstants.USER.BLOOM_SEEDING_KEY);
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
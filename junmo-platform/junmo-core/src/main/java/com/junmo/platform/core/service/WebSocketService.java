@@ -1,25 +1,31 @@
 package com.junmo.platform.core.service;
 
+import com.junmo.platform.api.dto.MessageHistoryRequest;
 import com.junmo.platform.api.dto.OnlineUser;
 import com.junmo.platform.api.dto.UserMessage;
 import com.junmo.platform.model.entity.User;
+import com.junmo.platform.core.mq.PresenceDeltaAggregator;
+import com.junmo.platform.core.mq.WebSocketBroadcaster;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * WebSocket服务
  *
  * 功能说明:
- * 1. 管理在线用户
+ * 1. 管理在线用户（集群共享，见 {@link PresenceRegistry}）
  * 2. 用户上线/下线通知
  * 3. 在线用户列表查询
  * 4. 用户状态管理
+ * 5. 用户消息持久化和历史查询
+ *
+ * 同一用户可以有多个会话（多个标签页或设备），第一个会话建立时广播上线，最后一个会话断开时广播下线。
+ * 状态变更由 {@link PresenceDeltaAggregator} 按时间窗口合并后推送。
  *
  * @author junmo-platform
  * @version 1.0.0
@@ -29,47 +35,44 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class WebSocketService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserService userService;
+    private static final String USER_STATUS_DESTINATION = "/topic/user-status";
 
-    /**
-     * 在线用户缓存 (userId -> OnlineUser)
-     */
-    private final Map<Long, OnlineUser> onlineUsers = new ConcurrentHashMap<>();
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
 
-    /**
-     * 用户会话缓存 (userId -> sessionId)
-     */
-    private final Map<Long, String> userSessions = new ConcurrentHashMap<>();
+    private final WebSocketBroadcaster broadcaster;
+    private final UserCacheService userCacheService;
+    private final PresenceRegistry presenceRegistry;
+    private final PresenceDeltaAggregator presenceDeltaAggregator;
+    private final ChatMessageService chatMessageService;
 
     /**
      * 用户上线
      *
-     * @param userId 用户ID
+     * @param userId    用户ID
+     * @param sessionId 会话ID
      */
-    public void userOnline(Long userId) {
-        log.info("用户上线: userId={}", userId);
-
-        User user = userService.getById(userId);
-        if (user != null) {
-            OnlineUser onlineUser = new OnlineUser();
-            onlineUser.setUserId(user.getId());
-            onlineUser.setUsername(user.getUsername());
-            onlineUser.setRealName(user.getRealName());
-            onlineUser.setAvatar(user.getAvatar());
-            onlineUser.setStatus("ONLINE");
-            onlineUser.setOnlineTime(LocalDateTime.now());
-            onlineUser.setLastActiveTime(LocalDateTime.now());
-
-            onlineUsers.put(userId, onlineUser);
-
-            // 广播用户上线消息
-            com.junmo.platform.api.dto.UserStatusMessage message =
-                    new com.junmo.platform.api.dto.UserStatusMessage(
-                            userId, user.getUsername(), "ONLINE"
-                    );
-            messagingTemplate.convertAndSend("/topic/user-status", message);
+    public void userOnline(Long userId, String sessionId) {
+        log.info("用户上线: userId={}, sessionId={}", userId, sessionId);
+
+        // 已在线用户新增会话时，资料从多级缓存读取且不会覆盖已有资料
+        User user = userCacheService.getUserFromCache(userId);
+        if (user == null) {
+            return;
+        }
 
+        LocalDateTime now = LocalDateTime.now();
+        OnlineUser onlineUser = new OnlineUser();
+        onlineUser.setUserId(user.getId());
+        onlineUser.setUsername(user.getUsername());
+        onlineUser.setRealName(user.getRealName());
+        onlineUser.setAvatar(user.getAvatar());
+        onlineUser.setStatus("ONLINE");
+        onlineUser.setSessionId(sessionId);
+        onlineUser.setOnlineTime(now);
+        onlineUser.setLastActiveTime(now);
+
+        if (presenceRegistry.register(onlineUser, sessionId)) {
+            broadcastStatus(userId, user.getUsername(), "ONLINE");
             log.info("用户上线成功: userId={}, username={}", userId, user.getUsername());
         }
     }
@@ -77,21 +80,17 @@ public class WebSocketService {
     /**
      * 用户下线
      *
-     * @param userId 用户ID
+     * @param userId    用户ID
+     * @param sessionId 会话ID
      */
-    public void userOffline(Long userId) {
-        log.info("用户下线: userId={}", userId);
-
-        OnlineUser onlineUser = onlineUsers.remove(userId);
-        if (onlineUser != null) {
-            // 广播用户下线消息
-            com.junmo.platform.api.dto.UserStatusMessage message =
-                    new com.junmo.platform.api.dto.UserStatusMessage(
-                            userId, onlineUser.getUsername(), "OFFLINE"
-                    );
-            messagingTemplate.convertAndSend("/topic/user-status", message);
-
-            log.info("用户下线成功: userId={}, username={}", userId, onlineUser.getUsername());
+    public void userOffline(Long userId, String sessionId) {
+        log.info("用户下线: userId={}, sessionId={}", userId, sessionId);
+
+        OnlineUser onlineUser = presenceRegistry.getOnlineUser(userId);
+        if (presenceRegistry.unregister(userId, sessionId)) {
+            String username = onlineUser != null ? onlineUser.getUsername() : null;
+            broadcastStatus(userId, username, "OFFLINE");
+            log.info("用户下线成功: userId={}, username={}", userId, username);
         }
     }
 
@@ -104,30 +103,36 @@ public class WebSocketService {
     public void updateUserStatus(Long userId, String status) {
         log.info("更新用户状态: userId={}, status={}", userId, status);
 
-        OnlineUser onlineUser = onlineUsers.get(userId);
+        OnlineUser onlineUser = presenceRegistry.updateStatus(userId, status);
         if (onlineUser != null) {
-            onlineUser.setStatus(status);
-            onlineUser.setLastActiveTime(LocalDateTime.now());
-
-            // 广播用户状态更新
-            com.junmo.platform.api.dto.UserStatusMessage message =
-                    new com.junmo.platform.api.dto.UserStatusMessage(
-                            userId, onlineUser.getUsername(), status
-                    );
-            messagingTemplate.convertAndSend("/topic/user-status", message);
-
+            broadcastStatus(userId, onlineUser.getUsername(), status);
             log.info("用户状态更新成功: userId={}, status={}", userId, status);
         }
     }
 
+    /**
+     * 清理心跳超时的用户并广播下线（用户所在节点宕机时不会收到断开事件）
+     */
+    @Scheduled(fixedDelayString = "${websocket.presence.sweep-interval:15000}")
+    public void expireStaleUsers() {
+        List<Long> expired = presenceRegistry.expireStaleUsers();
+        for (Long userId : expired) {
+            broadcastStatus(userId, null, "OFFLINE");
+        }
+        if (!expired.isEmpty()) {
+            log.info("清理心跳超时用户: count={}", expired.size());
+        }
+    }
+
     /**
      * 获取在线用户列表
      *
      * @return 在线用户列表
      */
     public List<OnlineUser> getOnlineUsers() {
+        List<OnlineUser> onlineUsers = presenceRegistry.getOnlineUsers();
         log.info("获取在线用户列表: count={}", onlineUsers.size());
-        return new ArrayList<>(onlineUsers.values());
+        return onlineUsers;
     }
 
     /**
@@ -135,8 +140,8 @@ public class WebSocketService {
      *
      * @return 在线用户数量
      */
-    public int getOnlineUserCount() {
-        return onlineUsers.size();
+    public long getOnlineUserCount() {
+        return presenceRegistry.getOnlineUserCount();
     }
 
     /**
@@ -146,7 +151,7 @@ public class WebSocketService {
      * @return 是否在线
      */
     public boolean isUserOnline(Long userId) {
-        return onlineUsers.containsKey(userId);
+        return presenceRegistry.isUserOnline(userId);
     }
 
     /**
@@ -156,28 +161,17 @@ public class WebSocketService {
      * @return 在线用户信息
      */
     public OnlineUser getOnlineUser(Long userId) {
-        return onlineUsers.get(userId);
+        return presenceRegistry.getOnlineUser(userId);
     }
 
     /**
-     * 保存用户会话
-     *
-     * @param userId    用户ID
-     * @param sessionId 会话ID
-     */
-    public void saveUserSession(Long userId, String sessionId) {
-        userSessions.put(userId, sessionId);
-        log.info("保存用户会话: userId={}, sessionId={}", userId, sessionId);
-    }
-
-    /**
-     * 移除用户会话
+     * 获取用户的所有会话
      *
      * @param userId 用户ID
+     * @return 会话ID集合
      */
-    public void removeUserSession(Long userId) {
-        userSessions.remove(userId);
-        log.info("移除用户会话: userId={}", userId);
+    public Set<String> getUserSessions(Long userId) {
+        return presenceRegistry.getSessionIds(userId);
     }
 
     /**
@@ -188,7 +182,7 @@ public class WebSocketService {
      */
     public void sendUserMessage(Long userId, UserMessage message) {
         log.info("发送用户消息: userId={}, message={}", userId, message);
-        messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/messages", message);
+        broadcaster.sendToUser(userId.toString(), "/queue/messages", message);
     }
 
     /**
@@ -198,14 +192,41 @@ public class WebSocketService {
      */
     public void broadcastSystemMessage(com.junmo.platform.api.dto.SystemMessage message) {
         log.info("广播系统消息: message={}", message);
-        messagingTemplate.convertAndSend("/topic/system", message);
+        broadcaster.broadcast("/topic/system", message);
     }
 
-    // TODO: 保存消息到数据库（待实现）
-    // public void saveMessage(UserMessage message) {
-    //     log.info("保存消息到数据库: message={}", message);
-    //     // TODO: 实现消息持久化逻辑
-    // }
+    private void broadcastStatus(Long userId, String username, String status) {
+        com.junmo.platform.api.dto.UserStatusMessage message =
+                new com.junmo.platform.api.dto.UserStatusMessage(userId, username, status);
+        presenceDeltaAggregator.submit(USER_STATUS_DESTINATION, message);
+    }
+
+    /**
+     * 保存消息到数据库（异步批量写入，分配消息ID）
+     *
+     * @param message 消息
+     */
+    public void saveMessage(UserMessage message) {
+        chatMessageService.saveMessage(message);
+    }
+
+    /**
+     * 查询消息历史
+     *
+     * 指定 afterMessageId 时返回其后的消息（重连增量同步），否则返回 beforeMessageId 之前的消息（为空时返回最新消息）
+     *
+     * @param userId  当前用户ID
+     * @param request 查询请求
+     * @return 消息列表（按消息ID升序）
+     */
+    public List<UserMessage> getMessageHistory(Long userId, MessageHistoryRequest request) {
+        String conversationId = ChatMessageService.conversationId(userId, request.getPeerId());
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_HISTORY_LIMIT;
+        if (request.getAfterMessageId() != null) {
+            return chatMessageService.getMessagesAfter(conversationId, request.getAfterMessageId(), limit);
+        }
+        return chatMessageService.getMessagesBefore(conversationId, request.getBeforeMessageId(), limit);
+    }
 
     // TODO: 发送系统通知（待实现）
     // public void sendNotification(Long userId, NotificationMessage message) {
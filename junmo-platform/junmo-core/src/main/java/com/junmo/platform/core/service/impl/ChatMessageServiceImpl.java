@@ -0,0 +1,393 @@
+package com.junmo.platform.core.service.impl;
+
+import com.junmo.platform.api.dto.UserMessage;
+import com.junmo.platform.common.util.SnowflakeIdGenerator;
+import com.junmo.platform.core.service.ChatMessageService;
+import com.junmo.platform.model.document.ChatMessageBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 聊天消息存储服务实现类
+ *
+ * 消息按会话和时间窗口分桶保存在 MongoDB（见 {@link ChatMessageBucket}），只追加不修改。
+ * STOMP 线程只负责分配消息ID并放入内存队列，由后台线程按时间窗口攒批，
+ * 每个桶一次 $push $each 更新，整批通过一次有序 bulk 请求写入。
+ * 写入中的消息在 MongoDB 确认前保留在在途集合中，查询时与待写入队列一起合并，写入失败时放回队首
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Slf4j
+@Service
+public class ChatMessageServiceImpl implements ChatMessageService, DisposableBean {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final SnowflakeIdGenerator idGenerator;
+
+    private final int batchSize;
+
+    private final int bucketSize;
+
+    private final long bucketMillis;
+
+    private final int maxHistory;
+
+    /**
+     * 待写入的消息（写入失败的消息放回队首重试）
+     */
+    private final BlockingDeque<PendingMessage> pendingMessages;
+
+    /**
+     * 已取出、等待 MongoDB 确认的消息
+     */
+    private final Set<PendingMessage> inFlightMessages = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * 消息在待写入队列、在途集合、MongoDB 之间移动时持有，查询方据此看到一致的内存视图
+     */
+    private final Object bufferLock = new Object();
+
+    private final ScheduledExecutorService scheduler;
+
+    public ChatMessageServiceImpl(
+            MongoTemplate mongoTemplate,
+            @Value("${websocket.message-store.worker-id:0}") long workerId,
+            @Value("${websocket.message-store.flush-interval:100}") long flushIntervalMillis,
+            @Value("${websocket.message-store.batch-size:500}") int batchSize,
+            @Value("${websocket.message-store.queue-capacity:10000}") int queueCapacity,
+            @Value("${websocket.message-store.bucket-size:200}") int bucketSize,
+            @Value("${websocket.message-store.bucket-duration:3600000}") long bucketMillis,
+            @Value("${websocket.message-store.max-history:200}") int maxHistory) {
+        this.mongoTemplate = mongoTemplate;
+        this.idGenerator = SnowflakeIdGenerator.getInstance(workerId);
+        this.batchSize = batchSize;
+        this.bucketSize = bucketSize;
+        this.bucketMillis = bucketMillis;
+        this.maxHistory = maxHistory;
+        this.pendingMessages = new LinkedBlockingDeque<>(queueCapacity);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("chat-message-writer")
+                .daemon(true)
+                .factory());
+        this.scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 待写入的消息
+     *
+     * @param conversationId 会话ID
+     * @param bucketStart    时间窗口起始时间戳
+     * @param entry          消息
+     */
+    private record PendingMessage(String conversationId, long bucketStart, ChatMessageBucket.Entry entry) {
+    }
+
+    @Override
+    public void saveMessage(UserMessage message) {
+        if (message.getMessageId() == null) {
+            message.setMessageId(idGenerator.nextId());
+        }
+        if (message.getSentAt() == null) {
+            message.setSentAt(LocalDateTime.now());
+        }
+
+        long timestamp = SnowflakeIdGenerator.parseTimestamp(message.getMessageId());
+        PendingMessage pending = new PendingMessage(
+                ChatMessageService.conversationId(message.getSenderId(), message.getReceiverId()),
+                timestamp - timestamp % bucketMillis,
+                toEntry(message));
+        if (!pendingMessages.offer(pending)) {
+            // 队列已满说明写入跟不上，在调用线程上同步写入，不丢消息
+            log.warn("聊天消息写入队列已满，同步写入: messageId={}", message.getMessageId());
+            synchronized (bufferLock) {
+                inFlightMessages.add(pending);
+            }
+            write(List.of(pending));
+        }
+    }
+
+    @Override
+    public List<UserMessage> getMessagesAfter(String conversationId, Long afterMessageId, int limit) {
+        int size = Math.min(Math.max(limit, 1), maxHistory);
+        long after = afterMessageId != null ? afterMessageId : 0L;
+
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId)
+                        .and("lastMessageId").gt(after))
+                .with(Sort.by(Sort.Direction.ASC, "firstMessageId"));
+
+        // 先合并尚未确认写入的消息再查询 MongoDB，刚发送或正在写入的消息也能同步到
+        TreeMap<Long, ChatMessageBucket.Entry> collected = new TreeMap<>();
+        collectBuffered(collected, conversationId, after, Long.MAX_VALUE);
+        trim(collected, size, true);
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            Iterator<ChatMessageBucket> iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                // 桶按最小消息ID升序，之后的桶不可能再有更早的消息
+                if (collected.size() >= size && bucket.getFirstMessageId() > collected.lastKey()) {
+                    break;
+                }
+                for (ChatMessageBucket.Entry entry : bucket.getMessages()) {
+                    if (entry.getMessageId() > after) {
+                        collected.put(entry.getMessageId(), entry);
+                    }
+                }
+                trim(collected, size, true);
+            }
+        }
+        return toMessages(collected);
+    }
+
+    @Override
+    public List<UserMessage> getMessagesBefore(String conversationId, Long beforeMessageId, int limit) {
+        int size = Math.min(Math.max(limit, 1), maxHistory);
+        long before = beforeMessageId != null ? beforeMessageId : Long.MAX_VALUE;
+
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId)
+                        .and("firstMessageId").lt(before))
+                .with(Sort.by(Sort.Direction.DESC, "lastMessageId"));
+
+        TreeMap<Long, ChatMessageBucket.Entry> collected = new TreeMap<>();
+        collectBuffered(collected, conversationId, Long.MIN_VALUE, before);
+        trim(collected, size, false);
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            Iterator<ChatMessageBucket> iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                // 桶按最大消息ID降序，之后的桶不可能再有更晚的消息
+                if (collected.size() >= size && bucket.getLastMessageId() < collected.firstKey()) {
+                    break;
+                }
+                for (ChatMessageBucket.Entry entry : bucket.getMessages()) {
+                    if (entry.getMessageId() < before) {
+                        collected.put(entry.getMessageId(), entry);
+                    }
+                }
+                trim(collected, size, false);
+            }
+        }
+        trim(collected, size, false);
+        return toMessages(collected);
+    }
+
+    /**
+     * 收集待写入队列和在途集合中指定会话、消息ID在 (after, before) 之间的消息
+     *
+     * <p>必须在查询 MongoDB 之前调用：消息只会按 队列 → 在途 → MongoDB 的方向前进（失败时在锁内退回队列），
+     * 先取内存视图再查库，任一时刻的消息至少会被看到一次。</p>
+     */
+    private void collectBuffered(Map<Long, ChatMessageBucket.Entry> collected, String conversationId,
+                                 long after, long before) {
+        synchronized (bufferLock) {
+            for (PendingMessage pending : pendingMessages) {
+                collectIfMatches(collected, pending, conversationId, after, before);
+            }
+            for (PendingMessage pending : inFlightMessages) {
+                collectIfMatches(collected, pending, conversationId, after, before);
+            }
+        }
+    }
+
+    private static void collectIfMatches(Map<Long, ChatMessageBucket.Entry> collected, PendingMessage pending,
+                                         String conversationId, long after, long before) {
+        long messageId = pending.entry().getMessageId();
+        if (pending.conversationId().equals(conversationId) && messageId > after && messageId < before) {
+            collected.put(messageId, pending.entry());
+        }
+    }
+
+    /**
+     * 将待写入的消息按批写入 MongoDB
+     */
+    private void flush() {
+        while (!pendingMessages.isEmpty()) {
+            List<PendingMessage> batch = new ArrayList<>(batchSize);
+            synchronized (bufferLock) {
+                pendingMessages.drainTo(batch, batchSize);
+                inFlightMessages.addAll(batch);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (!write(batch)) {
+                // 写入失败时等下一个时间窗口再重试
+                return;
+            }
+        }
+    }
+
+    /**
+     * 写入一批消息，同一会话同一时间窗口的消息合并为一次 $push $each
+     *
+     * <p>调用前消息已放入在途集合，写入确认后移出；失败的消息先放回队首再移出在途集合。</p>
+     *
+     * @param batch 消息（按追加顺序）
+     * @return 是否全部写入成功
+     */
+    private boolean write(List<PendingMessage> batch) {
+        Map<String, List<PendingMessage>> groups = new LinkedHashMap<>();
+        for (PendingMessage pending : batch) {
+            groups.computeIfAbsent(pending.conversationId() + "|" + pending.bucketStart(), key -> new ArrayList<>())
+                    .add(pending);
+        }
+
+        List<List<PendingMessage>> chunks = new ArrayList<>();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ChatMessageBucket.class);
+        for (List<PendingMessage> group : groups.values()) {
+            for (int from = 0; from < group.size(); from += bucketSize) {
+                List<PendingMessage> chunk = group.subList(from, Math.min(from + bucketSize, group.size()));
+                chunks.add(chunk);
+                bulkOps.upsert(bucketQuery(chunk), bucketUpdate(chunk));
+            }
+        }
+
+        try {
+            bulkOps.execute();
+            log.debug("写入聊天消息: count={}, buckets={}", batch.size(), chunks.size());
+            complete(batch, List.of());
+            return true;
+        } catch (BulkOperationException e) {
+            // 有序写入在第一个失败处停止，之后的消息重新入队
+            int failedIndex = e.getErrors().isEmpty() ? 0 : e.getErrors().get(0).getIndex();
+            log.error("写入聊天消息部分失败: count={}, failedBucket={}, error={}",
+                    batch.size(), failedIndex, e.getMessage());
+            complete(batch, chunks.subList(failedIndex, chunks.size()));
+            return false;
+        } catch (RuntimeException e) {
+            log.error("写入聊天消息失败: count={}, error={}", batch.size(), e.getMessage());
+            complete(batch, chunks);
+            return false;
+        }
+    }
+
+    /**
+     * 结束一批写入：失败的消息放回队首，整批移出在途集合
+     */
+    private void complete(List<PendingMessage> batch, List<List<PendingMessage>> failedChunks) {
+        synchronized (bufferLock) {
+            requeue(failedChunks);
+            batch.forEach(inFlightMessages::remove);
+        }
+    }
+
+    private Query bucketQuery(List<PendingMessage> chunk) {
+        PendingMessage first = chunk.get(0);
+        // 只追加到还能容纳整批消息的桶，否则新建一个桶
+        return Query.query(Criteria.where("conversationId").is(first.conversationId())
+                .and("bucketStart").is(first.bucketStart())
+                .and("count").lte(bucketSize - chunk.size()));
+    }
+
+    private static Update bucketUpdate(List<PendingMessage> chunk) {
+        List<ChatMessageBucket.Entry> entries = new ArrayList<>(chunk.size());
+        long firstMessageId = Long.MAX_VALUE;
+        long lastMessageId = Long.MIN_VALUE;
+        for (PendingMessage pending : chunk) {
+            entries.add(pending.entry());
+            firstMessageId = Math.min(firstMessageId, pending.entry().getMessageId());
+            lastMessageId = Math.max(lastMessageId, pending.entry().getMessageId());
+        }
+        return new Update()
+                .push("messages").each(entries.toArray())
+                .inc("count", entries.size())
+                .min("firstMessageId", firstMessageId)
+                .max("lastMessageId", lastMessageId);
+    }
+
+    private void requeue(List<List<PendingMessage>> chunks) {
+        for (int i = chunks.size() - 1; i >= 0; i--) {
+            List<PendingMessage> chunk = chunks.get(i);
+            for (int j = chunk.size() - 1; j >= 0; j--) {
+                if (!pendingMessages.offerFirst(chunk.get(j))) {
+                    log.error("聊天消息重试队列已满，丢弃消息: messageId={}", chunk.get(j).entry().getMessageId());
+                }
+            }
+        }
+    }
+
+    private static void trim(NavigableMap<Long, ChatMessageBucket.Entry> collected, int size, boolean keepOldest) {
+        while (collected.size() > size) {
+            if (keepOldest) {
+                collected.pollLastEntry();
+            } else {
+                collected.pollFirstEntry();
+            }
+        }
+    }
+
+    private static ChatMessageBucket.Entry toEntry(UserMessage message) {
+        return ChatMessageBucket.Entry.builder()
+                .messageId(message.getMessageId())
+                .senderId(message.getSenderId())
+                .senderName(message.getSenderName())
+                .receiverId(message.getReceiverId())
+                .receiverName(message.getReceiverName())
+                .content(message.getContent())
+                .messageType(message.getMessageType())
+                .sentAt(message.getSentAt())
+                .build();
+    }
+
+    private static List<UserMessage> toMessages(NavigableMap<Long, ChatMessageBucket.Entry> collected) {
+        List<UserMessage> messages = new ArrayList<>(collected.size());
+        for (ChatMessageBucket.Entry entry : collected.values()) {
+            UserMessage message = new UserMessage();
+            message.setMessageId(entry.getMessageId());
+            message.setSenderId(entry.getSenderId());
+            message.setSenderName(entry.getSenderName());
+            message.setReceiverId(entry.getReceiverId());
+            message.setReceiverName(entry.getReceiverName());
+            message.setContent(entry.getContent());
+            message.setMessageType(entry.getMessageType());
+            message.setSentAt(entry.getSentAt());
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @Override
+    public void destroy() {
+        // 等待正在进行的定时写入结束，避免与最后一次写入并发
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("聊天消息写入线程未能按时结束: timeout={}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
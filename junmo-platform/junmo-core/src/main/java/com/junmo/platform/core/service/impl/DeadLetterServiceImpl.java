@@ -0,0 +1,225 @@
+package com.junmo.platform.core.service.impl;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.junmo.platform.api.dto.DeadLetterMessageVO;
+import com.junmo.platform.api.dto.DeadLetterReplayResult;
+import com.junmo.platform.common.exception.BusinessException;
+import com.junmo.platform.core.config.RabbitMQConfig;
+import com.junmo.platform.core.mq.DelayedRetryPublisher;
+import com.junmo.platform.core.mq.PublisherConfirmTracker;
+import com.junmo.platform.core.service.DeadLetterService;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 死信消息管理服务实现类
+ *
+ * 通过 basicGet 逐条拉取死信消息：匹配的消息处理后确认，不匹配或处理失败的消息在结束时统一重新入队，
+ * 因此单次操作不会重复扫描同一条消息。重放的消息只有在 Broker 确认后才从死信队列确认移除，
+ * 未被确认的消息保留在死信队列中
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterServiceImpl implements DeadLetterService {
+
+    /**
+     * 死信队列 -> 原业务队列
+     */
+    private static final Map<String, String> SOURCE_QUEUES = Map.of(
+            RabbitMQConfig.USER_CREATED_DLQ, RabbitMQConfig.USER_CREATED_QUEUE,
+            RabbitMQConfig.NOTIFICATION_DLQ, RabbitMQConfig.NOTIFICATION_QUEUE
+    );
+
+    private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final PublisherConfirmTracker publisherConfirmTracker;
+
+    @Override
+    public long countMessages(String deadLetterQueue) {
+        checkDeadLetterQueue(deadLetterQueue);
+        QueueInformation info = amqpAdmin.getQueueInfo(deadLetterQueue);
+        return info != null ? info.getMessageCount() : 0;
+    }
+
+    @Override
+    public List<DeadLetterMessageVO> inspectMessages(String deadLetterQueue, String keyword, int limit) {
+        checkDeadLetterQueue(deadLetterQueue);
+        return rabbitTemplate.execute(channel -> {
+            List<DeadLetterMessageVO> result = new ArrayList<>();
+            List<Long> deliveryTags = new ArrayList<>();
+            try {
+                for (int i = 0; i < limit; i++) {
+                    GetResponse response = channel.basicGet(deadLetterQueue, false);
+                    if (response == null) {
+                        break;
+                    }
+                    deliveryTags.add(response.getEnvelope().getDeliveryTag());
+                    Message message = toMessage(response);
+                    if (matches(message, keyword)) {
+                        result.add(toVO(deadLetterQueue, message));
+                    }
+                }
+            } finally {
+                requeue(channel, deliveryTags);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public DeadLetterReplayResult replayMessages(String deadLetterQueue, String keyword, int maxMessages,
+                                                 double permitsPerSecond) {
+        String sourceQueue = checkDeadLetterQueue(deadLetterQueue);
+        RateLimiter rateLimiter = RateLimiter.create(permitsPerSecond);
+        DeadLetterReplayResult result = drain(deadLetterQueue, keyword, maxMessages, message -> {
+            rateLimiter.acquire();
+            message.getMessageProperties().getHeaders().remove(RabbitMQConfig.RETRY_COUNT_HEADER);
+            // 通过默认交换机直接投递回原队列，确认后才移除死信
+            if (!publisherConfirmTracker.sendAndAwait("", sourceQueue, message)) {
+                throw new AmqpException("重放消息未被Broker确认: messageId="
+                        + message.getMessageProperties().getMessageId());
+            }
+        });
+        log.info("死信消息重放完成: queue={}, target={}, scanned={}, replayed={}, skipped={}, failed={}",
+                deadLetterQueue, sourceQueue, result.getScanned(), result.getProcessed(),
+                result.getSkipped(), result.getFailed());
+        return result;
+    }
+
+    @Override
+    public DeadLetterReplayResult discardMessages(String deadLetterQueue, String keyword, int maxMessages) {
+        checkDeadLetterQueue(deadLetterQueue);
+        DeadLetterReplayResult result = drain(deadLetterQueue, keyword, maxMessages, message -> {
+            log.info("丢弃死信消息: queue={}, messageId={}", deadLetterQueue,
+                    message.getMessageProperties().getMessageId());
+        });
+        log.info("死信消息丢弃完成: queue={}, scanned={}, discarded={}, skipped={}",
+                deadLetterQueue, result.getScanned(), result.getProcessed(), result.getSkipped());
+        return result;
+    }
+
+    /**
+     * 死信消息处理函数，抛出异常表示处理失败，消息保留在死信队列中
+     */
+    @FunctionalInterface
+    private interface DeadLetterHandler {
+
+        void handle(Message message);
+    }
+
+    /**
+     * 逐条拉取死信消息并处理，处理成功的消息确认移除
+     */
+    private DeadLetterReplayResult drain(String deadLetterQueue, String keyword, int maxMessages,
+                                         DeadLetterHandler handler) {
+        return rabbitTemplate.execute(channel -> {
+            DeadLetterReplayResult result = DeadLetterReplayResult.builder().queue(deadLetterQueue).build();
+            List<Long> retainedTags = new ArrayList<>();
+            try {
+                while (result.getScanned() < maxMessages) {
+                    GetResponse response = channel.basicGet(deadLetterQueue, false);
+                    if (response == null) {
+                        break;
+                    }
+                    result.setScanned(result.getScanned() + 1);
+                    long deliveryTag = response.getEnvelope().getDeliveryTag();
+                    Message message = toMessage(response);
+                    if (!matches(message, keyword)) {
+                        result.setSkipped(result.getSkipped() + 1);
+                        retainedTags.add(deliveryTag);
+                        continue;
+                    }
+                    try {
+                        handler.handle(message);
+                        channel.basicAck(deliveryTag, false);
+                        result.setProcessed(result.getProcessed() + 1);
+                    } catch (AmqpException e) {
+                        log.error("处理死信消息失败: queue={}, deliveryTag={}, error={}",
+                                deadLetterQueue, deliveryTag, e.getMessage());
+                        result.setFailed(result.getFailed() + 1);
+                        retainedTags.add(deliveryTag);
+                    }
+                }
+            } finally {
+                requeue(channel, retainedTags);
+            }
+            return result;
+        });
+    }
+
+    private String checkDeadLetterQueue(String deadLetterQueue) {
+        String sourceQueue = SOURCE_QUEUES.get(deadLetterQueue);
+        if (sourceQueue == null) {
+            throw new BusinessException("不支持的死信队列: " + deadLetterQueue);
+        }
+        return sourceQueue;
+    }
+
+    private void requeue(Channel channel, List<Long> deliveryTags) throws IOException {
+        for (Long deliveryTag : deliveryTags) {
+            channel.basicNack(deliveryTag, false, true);
+        }
+    }
+
+    private Message toMessage(GetResponse response) {
+        MessageProperties properties = PROPERTIES_CONVERTER.toMessageProperties(
+                response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+        return new Message(response.getBody(), properties);
+    }
+
+    private boolean matches(Message message, String keyword) {
+        return !StringUtils.hasText(keyword)
+                || new String(message.getBody(), StandardCharsets.UTF_8).contains(keyword);
+    }
+
+    private DeadLetterMessageVO toVO(String deadLetterQueue, Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        DeadLetterMessageVO vo = DeadLetterMessageVO.builder()
+                .messageId(properties.getMessageId())
+                .queue(deadLetterQueue)
+                .originalQueue(properties.getHeader("x-first-death-queue"))
+                .reason(properties.getHeader("x-first-death-reason"))
+                .retryCount(DelayedRetryPublisher.getRetryCount(message))
+                .body(new String(message.getBody(), StandardCharsets.UTF_8))
+                .build();
+        List<Map<String, ?>> xDeath = properties.getXDeathHeader();
+        if (xDeath != null && !xDeath.isEmpty()) {
+            Map<String, ?> latest = xDeath.get(0);
+            vo.setReason(String.valueOf(latest.get("reason")));
+            if (latest.get("count") instanceof Number count) {
+                vo.setDeathCount(count.longValue());
+            }
+            if (latest.get("time") instanceof Date time) {
+                vo.setDeathTime(LocalDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault()));
+            }
+        }
+        return vo;
+    }
+}
@@ -1,23 +1,35 @@
 package com.junmo.platform.core.service.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.junmo.platform.api.dto.UserCreateDTO;
 import com.junmo.platform.api.enums.UserStatus;
 import com.junmo.platform.model.entity.User;
-import com.junmo.platform.model.mapper.UserMapper;
 import com.junmo.platform.core.service.UserMapperReactiveService;
-import lombok.RequiredArgsConstructor;
+import com.junmo.platform.core.service.UserUniquenessFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
 
 /**
- * 用户响应式服务实现类（基于MyBatis-Plus）
+ * 用户响应式服务实现类（基于R2DBC）
  *
  * <p>专门处理响应式编程相关的用户操作，包括：
  * <ul>
@@ -27,23 +39,60 @@ import java.util.List;
  * </ul>
  * </p>
  *
- * <p>注意：此实现类使用MyBatis-Plus进行数据访问，与UserReactiveService（基于R2DBC）不同</p>
+ * <p>所有数据访问都通过 {@link R2dbcEntityTemplate} 完成，不会阻塞订阅线程（包括 WebFlux 的 Netty 事件循环线程）。
+ * 查询条件与 MyBatis-Plus 保持一致：自动排除逻辑删除的用户（变更流除外）；新用户ID使用与 MyBatis-Plus ASSIGN_ID 相同的
+ * {@link IdWorker} 生成，创建时间、更新时间、删除标记、版本号按 MybatisPlusConfig 的填充规则设置。</p>
+ *
+ * <p>全表查询按ID键集分页，每页 {@code r2dbc.user.page-size} 行，下游请求数据时才查询下一页，内存中最多保留一页；
+ * 流式查询是变更流：按 {@code r2dbc.user.stream-interval} 轮询订阅之后 updated_at 发生变化的用户，
+ * 不再重复发出整张表，下游处理不过来时丢弃轮询节拍而不是堆积。逻辑删除同样是变更，
+ * 以 deleted = 1 的用户发出，下游据此移除。updated_at 只精确到秒，且事务提交时间晚于
+ * updated_at，因此每次轮询从已发出的最大更新时间回退 {@code r2dbc.user.stream-overlap} 重新扫描，
+ * 按用户ID、版本号和更新时间去重。</p>
  *
  * @author junmo-platform
- * @version 1.0.0
+ * @version 2.0.0
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class UserMapperReactiveServiceImpl implements UserMapperReactiveService {
 
-    private final UserMapper userMapper;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    private final UserUniquenessFilter userUniquenessFilter;
+
+    private final int pageSize;
+
+    private final long streamIntervalMillis;
+
+    private final long streamDurationMillis;
+
+    private final long streamOverlapMillis;
+
+    public UserMapperReactiveServiceImpl(
+            R2dbcEntityTemplate r2dbcEntityTemplate,
+            UserUniquenessFilter userUniquenessFilter,
+            @Value("${r2dbc.user.page-size:500}") int pageSize,
+            @Value("${r2dbc.user.stream-interval:1000}") long streamIntervalMillis,
+            @Value("${r2dbc.user.stream-duration:300000}") long streamDurationMillis,
+            @Value("${r2dbc.user.stream-overlap:2000}") long streamOverlapMillis) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.userUniquenessFilter = userUniquenessFilter;
+        this.pageSize = pageSize;
+        this.streamIntervalMillis = streamIntervalMillis;
+        this.streamDurationMillis = streamDurationMillis;
+        this.streamOverlapMillis = streamOverlapMillis;
+    }
 
     @Override
     public Flux<User> listUsersReactive() {
-        log.debug("响应式查询所有用户");
-        return Flux.defer(() -> Flux.fromIterable(userMapper.selectList(null)))
-                .timeout(Duration.ofSeconds(30))
+        log.debug("响应式查询所有用户: pageSize={}", pageSize);
+        return fetchPage(notDeleted(), null)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : fetchPage(notDeleted(), page.get(page.size() - 1).getId()))
+                // 逐行向下游请求，不预取下一页
+                .concatMapIterable(Function.identity(), 1)
                 .onErrorResume(throwable -> {
                     log.error("响应式查询所有用户失败", throwable);
                     return Flux.empty();
@@ -53,7 +102,7 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
     @Override
     public Mono<User> getUserByIdReactive(Long id) {
         log.debug("响应式根据ID查询用户: {}", id);
-        return Mono.fromCallable(() -> userMapper.selectById(id))
+        return findOne(where("id").is(id))
                 .timeout(Duration.ofSeconds(10))
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("用户不存在: " + id)))
                 .onErrorResume(throwable -> {
@@ -65,7 +114,7 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
     @Override
     public Mono<User> getUserByUsernameReactive(String username) {
         log.debug("响应式根据用户名查询用户: {}", username);
-        return Mono.fromCallable(() -> userMapper.findByUsername(username).orElse(null))
+        return findOne(where("username").is(username))
                 .timeout(Duration.ofSeconds(10))
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("用户不存在: " + username)))
                 .onErrorResume(throwable -> {
@@ -77,7 +126,7 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
     @Override
     public Mono<User> getUserByEmailReactive(String email) {
         log.debug("响应式根据邮箱查询用户: {}", email);
-        return Mono.fromCallable(() -> userMapper.findByEmail(email).orElse(null))
+        return findOne(where("email").is(email))
                 .timeout(Duration.ofSeconds(10))
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("用户不存在: " + email)))
                 .onErrorResume(throwable -> {
@@ -89,7 +138,9 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
     @Override
     public Flux<User> getUsersByStatusReactive(Integer status) {
         log.debug("响应式根据状态查询用户列表: {}", status);
-        return Flux.defer(() -> Flux.fromIterable(userMapper.findByStatus(status)))
+        return r2dbcEntityTemplate.select(User.class)
+                .matching(query(where("status").is(status).and(notDeleted())))
+                .all()
                 .timeout(Duration.ofSeconds(30))
                 .onErrorResume(throwable -> {
                     log.error("响应式根据状态查询用户列表失败: {}", status, throwable);
@@ -98,12 +149,16 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public Mono<User> createUserReactive(UserCreateDTO dto) {
         log.info("响应式创建用户: {}", dto.getUsername());
 
         return validateUserCreateDTO(dto)
                 .then(Mono.defer(() -> insertUser(dto)))
+                // 检查与插入之间并发注册的同名用户由唯一索引拦截
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new IllegalArgumentException("用户名或邮箱已存在: " + dto.getUsername(), e))
+                .flatMap(savedUser -> userUniquenessFilter.record(savedUser.getUsername(), savedUser.getEmail())
+                        .thenReturn(savedUser))
                 .timeout(Duration.ofSeconds(30))
                 .doOnSuccess(savedUser -> handleCreateSuccess(savedUser))
                 .doOnError(throwable -> log.error("响应式创建用户失败: {}", dto.getUsername(), throwable));
@@ -112,7 +167,7 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
     @Override
     public Mono<Long> countByStatusReactive(Integer status) {
         log.debug("响应式统计指定状态的用户数量: {}", status);
-        return Mono.fromCallable(() -> userMapper.countByStatus(status))
+        return r2dbcEntityTemplate.count(query(where("status").is(status).and(notDeleted())), User.class)
                 .timeout(Duration.ofSeconds(10))
                 .onErrorResume(throwable -> {
                     log.error("响应式统计用户数量失败: {}", status, throwable);
@@ -122,40 +177,168 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
 
     @Override
     public Flux<User> streamUsersReactive() {
-        log.debug("响应式流式查询用户数据");
-        return Flux.interval(Duration.ofSeconds(1))
-                .flatMap(tick -> listUsersReactive())
-                .timeout(Duration.ofMinutes(5))
+        log.debug("响应式流式查询用户变更: interval={}ms", streamIntervalMillis);
+        return Flux.defer(() -> {
+                    // updated_at 精确到秒，订阅时间同样取整，避免漏掉订阅当秒内的更新
+                    ChangeWindow window = new ChangeWindow(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                            Duration.ofMillis(streamOverlapMillis));
+                    return Flux.interval(Duration.ofMillis(streamIntervalMillis))
+                            .onBackpressureDrop()
+                            .concatMap(tick -> fetchChanges(window.scanFrom())
+                                    .expand(page -> page.size() < pageSize
+                                            ? Mono.empty()
+                                            : fetchChanges(ChangeCursor.after(page)))
+                                    .concatMapIterable(Function.identity(), 1)
+                                    .filter(window::firstSeen)
+                                    .doOnComplete(window::prune), 1);
+                })
+                .take(Duration.ofMillis(streamDurationMillis))
                 .onErrorResume(throwable -> {
-                    log.error("响应式流式查询用户数据失败", throwable);
+                    log.error("响应式流式查询用户变更失败", throwable);
                     return Flux.empty();
                 });
     }
 
+    /**
+     * 未逻辑删除条件
+     */
+    private static Criteria notDeleted() {
+        return where("deleted").is(0);
+    }
+
+    /**
+     * 按ID键集分页读取一页用户，每页只在下游请求时才查询
+     *
+     * @param criteria 查询条件
+     * @param afterId  上一页最后一个用户ID，首页为空
+     * @return 一页用户
+     */
+    private Mono<List<User>> fetchPage(Criteria criteria, Long afterId) {
+        Criteria pageCriteria = afterId != null ? criteria.and(where("id").greaterThan(afterId)) : criteria;
+        return r2dbcEntityTemplate.select(User.class)
+                .matching(query(pageCriteria).sort(Sort.by("id")).limit(pageSize))
+                .all()
+                .collectList()
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    /**
+     * 读取游标之后更新的一页用户，按 (updated_at, id) 排序
+     *
+     * <p>包括逻辑删除的用户（逻辑删除会更新 updated_at），下游按 deleted 标记区分。</p>
+     *
+     * @param cursor 变更游标
+     * @return 一页用户
+     */
+    private Mono<List<User>> fetchChanges(ChangeCursor cursor) {
+        Criteria changed = where("updatedAt").greaterThan(cursor.updatedAt())
+                .or(where("updatedAt").is(cursor.updatedAt()).and("id").greaterThan(cursor.id()));
+        return r2dbcEntityTemplate.select(User.class)
+                .matching(query(changed).sort(Sort.by("updatedAt", "id")).limit(pageSize))
+                .all()
+                .collectList()
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    /**
+     * 变更流游标：已读取的最后一行的更新时间和ID
+     */
+    private record ChangeCursor(LocalDateTime updatedAt, Long id) {
+
+        static ChangeCursor after(List<User> page) {
+            User last = page.get(page.size() - 1);
+            return new ChangeCursor(last.getUpdatedAt(), last.getId());
+        }
+    }
+
+    /**
+     * 变更流扫描窗口（只在一个订阅内按轮询顺序访问）
+     *
+     * <p>每次轮询从 max(订阅时间, 已发出的最大更新时间 - 重叠时间) 开始扫描，
+     * 重叠窗口内已发出的行按 (ID, 版本号, 更新时间, 删除标记) 去重，窗口之外的记录随之清理。
+     * 逻辑删除不递增版本号，且可能与上一次更新落在同一秒，因此删除标记也是去重键的一部分。</p>
+     */
+    private static final class ChangeWindow {
+
+        private final LocalDateTime subscribedAt;
+
+        private final Duration overlap;
+
+        private final Map<Long, EmittedVersion> emitted = new HashMap<>();
+
+        private LocalDateTime maxUpdatedAt;
+
+        ChangeWindow(LocalDateTime subscribedAt, Duration overlap) {
+            this.subscribedAt = subscribedAt;
+            this.overlap = overlap;
+            this.maxUpdatedAt = subscribedAt;
+        }
+
+        ChangeCursor scanFrom() {
+            LocalDateTime from = maxUpdatedAt.minus(overlap);
+            return new ChangeCursor(from.isBefore(subscribedAt) ? subscribedAt : from, 0L);
+        }
+
+        boolean firstSeen(User user) {
+            EmittedVersion current = new EmittedVersion(user.getVersion(), user.getUpdatedAt(), user.getDeleted());
+            if (current.equals(emitted.put(user.getId(), current))) {
+                return false;
+            }
+            if (user.getUpdatedAt() != null && user.getUpdatedAt().isAfter(maxUpdatedAt)) {
+                maxUpdatedAt = user.getUpdatedAt();
+            }
+            return true;
+        }
+
+        void prune() {
+            LocalDateTime from = scanFrom().updatedAt();
+            emitted.values().removeIf(version -> version.updatedAt() == null || version.updatedAt().isBefore(from));
+        }
+
+        private record EmittedVersion(Integer version, LocalDateTime updatedAt, Integer deleted) {
+        }
+    }
+
+    private Mono<User> findOne(Criteria criteria) {
+        return r2dbcEntityTemplate.selectOne(query(criteria.and(notDeleted())), User.class);
+    }
+
     /**
      * 验证用户创建DTO
+     * 布隆过滤器判定用户名、邮箱一定未占用时跳过数据库检查，否则用一条查询同时检查两者
      *
      * @param dto 用户创建DTO
      * @return 验证通过的Mono
      */
     private Mono<Void> validateUserCreateDTO(UserCreateDTO dto) {
-        return Mono.zip(
-                Mono.fromCallable(() -> userMapper.existsByUsername(dto.getUsername())),
-                Mono.fromCallable(() -> userMapper.existsByEmail(dto.getEmail()))
-        ).flatMap(tuple -> {
-            boolean usernameExists = tuple.getT1();
-            boolean emailExists = tuple.getT2();
-
-            if (usernameExists) {
-                return Mono.error(new IllegalArgumentException("用户名已存在: " + dto.getUsername()));
-            }
+        return userUniquenessFilter.mightExist(dto.getUsername(), dto.getEmail())
+                .filter(Boolean::booleanValue)
+                .flatMapMany(mightExist -> {
+                    Criteria taken = dto.getEmail() != null
+                            ? where("username").is(dto.getUsername()).or("email").is(dto.getEmail())
+                            : where("username").is(dto.getUsername());
+                    return r2dbcEntityTemplate.select(User.class)
+                            .matching(query(notDeleted().and(taken)).columns("username", "email").limit(2))
+                            .all();
+                })
+                .collectList()
+                .flatMap(takenUsers -> {
+                    // sys_user 的排序规则不区分大小写
+                    boolean usernameExists = takenUsers.stream()
+                            .anyMatch(user -> dto.getUsername().equalsIgnoreCase(user.getUsername()));
+                    boolean emailExists = dto.getEmail() != null && takenUsers.stream()
+                            .anyMatch(user -> dto.getEmail().equalsIgnoreCase(user.getEmail()));
 
-            if (emailExists) {
-                return Mono.error(new IllegalArgumentException("邮箱已存在: " + dto.getEmail()));
-            }
+                    if (usernameExists) {
+                        return Mono.error(new IllegalArgumentException("用户名已存在: " + dto.getUsername()));
+                    }
 
-            return Mono.empty();
-        });
+                    if (emailExists) {
+                        return Mono.error(new IllegalArgumentException("邮箱已存在: " + dto.getEmail()));
+                    }
+
+                    return Mono.empty();
+                });
     }
 
     /**
@@ -165,15 +348,16 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
      * @return 插入的用户Mono
      */
     private Mono<User> insertUser(UserCreateDTO dto) {
-        return Mono.fromCallable(() -> {
-            User user = new User();
-            BeanUtils.copyProperties(dto, user);
-            if (user.getStatus() == null) {
-                user.setStatus(UserStatus.ACTIVE.getValue());
-            }
-            userMapper.insert(user);
-            return user;
-        });
+        User user = new User();
+        BeanUtils.copyProperties(dto, user);
+        LocalDateTime now = LocalDateTime.now();
+        user.setId(IdWorker.getId());
+        user.setStatus(dto.getStatus() != null ? dto.getStatus().getValue() : UserStatus.ACTIVE.getValue());
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        user.setDeleted(0);
+        user.setVersion(0);
+        return r2dbcEntityTemplate.insert(user);
     }
 
     /**
@@ -188,4 +372,4 @@ public class UserMapperReactiveServiceImpl implements UserMapperReactiveService
             log.error("响应式创建用户失败");
         }
     }
-}
\ No newline at end of file
+}
@@ -1,38 +1,76 @@
 package com.junmo.platform.core.service.impl;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.FiltersBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.junmo.platform.api.dto.CursorPage;
+import com.junmo.platform.api.dto.UserBriefVO;
+import com.junmo.platform.api.dto.UserStatsVO;
+import com.junmo.platform.common.exception.BusinessException;
 import com.junmo.platform.model.document.UserDocument;
 import com.junmo.platform.model.entity.User;
+import com.junmo.platform.model.mapper.UserMapper;
 import com.junmo.platform.model.repository.elasticsearch.UserDocumentRepository;
+import com.junmo.platform.core.service.UserIndexQueue;
+import com.junmo.platform.core.service.UserIndexRebuilder;
+import com.junmo.platform.core.service.UserSearchCache;
 import com.junmo.platform.core.service.UserSearchService;
-import com.junmo.platform.core.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * 用户搜索服务实现类
  *
+ * 索引写入（索引、同步、删除）经 {@link UserIndexQueue} 合并后批量写入，数秒内可见；
+ * 全量重建由 {@link UserIndexRebuilder} 写入新版本索引后切换别名，重建期间搜索不受影响；
+ * 深分页和导出使用时间点快照（PIT）+ search_after，每页耗时与页码无关；
+ * 高级搜索结果经 {@link UserSearchCache} 短时缓存，纯过滤查询走过滤上下文并使用分片请求缓存；
+ * 列表页使用 {@link #advancedSearchBrief}，只取列表字段的 _source
+ *
  * @author junmo-platform
  * @version 1.0.0
  */
@@ -42,69 +80,92 @@ import java.util.stream.Collectors;
 public class UserSearchServiceImpl implements UserSearchService {
 
     private final UserDocumentRepository userDocumentRepository;
-    private final UserService userService;
     private final ElasticsearchOperations elasticsearchOperations;
     private final ElasticsearchClient elasticsearchClient;
+    private final UserIndexQueue userIndexQueue;
+    private final UserIndexRebuilder userIndexRebuilder;
+    private final UserSearchCache userSearchCache;
+    private final ObjectMapper objectMapper;
+    private final UserMapper userMapper;
+
+    /**
+     * from/size 分页的最大深度（与索引 max_result_window 一致），更深的分页使用游标搜索
+     */
+    private static final int MAX_RESULT_WINDOW = 10000;
+
+    /**
+     * 列表视图需要的 _source 字段
+     */
+    private static final List<String> BRIEF_FIELDS =
+            List.of("userId", "username", "realName", "email", "avatar", "status", "deptId");
+
+    /**
+     * 联想前缀最大长度（与 prefix 子字段的 max_gram 一致）
+     */
+    private static final int SUGGEST_MAX_PREFIX_LENGTH = 20;
+
+    private static final int STATS_STATUS_BUCKETS = 20;
+
+    private static final String STATS_SOURCE_ELASTICSEARCH = "elasticsearch";
+
+    private static final String STATS_SOURCE_DATABASE = "database";
+
+    /**
+     * 与 createdAt、updatedAt 字段的 date_hour_minute_second 格式一致
+     */
+    private static final DateTimeFormatter STATS_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * 用户统计返回的部门数上限（按用户数降序）
+     */
+    @Value("${elasticsearch.search.stats-dept-buckets:100}")
+    private int statsDeptBuckets;
+
+    /**
+     * 游标搜索每页最大数量
+     */
+    @Value("${elasticsearch.search.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * 输入联想最大返回数量
+     */
+    @Value("${elasticsearch.search.suggest-max-limit:20}")
+    private int suggestMaxLimit;
+
+    /**
+     * 游标搜索时间点快照的保活时间（毫秒，每读取一页续期一次）
+     */
+    @Value("${elasticsearch.search.pit-keep-alive:60000}")
+    private long pitKeepAliveMillis;
 
     @Override
     public void indexUser(Long userId) {
-        User user = userService.getById(userId);
-        if (user != null) {
-            UserDocument document = UserDocument.fromUser(user);
-            userDocumentRepository.save(document);
-            log.info("索引用户成功: userId={}", userId);
-        } else {
-            log.warn("用户不存在，无法索引: userId={}", userId);
-        }
+        userIndexQueue.enqueueIndex(userId);
+        log.debug("用户加入索引队列: userId={}", userId);
     }
 
     @Override
     public void indexUsers(List<Long> userIds) {
-        List<User> users = userService.listByIds(userIds);
-        List<UserDocument> documents = users.stream()
-                .map(UserDocument::fromUser)
-                .collect(Collectors.toList());
-        userDocumentRepository.saveAll(documents);
-        log.info("批量索引用户成功: count={}", documents.size());
+        userIds.forEach(userIndexQueue::enqueueIndex);
+        log.info("批量用户加入索引队列: count={}", userIds.size());
     }
 
     @Override
     public void rebuildIndex() {
-        log.info("开始重建用户索引");
-
-        // 删除所有索引
-        userDocumentRepository.deleteAll();
-
-        // 重新索引所有用户
-        List<User> users = userService.list();
-        List<UserDocument> documents = users.stream()
-                .map(UserDocument::fromUser)
-                .collect(Collectors.toList());
-        userDocumentRepository.saveAll(documents);
-
-        log.info("重建用户索引完成: count={}", documents.size());
+        userIndexRebuilder.rebuild();
     }
 
     @Override
     public void deleteUserIndex(Long userId) {
-        UserDocument document = userDocumentRepository.findByUserId(userId);
-        if (document != null) {
-            userDocumentRepository.delete(document);
-            log.info("删除用户索引成功: userId={}", userId);
-        }
+        userIndexQueue.enqueueDelete(userId);
+        log.debug("用户加入索引删除队列: userId={}", userId);
     }
 
     @Override
     public void deleteUserIndexes(List<Long> userIds) {
-        List<UserDocument> documents = new ArrayList<>();
-        for (Long userId : userIds) {
-            UserDocument document = userDocumentRepository.findByUserId(userId);
-            if (document != null) {
-                documents.add(document);
-            }
-        }
-        userDocumentRepository.deleteAll(documents);
-        log.info("批量删除用户索引成功: count={}", documents.size());
+        userIndexQueue.enqueueDeletes(userIds);
+        log.info("批量删除用户索引: count={}", userIds.size());
     }
 
     @Override
@@ -117,10 +178,400 @@ public class UserSearchServiceImpl implements UserSearchService {
 
     @Override
     public Page<UserDocument> advancedSearch(String keyword, Integer status, String deptId, Pageable pageable) {
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new BusinessException("SEARCH_PAGE_TOO_DEEP", "分页过深，请使用游标搜索");
+        }
+
+        String normalizedKeyword = hasKeyword(keyword) ? keyword.trim().replaceAll("\\s+", " ") : null;
+        String queryShape = "advanced|" + normalizedKeyword + "|" + status + "|" + deptId + "|"
+                + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort();
+        return userSearchCache.get(queryShape, status, deptId, () -> doAdvancedSearch(normalizedKeyword, status, deptId, pageable));
+    }
+
+    private Page<UserDocument> doAdvancedSearch(String keyword, Integer status, String deptId, Pageable pageable) {
+        // 构建查询
+        NativeQueryBuilder queryBuilder = new NativeQueryBuilder()
+                .withQuery(buildAdvancedQuery(keyword, status, deptId))
+                .withPageable(pageable);
+        if (!hasKeyword(keyword)) {
+            // 纯过滤查询不计算相关度，结果只随索引刷新变化，显式开启分片请求缓存（size > 0 时默认不缓存）
+            queryBuilder.withRequestCache(true);
+            if (pageable.getSort().isUnsorted()) {
+                queryBuilder.withSort(sort -> sort.field(field -> field.field("userId").order(SortOrder.Asc)));
+            }
+        }
+
+        // 执行查询
+        SearchHits<UserDocument> searchHits = elasticsearchOperations.search(queryBuilder.build(), UserDocument.class);
+
+        // 转换结果
+        List<UserDocument> documents = searchHits.getSearchHits().stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(documents, pageable, searchHits.getTotalHits());
+    }
+
+    @Override
+    public Page<UserBriefVO> advancedSearchBrief(String keyword, Integer status, String deptId, Pageable pageable) {
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new BusinessException("SEARCH_PAGE_TOO_DEEP", "分页过深，请使用游标搜索");
+        }
+        String normalizedKeyword = hasKeyword(keyword) ? keyword.trim().replaceAll("\\s+", " ") : null;
+        String queryShape = "brief|" + normalizedKeyword + "|" + status + "|" + deptId + "|"
+                + pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort();
+        return userSearchCache.get(queryShape, status, deptId, () -> doAdvancedSearchBrief(normalizedKeyword, status, deptId, pageable));
+    }
+
+    /**
+     * 只取列表字段的 _source，直接从 Map 构造视图对象，不经过实体映射
+     */
+    @SuppressWarnings("rawtypes")
+    private Page<UserBriefVO> doAdvancedSearchBrief(String keyword, Integer status, String deptId, Pageable pageable) {
+        boolean filterOnly = !hasKeyword(keyword);
+        SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
+                .index(userIndex().getIndexName())
+                .query(buildAdvancedQuery(keyword, status, deptId))
+                .from((int) pageable.getOffset())
+                .size(pageable.getPageSize())
+                .source(source -> source.filter(filter -> filter.includes(BRIEF_FIELDS)))
+                .requestCache(filterOnly);
+        for (Sort.Order order : pageable.getSort()) {
+            requestBuilder.sort(sort -> sort.field(field -> field.field(order.getProperty())
+                    .order(order.isAscending() ? SortOrder.Asc : SortOrder.Desc)));
+        }
+        if (filterOnly && pageable.getSort().isUnsorted()) {
+            requestBuilder.sort(sort -> sort.field(field -> field.field("userId").order(SortOrder.Asc)));
+        }
+
+        SearchResponse<Map> response = searchSource(requestBuilder.build());
+        List<UserBriefVO> content = toBriefs(response);
+        long total = response.hits().total() != null ? response.hits().total().value() : content.size();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public List<UserBriefVO> suggestUsers(String prefix, int limit) {
+        if (!hasKeyword(prefix)) {
+            return List.of();
+        }
+        String normalized = prefix.trim().toLowerCase(Locale.ROOT);
+        if (normalized.length() > SUGGEST_MAX_PREFIX_LENGTH) {
+            normalized = normalized.substring(0, SUGGEST_MAX_PREFIX_LENGTH);
+        }
+        String term = normalized;
+        int size = Math.max(1, Math.min(limit, suggestMaxLimit));
+        // 逐键调用，只用本地缓存，不为每次按键访问 Redis
+        return userSearchCache.getLocal("suggest|" + term + "|" + size, () -> doSuggestUsers(term, size));
+    }
+
+    /**
+     * 在 prefix 子字段上做精确词项匹配：索引时已展开为边缘 n-gram，查询时不再分词、不做模糊匹配
+     */
+    @SuppressWarnings("rawtypes")
+    private List<UserBriefVO> doSuggestUsers(String term, int limit) {
+        SearchRequest request = SearchRequest.of(s -> s
+                .index(userIndex().getIndexName())
+                .query(q -> q.bool(b -> b
+                        .should(sh -> sh.term(t -> t.field("username.prefix").value(term).boost(2.0f)))
+                        .should(sh -> sh.term(t -> t.field("realName.prefix").value(term)))
+                        .minimumShouldMatch("1")
+                        .filter(f -> f.term(t -> t.field("deleted").value(0)))))
+                .size(limit)
+                .trackTotalHits(t -> t.enabled(false))
+                .source(source -> source.filter(filter -> filter.includes(BRIEF_FIELDS)))
+                .sort(sort -> sort.score(score -> score.order(SortOrder.Desc)))
+                .sort(sort -> sort.field(field -> field.field("userId").order(SortOrder.Asc))));
+        return toBriefs(searchSource(request));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private SearchResponse<Map> searchSource(SearchRequest request) {
+        try {
+            return elasticsearchClient.search(request, Map.class);
+        } catch (IOException e) {
+            throw new BusinessException("SEARCH_FAILED", "搜索用户失败: " + e.getMessage(), e, 500);
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static List<UserBriefVO> toBriefs(SearchResponse<Map> response) {
+        List<UserBriefVO> briefs = new ArrayList<>(response.hits().hits().size());
+        for (Hit<Map> hit : response.hits().hits()) {
+            Map<String, Object> source = hit.source();
+            if (source != null) {
+                briefs.add(toBrief(source));
+            }
+        }
+        return briefs;
+    }
+
+    private static UserBriefVO toBrief(Map<String, Object> source) {
+        return UserBriefVO.builder()
+                .id(source.get("userId") instanceof Number userId ? userId.longValue() : null)
+                .username((String) source.get("username"))
+                .realName((String) source.get("realName"))
+                .email((String) source.get("email"))
+                .avatar((String) source.get("avatar"))
+                .status(source.get("status") instanceof Number value ? value.intValue() : null)
+                .deptId((String) source.get("deptId"))
+                .build();
+    }
+
+    @Override
+    public UserStatsVO getUserStats() {
+        return userSearchCache.get("stats", () -> {
+            try {
+                return aggregateUserStats();
+            } catch (IOException | ElasticsearchException e) {
+                log.warn("Elasticsearch 用户统计失败，改为查询数据库: error={}", e.getMessage());
+                return countUserStatsFromDatabase();
+            }
+        });
+    }
+
+    /**
+     * 一次 size=0 请求完成全部统计：命中总数 + 状态、部门 terms 聚合 + 新增、活跃 filters 聚合 + 每日新增 date_histogram
+     */
+    private UserStatsVO aggregateUserStats() throws IOException {
+        StatsWindow window = StatsWindow.now();
+        Query active = Query.of(q -> q.term(t -> t.field("status").value(1)));
+        SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                .index(userIndex().getIndexName())
+                .size(0)
+                .trackTotalHits(t -> t.enabled(true))
+                .requestCache(true)
+                .query(q -> q.bool(b -> b.filter(f -> f.term(t -> t.field("deleted").value(0)))))
+                .aggregations("by_status", a -> a.terms(t -> t.field("status").size(STATS_STATUS_BUCKETS)))
+                .aggregations("by_dept", a -> a.terms(t -> t.field("deptId").size(statsDeptBuckets)))
+                .aggregations("created", a -> a.filters(f -> f.filters(b -> b.keyed(Map.of(
+                        "today", since("createdAt", window.todayStart()),
+                        "week", since("createdAt", window.weekStart()),
+                        "month", since("createdAt", window.monthStart()))))))
+                .aggregations("active", a -> a.filters(f -> f.filters(b -> b.keyed(Map.of(
+                        "day", activeSince(active, window.dayAgo()),
+                        "week", activeSince(active, window.weekStart()),
+                        "month", activeSince(active, window.thirtyDaysAgo()))))))
+                .aggregations("recent", a -> a
+                        .filter(since("createdAt", window.thirtyDaysAgo()))
+                        .aggregations("per_day", sub -> sub.dateHistogram(d -> d
+                                .field("createdAt")
+                                .calendarInterval(CalendarInterval.Day)
+                                .format("yyyy-MM-dd")))),
+                Void.class);
+
+        Map<String, Aggregate> aggregations = response.aggregations();
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        for (LongTermsBucket bucket : aggregations.get("by_status").lterms().buckets().array()) {
+            statusCounts.put((int) bucket.key(), bucket.docCount());
+        }
+        Map<String, Long> deptCounts = new LinkedHashMap<>();
+        for (StringTermsBucket bucket : aggregations.get("by_dept").sterms().buckets().array()) {
+            deptCounts.put(bucket.key().stringValue(), bucket.docCount());
+        }
+        Map<String, FiltersBucket> created = aggregations.get("created").filters().buckets().keyed();
+        Map<String, FiltersBucket> activeBuckets = aggregations.get("active").filters().buckets().keyed();
+        Map<LocalDate, Long> dailyCreated = new TreeMap<>();
+        for (DateHistogramBucket bucket : aggregations.get("recent").filter().aggregations()
+                .get("per_day").dateHistogram().buckets().array()) {
+            dailyCreated.put(LocalDate.parse(bucket.keyAsString()), bucket.docCount());
+        }
+
+        return UserStatsVO.builder()
+                .source(STATS_SOURCE_ELASTICSEARCH)
+                .totalCount(response.hits().total() != null ? response.hits().total().value() : 0)
+                .todayCount(created.get("today").docCount())
+                .weekCount(created.get("week").docCount())
+                .monthCount(created.get("month").docCount())
+                .dailyActiveCount(activeBuckets.get("day").docCount())
+                .weeklyActiveCount(activeBuckets.get("week").docCount())
+                .monthlyActiveCount(activeBuckets.get("month").docCount())
+                .statusCounts(statusCounts)
+                .deptCounts(deptCounts)
+                .dailyCreatedCounts(dailyCreated)
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Elasticsearch 不可用时的数据库统计（与聚合口径一致，按状态、部门、日期分组各一次查询）
+     */
+    private UserStatsVO countUserStatsFromDatabase() {
+        StatsWindow window = StatsWindow.now();
+
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        for (Map<String, Object> row : userMapper.selectMaps(new QueryWrapper<User>()
+                .select("status", "COUNT(*) AS cnt")
+                .groupBy("status"))) {
+            if (row.get("status") != null) {
+                statusCounts.put(((Number) row.get("status")).intValue(), ((Number) row.get("cnt")).longValue());
+            }
+        }
+        Map<String, Long> deptCounts = new LinkedHashMap<>();
+        for (Map<String, Object> row : userMapper.selectMaps(new QueryWrapper<User>()
+                .select("dept_id AS deptId", "COUNT(*) AS cnt")
+                .isNotNull("dept_id")
+                .groupBy("dept_id")
+                .orderByDesc("cnt")
+                .last("LIMIT " + statsDeptBuckets))) {
+            deptCounts.put(String.valueOf(row.get("deptId")), ((Number) row.get("cnt")).longValue());
+        }
+        Map<LocalDate, Long> dailyCreated = new TreeMap<>();
+        for (Map<String, Object> row : userMapper.selectMaps(new QueryWrapper<User>()
+                .select("DATE(created_at) AS day", "COUNT(*) AS cnt")
+                .ge("created_at", window.thirtyDaysAgo())
+                .groupBy("DATE(created_at)"))) {
+            dailyCreated.put(LocalDate.parse(String.valueOf(row.get("day"))), ((Number) row.get("cnt")).longValue());
+        }
+
+        return UserStatsVO.builder()
+                .source(STATS_SOURCE_DATABASE)
+                .totalCount(statusCounts.values().stream().mapToLong(Long::longValue).sum())
+                .todayCount(userMapper.selectCount(new LambdaQueryWrapper<User>()
+                        .ge(User::getCreatedAt, window.todayStart())))
+                .weekCount(userMapper.selectCount(new LambdaQueryWrapper<User>()
+                        .ge(User::getCreatedAt, window.weekStart())))
+                .monthCount(userMapper.selectCount(new LambdaQueryWrapper<User>()
+                        .ge(User::getCreatedAt, window.monthStart())))
+                .dailyActiveCount(countActiveSince(window.dayAgo()))
+                .weeklyActiveCount(countActiveSince(window.weekStart()))
+                .monthlyActiveCount(countActiveSince(window.thirtyDaysAgo()))
+                .statusCounts(statusCounts)
+                .deptCounts(deptCounts)
+                .dailyCreatedCounts(dailyCreated)
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private long countActiveSince(LocalDateTime since) {
+        return userMapper.selectCount(new LambdaQueryWrapper<User>()
+                .ge(User::getUpdatedAt, since)
+                .eq(User::getStatus, 1));
+    }
+
+    private static Query since(String field, LocalDateTime time) {
+        return Query.of(q -> q.range(r -> r.field(field).gte(JsonData.of(time.format(STATS_TIME_FORMATTER)))));
+    }
+
+    private static Query activeSince(Query active, LocalDateTime time) {
+        return Query.of(q -> q.bool(b -> b.filter(active).filter(since("updatedAt", time))));
+    }
+
+    /**
+     * 统计时间窗口（与 UserStatsJob 原有口径一致）
+     *
+     * <p>滚动窗口的起点取整到小时：聚合请求体在一小时内保持不变，分片请求缓存才能命中（按秒取整时每次请求都不同）；
+     * 代价是近 24 小时、7 天、30 天的口径最多多算一小时。</p>
+     */
+    private record StatsWindow(LocalDateTime todayStart, LocalDateTime dayAgo, LocalDateTime weekStart,
+                               LocalDateTime monthStart, LocalDateTime thirtyDaysAgo) {
+
+        static StatsWindow now() {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime todayStart = now.truncatedTo(ChronoUnit.DAYS);
+            return new StatsWindow(todayStart, now.minusDays(1), now.minusDays(7),
+                    todayStart.withDayOfMonth(1), now.minusDays(30));
+        }
+    }
+
+    @Override
+    public CursorPage<UserDocument> advancedSearchAfter(String keyword, Integer status, String deptId,
+                                                        String cursor, int size) {
+        // size <= 0 时空页也满足 hits.size() == size，游标永远不会结束
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        SearchCursor current = cursor != null && !cursor.isEmpty() ? decodeCursor(cursor) : null;
+        String pitId = current != null
+                ? current.pit()
+                : elasticsearchOperations.openPointInTime(userIndex(), Duration.ofMillis(pitKeepAliveMillis));
+
+        SearchHits<UserDocument> searchHits;
+        try {
+            searchHits = searchPage(keyword, status, deptId, pitId,
+                    current != null ? current.after() : null, pageSize, current == null);
+        } catch (RuntimeException e) {
+            if (current == null) {
+                closePointInTime(pitId);
+                throw e;
+            }
+            // 时间点快照过期或索引已重建
+            log.warn("游标搜索失败: error={}", e.getMessage());
+            throw new BusinessException("SEARCH_CURSOR_INVALID", "搜索游标已失效，请重新搜索");
+        }
+
+        List<SearchHit<UserDocument>> hits = searchHits.getSearchHits();
+        boolean hasMore = hits.size() == pageSize;
+        String nextPit = searchHits.getPointInTimeId() != null ? searchHits.getPointInTimeId() : pitId;
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = encodeCursor(new SearchCursor(nextPit, hits.getLast().getSortValues()));
+        } else {
+            closePointInTime(nextPit);
+        }
+
+        return CursorPage.<UserDocument>builder()
+                .content(hits.stream().map(SearchHit::getContent).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .total(current == null ? searchHits.getTotalHits() : null)
+                .build();
+    }
+
+    @Override
+    public long exportUsers(String keyword, Integer status, String deptId, int batchSize,
+                            Consumer<List<UserDocument>> consumer) {
+        String pitId = elasticsearchOperations.openPointInTime(userIndex(), Duration.ofMillis(pitKeepAliveMillis));
+        long exported = 0;
+        try {
+            List<Object> after = null;
+            while (true) {
+                SearchHits<UserDocument> searchHits = searchPage(keyword, status, deptId, pitId, after, batchSize, false);
+                List<SearchHit<UserDocument>> hits = searchHits.getSearchHits();
+                if (hits.isEmpty()) {
+                    break;
+                }
+                consumer.accept(hits.stream().map(SearchHit::getContent).toList());
+                exported += hits.size();
+                if (hits.size() < batchSize) {
+                    break;
+                }
+                after = hits.getLast().getSortValues();
+                if (searchHits.getPointInTimeId() != null) {
+                    pitId = searchHits.getPointInTimeId();
+                }
+            }
+        } finally {
+            closePointInTime(pitId);
+        }
+        log.info("导出用户完成: keyword={}, status={}, deptId={}, count={}", keyword, status, deptId, exported);
+        return exported;
+    }
+
+    /**
+     * 在时间点快照上按 search_after 读取一页，排序为 [_score 降序（有关键词时）, userId 升序]
+     */
+    private SearchHits<UserDocument> searchPage(String keyword, Integer status, String deptId, String pitId,
+                                                List<Object> after, int size, boolean trackTotalHits) {
+        NativeQueryBuilder queryBuilder = new NativeQueryBuilder()
+                .withQuery(buildAdvancedQuery(keyword, status, deptId))
+                .withPointInTime(new org.springframework.data.elasticsearch.core.query.Query.PointInTime(
+                        pitId, Duration.ofMillis(pitKeepAliveMillis)))
+                .withMaxResults(size)
+                .withTrackTotalHits(trackTotalHits);
+        if (hasKeyword(keyword)) {
+            queryBuilder.withSort(sort -> sort.score(score -> score.order(SortOrder.Desc)));
+        }
+        queryBuilder.withSort(sort -> sort.field(field -> field.field("userId").order(SortOrder.Asc)));
+        if (after != null) {
+            queryBuilder.withSearchAfter(after);
+        }
+        return elasticsearchOperations.search(queryBuilder.build(), UserDocument.class);
+    }
+
+    private Query buildAdvancedQuery(String keyword, Integer status, String deptId) {
         BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
 
         // 关键词搜索
-        if (keyword != null && !keyword.trim().isEmpty()) {
+        if (hasKeyword(keyword)) {
             MatchQuery usernameQuery = MatchQuery.of(m -> m
                     .field("username")
                     .query(keyword)
@@ -165,21 +616,41 @@ public class UserSearchServiceImpl implements UserSearchService {
                 .value(0)
         )));
 
-        // 构建查询
-        org.springframework.data.elasticsearch.core.query.Query searchQuery = new NativeQueryBuilder()
-                .withQuery(Query.of(q -> q.bool(boolQueryBuilder.build())))
-                .withPageable(pageable)
-                .build();
+        return Query.of(q -> q.bool(boolQueryBuilder.build()));
+    }
 
-        // 执行查询
-        SearchHits<UserDocument> searchHits = elasticsearchOperations.search(searchQuery, UserDocument.class);
+    private static boolean hasKeyword(String keyword) {
+        return keyword != null && !keyword.trim().isEmpty();
+    }
 
-        // 转换结果
-        List<UserDocument> documents = searchHits.getSearchHits().stream()
-                .map(SearchHit::getContent)
-                .collect(Collectors.toList());
+    private IndexCoordinates userIndex() {
+        return elasticsearchOperations.getIndexCoordinatesFor(UserDocument.class);
+    }
 
-        return new PageImpl<>(documents, pageable, searchHits.getTotalHits());
+    private void closePointInTime(String pitId) {
+        try {
+            elasticsearchOperations.closePointInTime(pitId);
+        } catch (RuntimeException e) {
+            log.warn("关闭时间点快照失败: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 游标：时间点快照ID + 上一页最后一条的排序值，序列化为 Base64URL(JSON)
+     */
+    private record SearchCursor(String pit, List<Object> after) {
+    }
+
+    private String encodeCursor(SearchCursor cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+    }
+
+    private SearchCursor decodeCursor(String cursor) {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), SearchCursor.class);
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new BusinessException("SEARCH_CURSOR_INVALID", "搜索游标格式错误");
+        }
     }
 
     @Override
@@ -209,28 +680,19 @@ public class UserSearchServiceImpl implements UserSearchService {
 
     @Override
     public UserDocument getUserDocumentById(Long userId) {
-        return userDocumentRepository.findByUserId(userId);
+        // 文档ID即用户ID，按ID读取（实时 GET）而不是发起搜索
+        return userDocumentRepository.findById(String.valueOf(userId)).orElse(null);
     }
 
     @Override
     public void syncUserToEs(Long userId) {
-        User user = userService.getById(userId);
-        if (user != null) {
-            UserDocument document = UserDocument.fromUser(user);
-            userDocumentRepository.save(document);
-            log.info("同步用户到ES成功: userId={}", userId);
-        } else {
-            log.warn("用户不存在，无法同步: userId={}", userId);
-        }
+        userIndexQueue.enqueueIndex(userId);
+        log.debug("用户加入同步队列: userId={}", userId);
     }
 
     @Override
     public void syncUsersToEs(List<Long> userIds) {
-        List<User> users = userService.listByIds(userIds);
-        List<UserDocument> documents = users.stream()
-                .map(UserDocument::fromUser)
-                .collect(Collectors.toList());
-        userDocumentRepository.saveAll(documents);
-        log.info("批量同步用户到ES成功: count={}", documents.size());
+        userIds.forEach(userIndexQueue::enqueueIndex);
+        log.info("批量用户加入同步队列: count={}", userIds.size());
     }
 }
\ No newline at end of file
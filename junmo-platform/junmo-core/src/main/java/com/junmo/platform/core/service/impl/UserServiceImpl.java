@@ -13,6 +13,7 @@ import com.junmo.platform.core.service.UserLogService;
 import com.junmo.platform.core.service.UserMapperReactiveService;
 import com.junmo.platform.core.service.UserSearchService;
 import com.junmo.platform.core.service.UserService;
+import com.junmo.platform.core.service.UserUniquenessFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -52,6 +53,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     private final UserAsyncService userAsyncService;
     private final UserDistributedService userDistributedService;
     private final AsyncExecutorHelper asyncExecutor;
+    private final UserUniquenessFilter userUniquenessFilter;
 
     @Override
     public Optional<User> findByUsername(String username) {
@@ -175,8 +177,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return getReactiveService().getUsersByStatusReactive(status);
     }
 
+    /**
+     * 不加 {@code @Transactional}：JDBC 事务管理器会把事务绑定在调用线程上并阻塞等待连接，
+     * 而响应式创建在订阅时才执行；插入与唯一性记录由 R2DBC 单条语句完成，不需要外层事务
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public Mono<User> createUserReactive(UserCreateDTO dto) {
         return getReactiveService().createUserReactive(dto);
     }
@@ -219,6 +224,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         userCacheService.putUserToCache(user);
         log.info("用户已放入缓存: userId={}", user.getId());
 
+        userUniquenessFilter.record(user.getUsername(), user.getEmail()).subscribe();
+
         logUserAction(user, "CREATE", null, null, null);
 
         executeAsyncTasks(user);
@@ -233,6 +240,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         userCacheService.updateUserInCache(user);
         log.info("用户缓存已更新: userId={}", user.getId());
 
+        // 修改了用户名或邮箱时记录新值（未修改的字段为空）
+        if (user.getUsername() != null || user.getEmail() != null) {
+            userUniquenessFilter.record(user.getUsername(), user.getEmail()).subscribe();
+        }
+
         logUserAction(user, "UPDATE", null, null, null);
 
         asyncExecutor.executeAsync("记录用户操作日志",
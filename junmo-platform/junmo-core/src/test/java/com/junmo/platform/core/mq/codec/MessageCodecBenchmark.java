@@ -0,0 +1,123 @@
+package com.junmo.platform.core.mq.codec;
+
+import com.junmo.platform.api.dto.NotificationMessage;
+import com.junmo.platform.api.dto.UserCreatedMessage;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka 消息编解码吞吐量基准测试
+ *
+ * <p>对比 Avro 二进制编解码与原 JSON 编解码的编码/解码吞吐量。</p>
+ *
+ * <p>运行方式：执行 {@link #main(String[])}，或在 IDE 中直接运行本类。</p>
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    private static final String TOPIC = "user-created-topic";
+
+    private UserCreatedMessage userCreatedMessage;
+    private NotificationMessage notificationMessage;
+
+    private Serializer<Object> avroSerializer;
+    private Deserializer<Object> avroDeserializer;
+    private JacksonJsonSerializer<Object> jsonSerializer;
+    private JacksonJsonDeserializer<UserCreatedMessage> jsonDeserializer;
+
+    private byte[] avroUserCreatedBytes;
+    private byte[] avroNotificationBytes;
+    private byte[] jsonUserCreatedBytes;
+
+    @Setup
+    public void setUp() {
+        userCreatedMessage = UserCreatedMessage.builder()
+                .userId(1879246513029873665L)
+                .username("zhangsan")
+                .email("zhangsan@junmo-platform.com")
+                .realName("张三")
+                .createdAt(LocalDateTime.now())
+                .build();
+        notificationMessage = NotificationMessage.builder()
+                .userId(1879246513029873665L)
+                .username("zhangsan")
+                .title("欢迎注册")
+                .content("您的账号已创建成功，请及时完善个人信息。")
+                .type("EMAIL")
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        avroSerializer = new AvroMessageSerializer();
+        avroDeserializer = new AvroMessageDeserializer();
+        jsonSerializer = new JacksonJsonSerializer<>();
+        jsonDeserializer = new JacksonJsonDeserializer<>(UserCreatedMessage.class);
+        jsonDeserializer.configure(Map.of(JacksonJsonDeserializer.USE_TYPE_INFO_HEADERS, false), false);
+
+        avroUserCreatedBytes = avroSerializer.serialize(TOPIC, userCreatedMessage);
+        avroNotificationBytes = avroSerializer.serialize(TOPIC, notificationMessage);
+        jsonUserCreatedBytes = jsonSerializer.serialize(TOPIC, userCreatedMessage);
+    }
+
+    @Benchmark
+    public byte[] avroEncodeUserCreated() {
+        return avroSerializer.serialize(TOPIC, userCreatedMessage);
+    }
+
+    @Benchmark
+    public Object avroDecodeUserCreated() {
+        return avroDeserializer.deserialize(TOPIC, avroUserCreatedBytes);
+    }
+
+    @Benchmark
+    public byte[] avroEncodeNotification() {
+        return avroSerializer.serialize(TOPIC, notificationMessage);
+    }
+
+    @Benchmark
+    public Object avroDecodeNotification() {
+        return avroDeserializer.deserialize(TOPIC, avroNotificationBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonEncodeUserCreated() {
+        return jsonSerializer.serialize(TOPIC, userCreatedMessage);
+    }
+
+    @Benchmark
+    public Object jsonDecodeUserCreated() {
+        return jsonDeserializer.deserialize(TOPIC, jsonUserCreatedBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MessageCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
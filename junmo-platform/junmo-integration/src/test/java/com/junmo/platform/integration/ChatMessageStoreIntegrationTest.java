@@ -0,0 +1,204 @@
+package com.junmo.platform.integration;
+
+import com.junmo.platform.api.dto.UserMessage;
+import com.junmo.platform.core.service.ChatMessageService;
+import com.junmo.platform.core.service.impl.ChatMessageServiceImpl;
+import com.junmo.platform.model.document.ChatMessageBucket;
+import com.junmo.platform.test.config.TestContainersConfig;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 聊天消息存储集成测试
+ * 验证消息按会话和时间窗口分桶写入 MongoDB、按消息ID增量同步和向前翻页，
+ * 以及尚未确认写入的消息（待写入队列、在途批次、写入失败后重新入队）在查询中可见
+ *
+ * @author junmo
+ * @since 2.0.0
+ */
+@Slf4j
+@Testcontainers
+@DisplayName("聊天消息存储集成测试")
+class ChatMessageStoreIntegrationTest {
+
+    private static final String DATABASE_NAME = "test";
+
+    private static final long SENDER_ID = 1001L;
+
+    private static final long RECEIVER_ID = 1002L;
+
+    private static final String CONVERSATION_ID = ChatMessageService.conversationId(SENDER_ID, RECEIVER_ID);
+
+    private MongoClient mongoClient;
+
+    private MongoTemplate mongoTemplate;
+
+    private ChatMessageServiceImpl chatMessageService;
+
+    @BeforeEach
+    void setUp() {
+        mongoClient = MongoClients.create(TestContainersConfig.getMongoDBConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (chatMessageService != null) {
+            chatMessageService.destroy();
+        }
+        if (mongoTemplate != null) {
+            mongoTemplate.dropCollection(ChatMessageBucket.class);
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    @DisplayName("消息应按桶容量分桶写入，并能按消息ID增量同步和向前翻页")
+    void shouldWriteBucketsAndPageByMessageId_whenMessagesAreFlushed() throws InterruptedException {
+        // Given - 每个桶最多 3 条消息，7 条消息至少写入 3 个桶
+        chatMessageService = new ChatMessageServiceImpl(mongoTemplate, 0, 20, 500, 1000, 3, 3_600_000, 200);
+        List<Long> messageIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            messageIds.add(send("消息" + i));
+        }
+
+        // When
+        awaitPersisted(7);
+
+        // Then - 桶不超过容量，桶内记录的消息ID范围正确
+        List<ChatMessageBucket> buckets = mongoTemplate.findAll(ChatMessageBucket.class);
+        assertThat(buckets).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(buckets).allSatisfy(bucket -> {
+            assertThat(bucket.getConversationId()).isEqualTo(CONVERSATION_ID);
+            assertThat(bucket.getCount()).isLessThanOrEqualTo(3).isEqualTo(bucket.getMessages().size());
+            assertThat(bucket.getFirstMessageId()).isEqualTo(bucket.getMessages().getFirst().getMessageId());
+            assertThat(bucket.getLastMessageId()).isEqualTo(bucket.getMessages().getLast().getMessageId());
+        });
+
+        // Then - 全量同步按消息ID升序返回全部消息
+        assertThat(ids(chatMessageService.getMessagesAfter(CONVERSATION_ID, null, 100)))
+                .containsExactlyElementsOf(messageIds);
+
+        // Then - 从第 3 条之后增量同步 2 条，跨桶返回第 4、5 条
+        assertThat(ids(chatMessageService.getMessagesAfter(CONVERSATION_ID, messageIds.get(2), 2)))
+                .containsExactly(messageIds.get(3), messageIds.get(4));
+
+        // Then - 从最新处向前翻页 2 条，再以最早一条为游标继续翻页
+        List<Long> latest = ids(chatMessageService.getMessagesBefore(CONVERSATION_ID, null, 2));
+        assertThat(latest).containsExactly(messageIds.get(5), messageIds.get(6));
+        assertThat(ids(chatMessageService.getMessagesBefore(CONVERSATION_ID, latest.getFirst(), 3)))
+                .containsExactly(messageIds.get(2), messageIds.get(3), messageIds.get(4));
+        log.info("分桶写入与分页查询测试通过: buckets={}", buckets.size());
+    }
+
+    @Test
+    @DisplayName("尚未写入 MongoDB 的消息应与已写入的消息合并返回")
+    void shouldMergePendingMessages_whenNotYetFlushed() throws InterruptedException {
+        // Given - 先写入 2 条
+        chatMessageService = new ChatMessageServiceImpl(mongoTemplate, 0, 20, 500, 1000, 200, 3_600_000, 200);
+        Long first = send("已写入1");
+        Long second = send("已写入2");
+        awaitPersisted(2);
+
+        // Given - 关闭写入线程后再发送，消息只会留在待写入队列
+        chatMessageService.destroy();
+        chatMessageService = new ChatMessageServiceImpl(mongoTemplate, 0, 3_600_000, 500, 1000, 200, 3_600_000, 200);
+        Long third = send("待写入");
+
+        // When
+        List<Long> synced = ids(chatMessageService.getMessagesAfter(CONVERSATION_ID, null, 100));
+
+        // Then
+        assertThat(synced).containsExactly(first, second, third);
+        assertThat(ids(chatMessageService.getMessagesAfter(CONVERSATION_ID, second, 100))).containsExactly(third);
+        log.info("待写入消息合并测试通过");
+    }
+
+    @Test
+    @DisplayName("写入中和写入失败后重新入队的消息在查询中应始终可见")
+    void shouldKeepMessagesVisible_whileInFlightAndAfterWriteFailure() throws InterruptedException {
+        // Given - MongoDB 写入阻塞到放行为止，放行后写入一直失败
+        MongoTemplate blockingTemplate = mock(MongoTemplate.class);
+        BulkOperations bulkOps = mock(BulkOperations.class, RETURNS_SELF);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blockingTemplate.bulkOps(eq(BulkOperations.BulkMode.ORDERED), eq(ChatMessageBucket.class)))
+                .thenReturn(bulkOps);
+        when(bulkOps.execute()).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            throw new IllegalStateException("模拟写入失败");
+        });
+        when(blockingTemplate.stream(any(Query.class), eq(ChatMessageBucket.class)))
+                .thenAnswer(invocation -> Stream.empty());
+        chatMessageService = new ChatMessageServiceImpl(blockingTemplate, 0, 20, 500, 1000, 200, 3_600_000, 200);
+
+        // When - 消息已被写入线程取出，MongoDB 尚未确认
+        Long messageId = send("写入中");
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then - 在途消息可见
+        assertThat(ids(chatMessageService.getMessagesAfter(CONVERSATION_ID, null, 100))).containsExactly(messageId);
+        assertThat(ids(chatMessageService.getMessagesBefore(CONVERSATION_ID, null, 100))).containsExactly(messageId);
+
+        // When - 写入失败，消息放回队首
+        release.countDown();
+        Thread.sleep(100);
+
+        // Then - 重新入队（或再次写入中）的消息仍然可见，且只出现一次
+        assertThat(ids(chatMessageService.getMessagesAfter(CONVERSATION_ID, null, 100))).containsExactly(messageId);
+        log.info("在途消息合并测试通过: messageId={}", messageId);
+    }
+
+    private Long send(String content) {
+        UserMessage message = new UserMessage();
+        message.setSenderId(SENDER_ID);
+        message.setReceiverId(RECEIVER_ID);
+        message.setContent(content);
+        message.setMessageType("TEXT");
+        chatMessageService.saveMessage(message);
+        return message.getMessageId();
+    }
+
+    private void awaitPersisted(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline) {
+            int persisted = mongoTemplate.findAll(ChatMessageBucket.class).stream()
+                    .mapToInt(ChatMessageBucket::getCount)
+                    .sum();
+            if (persisted >= expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("等待消息写入 MongoDB 超时: expected=" + expected);
+    }
+
+    private static List<Long> ids(List<UserMessage> messages) {
+        return messages.stream().map(UserMessage::getMessageId).toList();
+    }
+}
@@ -0,0 +1,399 @@
+package com.junmo.platform.integration;
+
+import com.junmo.platform.api.dto.UserCreateDTO;
+import com.junmo.platform.api.enums.UserStatus;
+import com.junmo.platform.common.helper.AsyncExecutorHelper;
+import com.junmo.platform.common.util.SpringContextUtil;
+import com.junmo.platform.core.service.UserAsyncService;
+import com.junmo.platform.core.service.UserCacheService;
+import com.junmo.platform.core.service.UserDistributedService;
+import com.junmo.platform.core.service.UserLogService;
+import com.junmo.platform.core.service.UserMapperReactiveService;
+import com.junmo.platform.core.service.UserSearchService;
+import com.junmo.platform.core.service.UserService;
+import com.junmo.platform.core.service.UserUniquenessFilter;
+import com.junmo.platform.core.service.impl.UserMapperReactiveServiceImpl;
+import com.junmo.platform.core.service.impl.UserServiceImpl;
+import com.junmo.platform.model.entity.User;
+import com.junmo.platform.model.mapper.UserMapper;
+import com.junmo.platform.test.config.TestContainersConfig;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 响应式用户服务非阻塞集成测试
+ * 在安装 BlockHound 的前提下，于 Reactor 非阻塞线程（parallel 调度器）上执行响应式用户服务的各项操作，
+ * 验证整条调用链没有阻塞调用
+ *
+ * @author junmo
+ * @since 2.0.0
+ */
+@Slf4j
+@Testcontainers
+@DisplayName("响应式用户服务非阻塞集成测试")
+class ReactiveUserBlockHoundIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static UserMapperReactiveService userMapperReactiveService;
+
+    private static UserUniquenessFilter userUniquenessFilter;
+
+    private static AnnotationConfigApplicationContext facadeContext;
+
+    private static UserService userService;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        log.info("初始化 sys_user 表...");
+        try (Connection connection = DriverManager.getConnection(
+                TestContainersConfig.getMySQLJdbcUrl(),
+                TestContainersConfig.getMySQLUsername(),
+                TestContainersConfig.getMySQLPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS sys_user (" +
+                    "id BIGINT NOT NULL, " +
+                    "username VARCHAR(50) NOT NULL, " +
+                    "password VARCHAR(255) NOT NULL, " +
+                    "email VARCHAR(100) DEFAULT NULL, " +
+                    "phone VARCHAR(20) DEFAULT NULL, " +
+                    "real_name VARCHAR(50) DEFAULT NULL, " +
+                    "avatar VARCHAR(255) DEFAULT NULL, " +
+                    "status INT NOT NULL DEFAULT 1, " +
+                    "dept_id BIGINT DEFAULT NULL, " +
+                    "create_by BIGINT DEFAULT NULL, " +
+                    "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "update_by BIGINT DEFAULT NULL, " +
+                    "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+                    "deleted INT NOT NULL DEFAULT 0, " +
+                    "version INT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (id), " +
+                    "UNIQUE KEY uk_username (username), " +
+                    "UNIQUE KEY uk_email (email)" +
+                    ")");
+        }
+
+        ConnectionFactory connectionFactory = ConnectionFactories.get(String.format("r2dbc:mysql://%s:%s@%s:%d/%s",
+                TestContainersConfig.getMySQLUsername(),
+                TestContainersConfig.getMySQLPassword(),
+                TestContainersConfig.MYSQL_CONTAINER.getHost(),
+                TestContainersConfig.MYSQL_CONTAINER.getMappedPort(3306),
+                TestContainersConfig.MYSQL_CONTAINER.getDatabaseName()));
+        // 布隆过滤器默认判定"可能占用"，注册走数据库唯一性检查；个别用例单独改为"一定未占用"
+        userUniquenessFilter = mock(UserUniquenessFilter.class);
+        when(userUniquenessFilter.mightExist(any(), any())).thenReturn(Mono.just(true));
+        when(userUniquenessFilter.record(any(), any())).thenReturn(Mono.empty());
+        userMapperReactiveService = new UserMapperReactiveServiceImpl(
+                new R2dbcEntityTemplate(connectionFactory), userUniquenessFilter, 2, 200, 60000, 2000);
+
+        // 在主线程上预热一次连接，之后再安装 BlockHound
+        userMapperReactiveService.countByStatusReactive(UserStatus.ACTIVE.getValue()).block(TIMEOUT);
+
+        // 用户服务门面经 Spring 代理调用，事务注解与生产环境一样生效
+        facadeContext = new AnnotationConfigApplicationContext(FacadeConfig.class);
+        userService = facadeContext.getBean(UserService.class);
+
+        BlockHound.install();
+        log.info("BlockHound 已安装");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (facadeContext != null) {
+            facadeContext.close();
+        }
+    }
+
+    /**
+     * 用户服务门面的最小上下文：JDBC 事务管理器与生产环境一致，其余依赖使用 mock
+     */
+    @Configuration
+    @EnableTransactionManagement
+    static class FacadeConfig {
+
+        @Bean
+        SpringContextUtil springContextUtil() {
+            return new SpringContextUtil();
+        }
+
+        @Bean
+        UserMapperReactiveService userMapperReactiveService() {
+            return userMapperReactiveService;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new DataSourceTransactionManager(new DriverManagerDataSource(
+                    TestContainersConfig.getMySQLJdbcUrl(),
+                    TestContainersConfig.getMySQLUsername(),
+                    TestContainersConfig.getMySQLPassword()));
+        }
+
+        @Bean
+        UserMapper userMapper() {
+            return mock(UserMapper.class);
+        }
+
+        @Bean
+        UserService userService(UserMapper userMapper) {
+            return new UserServiceImpl(userMapper, mock(UserLogService.class), mock(UserSearchService.class),
+                    mock(UserCacheService.class), mock(UserAsyncService.class), mock(UserDistributedService.class),
+                    mock(AsyncExecutorHelper.class), userUniquenessFilter);
+        }
+    }
+
+    @Test
+    @DisplayName("BlockHound 应该拦截 parallel 线程上的阻塞调用")
+    void shouldRaiseBlockingOperationError_whenBlockingOnParallelScheduler() {
+        // Given
+        Mono<Long> blocking = Mono.fromCallable(() -> {
+            Thread.sleep(10);
+            return 1L;
+        }).subscribeOn(Schedulers.parallel());
+
+        // When & Then
+        StepVerifier.create(blocking)
+                .expectError(BlockingOperationError.class)
+                .verify(TIMEOUT);
+        log.info("BlockHound 拦截测试通过");
+    }
+
+    @Test
+    @DisplayName("应该在非阻塞线程上创建并查询用户")
+    void shouldCreateAndFindUser_whenRunningOnParallelScheduler() {
+        // Given
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserCreateDTO dto = newUser(suffix);
+
+        // When
+        Mono<User> created = Mono.defer(() -> userMapperReactiveService.createUserReactive(dto))
+                .subscribeOn(Schedulers.parallel());
+
+        // Then
+        User user = created.block(TIMEOUT);
+        assertThat(user).isNotNull();
+        assertThat(user.getId()).isNotNull();
+
+        StepVerifier.create(Mono.defer(() -> userMapperReactiveService.getUserByIdReactive(user.getId()))
+                        .subscribeOn(Schedulers.parallel()))
+                .assertNext(found -> assertThat(found.getUsername()).isEqualTo(dto.getUsername()))
+                .verifyComplete();
+        StepVerifier.create(Mono.defer(() -> userMapperReactiveService.getUserByUsernameReactive(dto.getUsername()))
+                        .subscribeOn(Schedulers.parallel()))
+                .assertNext(found -> assertThat(found.getId()).isEqualTo(user.getId()))
+                .verifyComplete();
+        StepVerifier.create(Mono.defer(() -> userMapperReactiveService.getUserByEmailReactive(dto.getEmail()))
+                        .subscribeOn(Schedulers.parallel()))
+                .assertNext(found -> assertThat(found.getId()).isEqualTo(user.getId()))
+                .verifyComplete();
+        log.info("非阻塞创建查询测试通过: id={}", user.getId());
+    }
+
+    @Test
+    @DisplayName("经用户服务门面应该在非阻塞线程上创建并查询用户")
+    void shouldCreateAndFindUserThroughFacade_whenRunningOnParallelScheduler() {
+        // Given
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserCreateDTO dto = newUser(suffix);
+
+        // When - 经事务代理调用门面方法
+        Mono<User> created = Mono.defer(() -> userService.createUserReactive(dto))
+                .subscribeOn(Schedulers.parallel());
+
+        // Then
+        User user = created.block(TIMEOUT);
+        assertThat(user).isNotNull();
+        assertThat(user.getId()).isNotNull();
+
+        StepVerifier.create(Mono.defer(() -> userService.getUserByUsernameReactive(dto.getUsername()))
+                        .subscribeOn(Schedulers.parallel()))
+                .assertNext(found -> assertThat(found.getId()).isEqualTo(user.getId()))
+                .verifyComplete();
+        StepVerifier.create(Mono.defer(() -> userService.countByStatusReactive(UserStatus.ACTIVE.getValue()))
+                        .subscribeOn(Schedulers.parallel()))
+                .assertNext(count -> assertThat(count).isPositive())
+                .verifyComplete();
+        log.info("门面非阻塞创建查询测试通过: id={}", user.getId());
+    }
+
+    @Test
+    @DisplayName("应该在非阻塞线程上拒绝重复用户名")
+    void shouldRejectDuplicateUsername_whenRunningOnParallelScheduler() {
+        // Given
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserCreateDTO dto = newUser(suffix);
+        userMapperReactiveService.createUserReactive(dto).block(TIMEOUT);
+        UserCreateDTO duplicate = newUser(suffix);
+        duplicate.setEmail("other_" + suffix + "@example.com");
+
+        // When & Then
+        StepVerifier.create(Mono.defer(() -> userMapperReactiveService.createUserReactive(duplicate))
+                        .subscribeOn(Schedulers.parallel()))
+                .expectError(IllegalArgumentException.class)
+                .verify(TIMEOUT);
+        log.info("重复用户名拒绝测试通过: username={}", duplicate.getUsername());
+    }
+
+    @Test
+    @DisplayName("应该在非阻塞线程上拒绝大小写不同的重复邮箱")
+    void shouldRejectDuplicateEmailIgnoringCase_whenRunningOnParallelScheduler() {
+        // Given
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserCreateDTO dto = newUser(suffix);
+        userMapperReactiveService.createUserReactive(dto).block(TIMEOUT);
+        UserCreateDTO duplicate = newUser("other_" + suffix);
+        duplicate.setEmail(dto.getEmail().toUpperCase());
+
+        // When & Then
+        StepVerifier.create(Mono.defer(() -> userMapperReactiveService.createUserReactive(duplicate))
+                        .subscribeOn(Schedulers.parallel()))
+                .expectErrorMatches(e -> e instanceof IllegalArgumentException && e.getMessage().startsWith("邮箱已存在"))
+                .verify(TIMEOUT);
+        log.info("重复邮箱拒绝测试通过: email={}", duplicate.getEmail());
+    }
+
+    @Test
+    @DisplayName("布隆过滤器判定未占用时应该跳过数据库检查，重复用户名由唯一索引拦截")
+    void shouldSkipDatabaseCheck_whenBloomFilterSaysAbsent() {
+        // Given - 已存在的用户名，布隆过滤器（误）判定为一定未占用
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserCreateDTO dto = newUser(suffix);
+        userMapperReactiveService.createUserReactive(dto).block(TIMEOUT);
+        UserCreateDTO duplicate = newUser(suffix);
+        duplicate.setEmail("bloom_" + suffix + "@example.com");
+        when(userUniquenessFilter.mightExist(eq(duplicate.getUsername()), any())).thenReturn(Mono.just(false));
+
+        // When & Then - 未经数据库检查（否则为"用户名已存在"），插入时被唯一索引拦截
+        StepVerifier.create(Mono.defer(() -> userMapperReactiveService.createUserReactive(duplicate))
+                        .subscribeOn(Schedulers.parallel()))
+                .expectErrorMatches(e -> e instanceof IllegalArgumentException
+                        && e.getMessage().startsWith("用户名或邮箱已存在"))
+                .verify(TIMEOUT);
+        log.info("跳过数据库检查测试通过: username={}", duplicate.getUsername());
+    }
+
+    @Test
+    @DisplayName("应该在非阻塞线程上按状态查询和统计用户")
+    void shouldListAndCountByStatus_whenRunningOnParallelScheduler() {
+        // Given
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        UserCreateDTO dto = newUser(suffix);
+        dto.setStatus(UserStatus.INACTIVE);
+        userMapperReactiveService.createUserReactive(dto).block(TIMEOUT);
+
+        // When
+        Long listed = Flux.defer(() -> userMapperReactiveService.getUsersByStatusReactive(UserStatus.INACTIVE.getValue()))
+                .subscribeOn(Schedulers.parallel())
+                .count()
+                .block(TIMEOUT);
+        Long counted = Mono.defer(() -> userMapperReactiveService.countByStatusReactive(UserStatus.INACTIVE.getValue()))
+                .subscribeOn(Schedulers.parallel())
+                .block(TIMEOUT);
+
+        // Then
+        assertThat(listed).isPositive();
+        assertThat(counted).isEqualTo(listed);
+        log.info("非阻塞状态查询统计测试通过: listed={}, counted={}", listed, counted);
+    }
+
+    @Test
+    @DisplayName("应该在非阻塞线程上按ID分页读取全部用户")
+    void shouldListAllUsersAcrossPages_whenRunningOnParallelScheduler() {
+        // Given - 每页2行，3个用户至少跨2页
+        for (int i = 0; i < 3; i++) {
+            userMapperReactiveService.createUserReactive(newUser(UUID.randomUUID().toString().substring(0, 8)))
+                    .block(TIMEOUT);
+        }
+
+        // When
+        List<User> users = Flux.defer(() -> userMapperReactiveService.listUsersReactive())
+                .subscribeOn(Schedulers.parallel())
+                .collectList()
+                .block(TIMEOUT);
+
+        // Then
+        assertThat(users).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(users).extracting(User::getId).isSorted().doesNotHaveDuplicates();
+        log.info("非阻塞分页读取测试通过: size={}", users.size());
+    }
+
+    @Test
+    @DisplayName("变更流应该在非阻塞线程上发出逻辑删除的用户")
+    void shouldEmitSoftDeletedUser_whenStreamingChanges() {
+        // Given
+        User user = userMapperReactiveService.createUserReactive(newUser(UUID.randomUUID().toString().substring(0, 8)))
+                .block(TIMEOUT);
+        assertThat(user).isNotNull();
+
+        // When - 订阅变更流后逻辑删除该用户
+        Mono<User> deleted = Flux.defer(() -> userMapperReactiveService.streamUsersReactive())
+                .subscribeOn(Schedulers.parallel())
+                .filter(changed -> changed.getId().equals(user.getId()) && Integer.valueOf(1).equals(changed.getDeleted()))
+                .next();
+
+        // Then
+        StepVerifier.create(deleted)
+                .thenAwait(Duration.ofMillis(500))
+                .then(() -> softDelete(user.getId()))
+                .assertNext(changed -> assertThat(changed.getDeleted()).isEqualTo(1))
+                .verifyComplete();
+        log.info("变更流逻辑删除测试通过: id={}", user.getId());
+    }
+
+    private static void softDelete(Long id) {
+        try (Connection connection = DriverManager.getConnection(
+                TestContainersConfig.getMySQLJdbcUrl(),
+                TestContainersConfig.getMySQLUsername(),
+                TestContainersConfig.getMySQLPassword());
+             PreparedStatement statement = connection.prepareStatement("UPDATE sys_user SET deleted = 1 WHERE id = ?")) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("逻辑删除用户失败: id=" + id, e);
+        }
+    }
+
+    private static UserCreateDTO newUser(String suffix) {
+        UserCreateDTO dto = new UserCreateDTO();
+        dto.setUsername("reactive_" + suffix);
+        dto.setPassword("encoded_password");
+        dto.setEmail("reactive_" + suffix + "@example.com");
+        dto.setRealName("响应式用户" + suffix);
+        return dto;
+    }
+}
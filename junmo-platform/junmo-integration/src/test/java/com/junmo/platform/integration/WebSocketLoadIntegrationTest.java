@@ -0,0 +1,236 @@
+package com.junmo.platform.integration;
+
+import com.junmo.platform.core.mq.WebSocketSessionLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.tomcat.servlet.TomcatServletWebServerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WebSocket 负载集成测试
+ * 在本地启动只包含 STOMP 端点和 {@link WebSocketSessionLimiter} 的服务端，
+ * 用多个 STOMP 客户端验证慢客户端不会拖慢其他订阅者
+ *
+ * @author junmo
+ * @since 2.0.0
+ */
+@Slf4j
+@DisplayName("WebSocket 负载集成测试")
+class WebSocketLoadIntegrationTest {
+
+    private static final String DESTINATION = "/topic/load";
+
+    private static final int FAST_CLIENTS = 20;
+
+    private static final int MESSAGES = 2000;
+
+    private static final int MAX_PENDING_PER_SESSION = 64;
+
+    private static ConfigurableApplicationContext server;
+
+    private static WebSocketStompClient stompClient;
+
+    private static String url;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        log.info("启动 STOMP 测试服务端: port={}", port);
+
+        server = new SpringApplicationBuilder(LoadTestServerConfig.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("load-test.port=" + port)
+                .run();
+        url = "ws://localhost:" + port + "/ws-load";
+
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new StringMessageConverter());
+        stompClient.setInboundMessageSizeLimit(1024 * 1024);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+        if (server != null) {
+            server.close();
+            log.info("STOMP 测试服务端已关闭");
+        }
+    }
+
+    @Test
+    @DisplayName("慢客户端积压时应丢弃其消息，其他订阅者应收到全部消息")
+    void shouldDeliverAllMessagesToFastClients_whenOneClientIsSlow() throws Exception {
+        // Given
+        List<StompSession> sessions = new ArrayList<>();
+        CountDownLatch fastClientsDone = new CountDownLatch(FAST_CLIENTS);
+        for (int i = 0; i < FAST_CLIENTS; i++) {
+            AtomicInteger received = new AtomicInteger();
+            sessions.add(subscribe(payload -> {
+                if (received.incrementAndGet() == MESSAGES) {
+                    fastClientsDone.countDown();
+                }
+            }));
+        }
+        AtomicInteger slowReceived = new AtomicInteger();
+        sessions.add(subscribe(payload -> {
+            slowReceived.incrementAndGet();
+            sleep(20);
+        }));
+        // 等待订阅在服务端生效
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        // When
+        SimpMessagingTemplate messagingTemplate = server.getBean(SimpMessagingTemplate.class);
+        String payload = "x".repeat(2048);
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            messagingTemplate.convertAndSend(DESTINATION, payload);
+        }
+
+        // Then
+        assertThat(fastClientsDone.await(60, TimeUnit.SECONDS)).isTrue();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        MeterRegistry meterRegistry = server.getBean(MeterRegistry.class);
+        double dropped = meterRegistry.get("websocket.outbound.dropped").counter().count();
+        double outbound = meterRegistry.get("websocket.messages").tag("direction", "outbound").counter().count();
+        log.info("负载测试完成: clients={}, messages={}, elapsed={}ms, outbound={}, dropped={}, slowReceived={}",
+                FAST_CLIENTS + 1, MESSAGES, elapsedMillis, outbound, dropped, slowReceived.get());
+
+        assertThat(dropped).isGreaterThan(0);
+        assertThat(slowReceived.get()).isLessThan(MESSAGES);
+        assertThat(meterRegistry.get("websocket.sessions.active").gauge().value())
+                .isEqualTo(FAST_CLIENTS + 1);
+
+        sessions.forEach(StompSession::disconnect);
+    }
+
+    private StompSession subscribe(PayloadConsumer consumer) throws Exception {
+        StompSession session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+        session.subscribe(DESTINATION, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                consumer.accept((String) payload);
+            }
+        });
+        return session;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PayloadConsumer {
+        void accept(String payload);
+    }
+
+    /**
+     * 负载测试服务端配置：内嵌 Tomcat + 内存代理 + 会话出站限流
+     */
+    @Configuration
+    @EnableWebSocketMessageBroker
+    static class LoadTestServerConfig implements WebSocketMessageBrokerConfigurer {
+
+        private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        private final WebSocketSessionLimiter sessionLimiter = new WebSocketSessionLimiter(
+                meterRegistry, MAX_PENDING_PER_SESSION, WebSocketSessionLimiter.POLICY_DROP, List.of("/topic"));
+
+        @Bean
+        TomcatServletWebServerFactory webServerFactory(
+                @Value("${load-test.port}") int port) {
+            return new TomcatServletWebServerFactory(port);
+        }
+
+        @Bean
+        DispatcherServlet dispatcherServlet() {
+            return new DispatcherServlet();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return meterRegistry;
+        }
+
+        @Override
+        public void registerStompEndpoints(StompEndpointRegistry registry) {
+            registry.addEndpoint("/ws-load");
+        }
+
+        @Override
+        public void configureMessageBroker(MessageBrokerRegistry registry) {
+            registry.enableSimpleBroker("/topic");
+        }
+
+        @Override
+        public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+            // 放宽传输层缓冲区，由会话出站限流处理慢客户端
+            registration.setSendTimeLimit(30_000)
+                    .setSendBufferSizeLimit(64 * 1024 * 1024)
+                    .addDecoratorFactory(sessionLimiter);
+        }
+
+        @Override
+        public void configureClientInboundChannel(ChannelRegistration registration) {
+            registration.interceptors(sessionLimiter.inboundCounter());
+        }
+
+        @Override
+        public void configureClientOutboundChannel(ChannelRegistration registration) {
+            registration.taskExecutor().corePoolSize(8).maxPoolSize(8);
+            registration.interceptors(sessionLimiter);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.junmo.platform.model.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 聊天消息分桶文档
+ *
+ * 同一会话在同一时间窗口内的消息追加到同一个文档的 messages 数组中，
+ * 每个桶最多保存固定条数，写满后新开一个桶。按消息ID（雪花ID，时间有序）做游标分页时
+ * 只需读取少量桶文档，不必逐条读取消息。
+ *
+ * @author junmo-platform
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chat_message_buckets")
+@CompoundIndexes({
+        @CompoundIndex(name = "conversation_bucket_count_idx", def = "{'conversationId': 1, 'bucketStart': 1, 'count': 1}"),
+        @CompoundIndex(name = "conversation_first_message_idx", def = "{'conversationId': 1, 'firstMessageId': 1}"),
+        @CompoundIndex(name = "conversation_last_message_idx", def = "{'conversationId': 1, 'lastMessageId': -1}")
+})
+public class ChatMessageBucket {
+
+    /**
+     * 桶ID（MongoDB自动生成）
+     */
+    @Id
+    private String id;
+
+    /**
+     * 会话ID
+     */
+    private String conversationId;
+
+    /**
+     * 时间窗口起始时间戳（毫秒）
+     */
+    private Long bucketStart;
+
+    /**
+     * 桶内消息数
+     */
+    private Integer count;
+
+    /**
+     * 桶内最小消息ID
+     */
+    private Long firstMessageId;
+
+    /**
+     * 桶内最大消息ID
+     */
+    private Long lastMessageId;
+
+    /**
+     * 消息列表（按追加顺序）
+     */
+    private List<Entry> messages;
+
+    /**
+     * 桶内的单条消息
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        /**
+         * 消息ID
+         */
+        private Long messageId;
+
+        /**
+         * 发送者用户ID
+         */
+        private Long senderId;
+
+        /**
+         * 发送者用户名
+         */
+        private String senderName;
+
+        /**
+         * 接收者用户ID
+         */
+        private Long receiverId;
+
+        /**
+         * 接收者用户名
+         */
+        private String receiverName;
+
+        /**
+         * 消息内容
+         */
+        private String content;
+
+        /**
+         * 消息类型
+         */
+        private String messageType;
+
+        /**
+         * 发送时间
+         */
+        private LocalDateTime sentAt;
+    }
+}
@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 /**
  * 用户文档（Elasticsearch）
  *
- * 使用IK分词器进行中文分词
+ * 使用IK分词器进行中文分词；username、realName 另有 prefix 子字段（边缘 n-gram），用于输入联想
  *
  * @author junmo-platform
  * @version 1.0.0
@@ -41,7 +41,10 @@ public class UserDocument {
     /**
      * 用户名（使用IK分词器）
      */
-    @Field(type = FieldType.Text, analyzer = "ik_max_word", searchAnalyzer = "ik_smart")
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "ik_max_word", searchAnalyzer = "ik_smart"),
+            otherFields = @InnerField(suffix = "prefix", type = FieldType.Text,
+                    analyzer = "autocomplete", searchAnalyzer = "autocomplete_search"))
     private String username;
 
     /**
@@ -59,7 +62,10 @@ public class UserDocument {
     /**
      * 真实姓名（使用IK分词器）
      */
-    @Field(type = FieldType.Text, analyzer = "ik_max_word", searchAnalyzer = "ik_smart")
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "ik_max_word", searchAnalyzer = "ik_smart"),
+            otherFields = @InnerField(suffix = "prefix", type = FieldType.Text,
+                    analyzer = "autocomplete", searchAnalyzer = "autocomplete_search"))
     private String realName;
 
     /**
@@ -3,6 +3,8 @@ package com.junmo.platform.model.entity;
 import com.baomidou.mybatisplus.annotation.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
 
@@ -10,6 +12,7 @@ import java.time.LocalDateTime;
  * 用户实体
  *
  * 主键策略：使用雪花算法（ASSIGN_ID）生成分布式唯一ID
+ * 同时映射为 R2DBC 实体（表名 sys_user，列名按驼峰转下划线）
  *
  * @author junmo-platform
  * @version 1.0.0
@@ -17,8 +20,10 @@ import java.time.LocalDateTime;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @TableName("sys_user")
+@Table("sys_user")
 public class User {
 
+    @Id
     @TableId(value = "id", type = IdType.ASSIGN_ID)
     private Long id;
 
@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.neo4j.core.schema.GeneratedValue;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
@@ -16,6 +15,15 @@ import java.time.LocalDateTime;
  *
  * <p>对应关系型数据库中的 sys_user 表，用于构建用户关系图。</p>
  *
+ * <p>用户之间的关系：</p>
+ * <ul>
+ *   <li>关注 {@code (:User)-[:FOLLOWS {createdAt}]->(:User)}：有方向</li>
+ *   <li>好友 {@code (:User)-[:FRIEND {createdAt}]->(:User)}：每对用户只存一条，方向固定为ID小的指向ID大的，查询时忽略方向</li>
+ * </ul>
+ *
+ * <p>关系不映射为实体属性，否则加载一个节点会连带加载它的全部关系；关系的读写都通过
+ * {@code UserRepository} 和 {@code UserGraphService} 中有界的 Cypher 查询完成。</p>
+ *
  * @author junmo-platform
  * @version 1.0.0
  */
@@ -27,14 +35,13 @@ import java.time.LocalDateTime;
 public class UserNode {
 
     /**
-     * 用户ID（对应 sys_user.id）
+     * 用户ID（对应 sys_user.id，由同步方赋值，唯一约束）
      */
     @Id
-    @GeneratedValue
     private Long id;
 
     /**
-     * 用户名（对应 sys_user.username）
+     * 用户名（对应 sys_user.username，唯一约束）
      */
     @Property("username")
     private String username;
@@ -86,11 +93,4 @@ public class UserNode {
      */
     @Property("loginCount")
     private Integer loginCount;
-
-    // ==================== TODO: 待添加的关系属性 ====================
-    // TODO: 当实现用户关系功能时，添加以下关系：
-    // - 关注关系 (FOLLOWS): UserNode -> UserNode
-    // - 好友关系 (FRIEND): UserNode -> UserNode
-    // - 同事关系 (COLLEAGUE): UserNode -> UserNode
-    // - 粉丝关系 (FAN): UserNode -> UserNode
 }
\ No newline at end of file
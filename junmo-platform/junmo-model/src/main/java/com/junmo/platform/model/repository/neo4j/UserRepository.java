@@ -80,13 +80,130 @@ public interface UserRepository extends Neo4jRepository<UserNode, Long> {
     @Query("MATCH (u:User) WHERE u.loginCount > 0 RETURN u ORDER BY u.loginCount DESC LIMIT $limit")
     List<UserNode> findMostActiveUsers(Integer limit);
 
-    // ==================== TODO: 待添加的关系查询 ====================
-    // TODO: 当实现用户关系功能时，添加以下查询方法：
-    // - findFollowers(userId): 查找用户的粉丝
-    // - findFollowing(userId): 查找用户关注的人
-    // - findFriends(userId): 查找用户的好友
-    // - findColleagues(userId): 查找用户的同事
-    // - findShortestPath(userId1, userId2): 查找两个用户之间的最短路径
-    // - findMutualFriends(userId1, userId2): 查找两个用户的共同好友
-    // - findRecommendedFriends(userId): 推荐好友（基于共同好友数）
+
+    // ==================== 关系操作 ====================
+
+    /**
+     * 添加关注关系（已存在时不重复创建）
+     *
+     * @param followerId  关注者ID
+     * @param followingId 被关注者ID
+     * @return 关系数量，任一用户节点不存在时为0
+     */
+    @Query("MATCH (a:User {id: $followerId}), (b:User {id: $followingId}) "
+            + "MERGE (a)-[r:FOLLOWS]->(b) ON CREATE SET r.createdAt = datetime() "
+            + "RETURN count(r)")
+    Long mergeFollows(Long followerId, Long followingId);
+
+    /**
+     * 删除关注关系
+     *
+     * @param followerId  关注者ID
+     * @param followingId 被关注者ID
+     * @return 删除的关系数量
+     */
+    @Query("MATCH (:User {id: $followerId})-[r:FOLLOWS]->(:User {id: $followingId}) "
+            + "DELETE r RETURN count(r)")
+    Long deleteFollows(Long followerId, Long followingId);
+
+    /**
+     * 添加好友关系（调用方保证 smallerId 小于 largerId，每对用户只存一条）
+     *
+     * @param smallerId 较小的用户ID
+     * @param largerId  较大的用户ID
+     * @return 关系数量，任一用户节点不存在时为0
+     */
+    @Query("MATCH (a:User {id: $smallerId}), (b:User {id: $largerId}) "
+            + "MERGE (a)-[r:FRIEND]->(b) ON CREATE SET r.createdAt = datetime() "
+            + "RETURN count(r)")
+    Long mergeFriend(Long smallerId, Long largerId);
+
+    /**
+     * 删除好友关系
+     *
+     * @param userId1 用户ID
+     * @param userId2 用户ID
+     * @return 删除的关系数量
+     */
+    @Query("MATCH (:User {id: $userId1})-[r:FRIEND]-(:User {id: $userId2}) "
+            + "DELETE r RETURN count(r)")
+    Long deleteFriend(Long userId1, Long userId2);
+
+    // ==================== 关系查询（均有 LIMIT） ====================
+    //
+    // 列表按 (关系创建时间, 用户ID) 倒序键集分页：游标是上一页最后一个用户的ID，先查出它对应关系的创建时间，
+    // 再只取排在其后的关系，不需要像 SKIP 那样把前面各页排好序再丢弃。游标对应的关系已被删除时返回空页。
+
+    /**
+     * 查找用户的粉丝，按关注时间倒序
+     *
+     * @param userId  用户ID
+     * @param afterId 上一页最后一个用户的ID，首页为 null
+     * @param limit   限制数量
+     * @return 用户节点列表
+     */
+    @Query("MATCH (u:User {id: $userId}) "
+            + "OPTIONAL MATCH (u)<-[c:FOLLOWS]-(:User {id: $afterId}) "
+            + "WITH u, c.createdAt AS afterCreatedAt "
+            + "MATCH (u)<-[r:FOLLOWS]-(f:User) "
+            + "WHERE $afterId IS NULL OR r.createdAt < afterCreatedAt "
+            + "OR (r.createdAt = afterCreatedAt AND f.id < $afterId) "
+            + "RETURN f ORDER BY r.createdAt DESC, f.id DESC LIMIT $limit")
+    List<UserNode> findFollowers(Long userId, Long afterId, Integer limit);
+
+    /**
+     * 查找用户关注的人，按关注时间倒序
+     *
+     * @param userId  用户ID
+     * @param afterId 上一页最后一个用户的ID，首页为 null
+     * @param limit   限制数量
+     * @return 用户节点列表
+     */
+    @Query("MATCH (u:User {id: $userId}) "
+            + "OPTIONAL MATCH (u)-[c:FOLLOWS]->(:User {id: $afterId}) "
+            + "WITH u, c.createdAt AS afterCreatedAt "
+            + "MATCH (u)-[r:FOLLOWS]->(f:User) "
+            + "WHERE $afterId IS NULL OR r.createdAt < afterCreatedAt "
+            + "OR (r.createdAt = afterCreatedAt AND f.id < $afterId) "
+            + "RETURN f ORDER BY r.createdAt DESC, f.id DESC LIMIT $limit")
+    List<UserNode> findFollowing(Long userId, Long afterId, Integer limit);
+
+    /**
+     * 查找用户的好友，按成为好友的时间倒序
+     *
+     * @param userId  用户ID
+     * @param afterId 上一页最后一个用户的ID，首页为 null
+     * @param limit   限制数量
+     * @return 用户节点列表
+     */
+    @Query("MATCH (u:User {id: $userId}) "
+            + "OPTIONAL MATCH (u)-[c:FRIEND]-(:User {id: $afterId}) "
+            + "WITH u, c.createdAt AS afterCreatedAt "
+            + "MATCH (u)-[r:FRIEND]-(f:User) "
+            + "WHERE $afterId IS NULL OR r.createdAt < afterCreatedAt "
+            + "OR (r.createdAt = afterCreatedAt AND f.id < $afterId) "
+            + "RETURN f ORDER BY r.createdAt DESC, f.id DESC LIMIT $limit")
+    List<UserNode> findFriends(Long userId, Long afterId, Integer limit);
+
+    /**
+     * 查找两个用户的共同好友（两端都从唯一约束索引定位，只展开两跳）
+     *
+     * @param userId1 用户ID
+     * @param userId2 用户ID
+     * @param limit   限制数量
+     * @return 用户节点列表
+     */
+    @Query("MATCH (:User {id: $userId1})-[:FRIEND]-(m:User)-[:FRIEND]-(:User {id: $userId2}) "
+            + "RETURN DISTINCT m LIMIT $limit")
+    List<UserNode> findMutualFriends(Long userId1, Long userId2, Integer limit);
+
+    /**
+     * 查找用户的好友ID
+     *
+     * @param userId 用户ID
+     * @param limit  限制数量
+     * @return 好友ID列表
+     */
+    @Query("MATCH (:User {id: $userId})-[:FRIEND]-(f:User) RETURN f.id LIMIT $limit")
+    List<Long> findFriendIds(Long userId, Integer limit);
 }
\ No newline at end of file
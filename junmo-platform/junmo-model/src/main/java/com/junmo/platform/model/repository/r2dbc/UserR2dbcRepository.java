@@ -44,6 +44,14 @@ public interface UserR2dbcRepository extends R2dbcRepository<User, Long> {
      */
     Flux<User> findByStatus(Integer status);
 
+    /**
+     * 根据状态统计用户数量
+     *
+     * @param status 状态
+     * @return 用户数量Mono
+     */
+    Mono<Long> countByStatus(Integer status);
+
     /**
      * 根据状态和删除标记查找用户
      *